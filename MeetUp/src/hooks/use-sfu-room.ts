@@ -1,9 +1,20 @@
 import { useCallback, useEffect, useRef, useState } from "react";
 import * as mediasoupClient from "mediasoup-client";
 import { getToken } from "@/lib/auth/token";
+import { API_BASE } from "@/lib/api/client";
 
 type RemoteTrack = { producerId: string; stream: MediaStream; kind: "audio" | "video" };
 
+/**
+ * Camera simulcast: thumbnail, grid and full quality. The backend picks which
+ * layer each receiver gets from its tile count and the room size.
+ */
+const VIDEO_ENCODINGS: mediasoupClient.types.RtpEncodingParameters[] = [
+    { rid: "r0", scaleResolutionDownBy: 4, maxBitrate: 150_000, scalabilityMode: "L1T3" },
+    { rid: "r1", scaleResolutionDownBy: 2, maxBitrate: 500_000, scalabilityMode: "L1T3" },
+    { rid: "r2", scaleResolutionDownBy: 1, maxBitrate: 1_500_000, scalabilityMode: "L1T3" },
+];
+
 type JoinArgs = {
     micOn: boolean;
     camOn: boolean;
@@ -27,11 +38,17 @@ type JoinArgs = {
  *
  * A lightweight mediasoup-client SFU hook with WS signaling.
  *
+ * Signaling goes through the backend's /ws/meet, which checks room access,
+ * forwards SFU requests for this user and relays room events (NEW_PRODUCER,
+ * ...). The SFU itself is never reached from the browser.
+ *
  * Features:
  * - Join/leave a room
  * - Create send/recv transports
  * - Produce audio/video (and toggle them while joined)
  * - Consume remote producers announced over WS
+ * - Report how many remote video tiles are shown (VIEWPORT), so the backend
+ *   can pick simulcast layers and pause what is not on screen
  * - Expose a localStream for UI (built from current producer tracks)
  *
  * Key reliability rule:
@@ -41,7 +58,6 @@ type JoinArgs = {
  */
 export function useSfuRoom(roomId: string) {
     const wsRef = useRef<WebSocket | null>(null);
-    const userIdRef = useRef<string>(crypto.randomUUID());
 
     const deviceRef = useRef<mediasoupClient.types.Device | null>(null);
     const sendTransportRef = useRef<mediasoupClient.types.Transport | null>(null);
@@ -70,7 +86,7 @@ export function useSfuRoom(roomId: string) {
 
     /**
      * WS request/response helper (reqId-based).
-     * Server should echo reqId in the response.
+     * The backend echoes reqId in the response; the user comes from the token.
      */
     function req(payload: any): Promise<any> {
         const ws = wsRef.current;
@@ -79,7 +95,7 @@ export function useSfuRoom(roomId: string) {
         }
 
         const reqId = crypto.randomUUID();
-        const msg = { ...payload, reqId, roomId, userId: userIdRef.current };
+        const msg = { ...payload, reqId, roomId };
 
         return new Promise((resolve, reject) => {
             let done = false;
@@ -161,7 +177,9 @@ export function useSfuRoom(roomId: string) {
             const sendTransport = sendTransportRef.current;
             if (!sendTransport) throw new Error("NO_SEND_TRANSPORT");
 
-            const producer = await sendTransport.produce({ track });
+            const producer = await sendTransport.produce(
+                kind === "video" ? { track, encodings: VIDEO_ENCODINGS } : { track }
+            );
 
             if (kind === "audio") audioProducerRef.current = producer;
             else videoProducerRef.current = producer;
@@ -281,7 +299,7 @@ export function useSfuRoom(roomId: string) {
 
     /**
      * Join flow:
-     * - Create WS
+     * - Open /ws/meet and JOIN the room
      * - Load router RTP capabilities into mediasoup Device
      * - Create send/recv transports
      * - Produce initial tracks (from preview stream if available)
@@ -296,7 +314,8 @@ export function useSfuRoom(roomId: string) {
 
         await leave();
 
-        const ws = new WebSocket("ws://localhost:4000/sfu");
+        const wsBase = API_BASE.replace(/^http/, "ws");
+        const ws = new WebSocket(`${wsBase}/ws/meet?access_token=${encodeURIComponent(token)}`);
         wsRef.current = ws;
 
         await new Promise<void>((res, rej) => {
@@ -305,6 +324,8 @@ export function useSfuRoom(roomId: string) {
             ws.onclose = (ev) => console.warn("[SFU] ws close", ev.code, ev.reason);
         });
 
+        await req({ type: "JOIN" });
+
         const capsRes = await req({ type: "RTPCAPS_REQUEST" });
         const rtpCaps = capsRes?.rtpCapabilities;
         if (!rtpCaps || typeof rtpCaps !== "object") throw new Error("BAD_RTP_CAPS");
@@ -465,7 +486,9 @@ export function useSfuRoom(roomId: string) {
         deviceRef.current = null;
 
         try {
-            ws?.close();
+            // a normal close tells the backend this is a goodbye, not a dropped link to resume
+            if (ws?.readyState === WebSocket.OPEN) ws.send(JSON.stringify({ type: "LEAVE", roomId }));
+            ws?.close(1000);
         } catch { }
         wsRef.current = null;
 
@@ -474,6 +497,18 @@ export function useSfuRoom(roomId: string) {
         setJoined(false);
     }
 
+    /**
+     * Every remote video is rendered as a tile (stage or filmstrip), so the
+     * tile count is the number of remote video tracks.
+     */
+    const videoTiles = remoteTracks.filter((t) => t.kind === "video").length;
+
+    useEffect(() => {
+        const ws = wsRef.current;
+        if (!joined || !ws || ws.readyState !== WebSocket.OPEN) return;
+        ws.send(JSON.stringify({ type: "VIEWPORT", roomId, tiles: videoTiles }));
+    }, [joined, videoTiles, roomId]);
+
     useEffect(() => {
         return () => {
             void leave();
@@ -1,4 +1,4 @@
-import { getToken, clearActiveToken } from "@/lib/auth/token";
+import { getToken, clearActiveToken, getRefreshToken, setActiveTokens } from "@/lib/auth/token";
 
 /**
  * Backend base URL.
@@ -46,6 +46,82 @@ function authHeaders(): Record<string, string> {
   return { Authorization: `Bearer ${token}` };
 }
 
+let refreshing: Promise<boolean> | null = null;
+
+/**
+ * Trades the refresh token for a new pair (POST /auth/refresh).
+ * Concurrent 401s share one call: refresh tokens are single-use.
+ */
+function refreshTokens(): Promise<boolean> {
+  if (refreshing) return refreshing;
+
+  const refreshToken = getRefreshToken();
+  if (!refreshToken) return Promise.resolve(false);
+
+  refreshing = (async () => {
+    try {
+      const res = await fetch(`${API_BASE}/auth/refresh`, {
+        method: "POST",
+        headers: { "Content-Type": "application/json" },
+        body: JSON.stringify({ refreshToken }),
+      });
+      if (!res.ok) return false;
+
+      const pair = await safeJson<{ accessToken: string; refreshToken: string }>(res);
+      if (!pair?.accessToken || !pair?.refreshToken) return false;
+
+      setActiveTokens(pair.accessToken, pair.refreshToken);
+      return true;
+    } catch {
+      return false;
+    } finally {
+      refreshing = null;
+    }
+  })();
+  return refreshing;
+}
+
+/**
+ * Authenticated fetch; on 401 refreshes the access token once and retries.
+ */
+async function authedFetch(path: string, init: RequestInit, json = false): Promise<Response> {
+  const send = () =>
+    fetch(`${API_BASE}${path}`, {
+      ...init,
+      headers: { ...authHeaders(), ...(json ? { "Content-Type": "application/json" } : {}) },
+    });
+
+  const res = await send();
+  if (res.status === 401 && (await refreshTokens())) return send();
+  return res;
+}
+
+/**
+ * Signs the active user out (POST /auth/logout): revokes the access token and
+ * the refresh token's whole family server-side, then forgets both locally.
+ * Local tokens are cleared even if the call fails.
+ */
+export async function logout(): Promise<void> {
+  const token = getToken();
+  const refreshToken = getRefreshToken();
+  try {
+    if (token || refreshToken) {
+      await fetch(`${API_BASE}/auth/logout`, {
+        method: "POST",
+        headers: {
+          "Content-Type": "application/json",
+          ...(token ? { Authorization: `Bearer ${token}` } : {}),
+        },
+        body: JSON.stringify({ refreshToken }),
+      });
+    }
+  } catch {
+    // offline: the refresh family simply expires
+  } finally {
+    clearActiveToken();
+  }
+}
+
 /**
  * Handles auth failures consistently.
  */
@@ -55,10 +131,7 @@ function handleAuthFailure(status: number): never {
 }
 
 export async function apiGet<T>(path: string): Promise<T> {
-  const res = await fetch(`${API_BASE}${path}`, {
-    method: "GET",
-    headers: authHeaders(),
-  });
+  const res = await authedFetch(path, { method: "GET" });
 
   if (res.status === 401 || res.status === 403) handleAuthFailure(res.status);
   if (!res.ok) throw new ApiError(`HTTP_${res.status}`, res.status);
@@ -67,11 +140,7 @@ export async function apiGet<T>(path: string): Promise<T> {
 }
 
 export async function apiPost<TResponse, TBody>(path: string, body: TBody): Promise<TResponse> {
-  const res = await fetch(`${API_BASE}${path}`, {
-    method: "POST",
-    headers: { ...authHeaders(), "Content-Type": "application/json" },
-    body: JSON.stringify(body),
-  });
+  const res = await authedFetch(path, { method: "POST", body: JSON.stringify(body) }, true);
 
   if (res.status === 401 || res.status === 403) handleAuthFailure(res.status);
   if (!res.ok) throw new ApiError(`HTTP_${res.status}`, res.status);
@@ -80,11 +149,7 @@ export async function apiPost<TResponse, TBody>(path: string, body: TBody): Prom
 }
 
 export async function apiPut<TResponse, TBody>(path: string, body: TBody): Promise<TResponse> {
-  const res = await fetch(`${API_BASE}${path}`, {
-    method: "PUT",
-    headers: { ...authHeaders(), "Content-Type": "application/json" },
-    body: JSON.stringify(body),
-  });
+  const res = await authedFetch(path, { method: "PUT", body: JSON.stringify(body) }, true);
 
   if (res.status === 401 || res.status === 403) handleAuthFailure(res.status);
   if (!res.ok) throw new ApiError(`HTTP_${res.status}`, res.status);
@@ -93,10 +158,7 @@ export async function apiPut<TResponse, TBody>(path: string, body: TBody): Promi
 }
 
 export async function apiDel<T>(path: string): Promise<T> {
-  const res = await fetch(`${API_BASE}${path}`, {
-    method: "DELETE",
-    headers: authHeaders(),
-  });
+  const res = await authedFetch(path, { method: "DELETE" });
 
   if (res.status === 401 || res.status === 403) handleAuthFailure(res.status);
   if (!res.ok) throw new ApiError(`HTTP_${res.status}`, res.status);
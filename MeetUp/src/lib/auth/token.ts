@@ -3,6 +3,7 @@
  */
 
 const PREFIX = "meetup:token:";
+const REFRESH_PREFIX = "meetup:refresh:";
 const ACTIVE_KEY = "meetup:activeUser";
 
 export function setActiveUser(userId: string) {
@@ -24,15 +25,37 @@ export function getToken(): string | null {
   return localStorage.getItem(PREFIX + userId);
 }
 
+export function setRefreshTokenForUser(userId: string, refreshToken: string) {
+  localStorage.setItem(REFRESH_PREFIX + userId, refreshToken);
+}
+
+export function getRefreshToken(): string | null {
+  const userId = getActiveUser();
+  if (!userId) return null;
+  return localStorage.getItem(REFRESH_PREFIX + userId);
+}
+
+/**
+ * Stores a rotated access + refresh pair for the active user.
+ */
+export function setActiveTokens(token: string, refreshToken: string) {
+  const userId = getActiveUser();
+  if (!userId) return;
+  localStorage.setItem(PREFIX + userId, token);
+  localStorage.setItem(REFRESH_PREFIX + userId, refreshToken);
+}
+
 export function clearActiveToken() {
   const userId = getActiveUser();
   if (!userId) return;
   localStorage.removeItem(PREFIX + userId);
+  localStorage.removeItem(REFRESH_PREFIX + userId);
   localStorage.removeItem(ACTIVE_KEY);
 }
 
 export function clearTokenForUser(userId: string) {
   localStorage.removeItem(PREFIX + userId);
+  localStorage.removeItem(REFRESH_PREFIX + userId);
   if (getActiveUser() === userId) {
     localStorage.removeItem(ACTIVE_KEY);
   }
@@ -1,6 +1,6 @@
 import { useEffect } from "react";
 import { useLocation, useNavigate, useSearchParams } from "react-router-dom";
-import { setTokenForUser, setActiveUser } from "@/lib/auth/token";
+import { setTokenForUser, setActiveUser, setRefreshTokenForUser } from "@/lib/auth/token";
 
 type LocationState = { from?: string };
 
@@ -22,6 +22,7 @@ export function AuthCallback() {
 
     useEffect(() => {
         const token = params.get("token");
+        const refreshToken = params.get("refreshToken");
 
         if (token) {
             const payload = decodeJwtPayload(token);
@@ -30,6 +31,7 @@ export function AuthCallback() {
 
             if (uid) {
                 setTokenForUser(String(uid), token);
+                if (refreshToken) setRefreshTokenForUser(String(uid), refreshToken);
                 setActiveUser(String(uid));
             } else {
             }
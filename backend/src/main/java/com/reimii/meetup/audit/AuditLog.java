@@ -0,0 +1,225 @@
+package com.reimii.meetup.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Append-only audit trail of meeting changes and room joins/leaves, kept out
+ * of MySQL. Callers only enqueue onto a lock-free queue; a single writer
+ * thread assigns sequence numbers and appends {@link AuditRecord}s to
+ * memory-mapped segment files of {@code app.audit.segment-bytes} each, named
+ * after their first sequence number. Segments are forced to disk every
+ * {@code app.audit.force-interval-ms} and when they are rotated.
+ *
+ * On startup the newest segment is scanned to find where writing stopped; a
+ * record torn by a crash, and anything after it, is zeroed and overwritten.
+ * A full queue drops events rather than stall the caller.
+ *
+ * Read segments back with {@link AuditLogReader}.
+ */
+@Component
+public class AuditLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    static final String SUFFIX = ".audit";
+
+    private record Event(AuditType type, long at, long userId, String subject) {
+    }
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int capacity;
+    private final long forceIntervalNanos;
+
+    private final ConcurrentLinkedQueue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean idle;
+    private volatile boolean running = true;
+
+    // writer thread only
+    private final CRC32C crc = new CRC32C();
+    private MappedByteBuffer segment;
+    private long nextSeq;
+    private long lastForce;
+    private boolean dirty;
+
+    public AuditLog(
+            @Value("${app.audit.dir}") String dir,
+            @Value("${app.audit.segment-bytes}") int segmentBytes,
+            @Value("${app.audit.queue-capacity}") int capacity,
+            @Value("${app.audit.force-interval-ms}") long forceIntervalMs) throws IOException {
+        this.dir = Path.of(dir);
+        this.segmentBytes = segmentBytes;
+        this.capacity = capacity;
+        this.forceIntervalNanos = TimeUnit.MILLISECONDS.toNanos(forceIntervalMs);
+
+        Files.createDirectories(this.dir);
+        recover();
+
+        writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * @param userId who acted, or null
+     * @return false if the event was dropped because the queue is full
+     */
+    public boolean record(AuditType type, Long userId, String subject) {
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            long n = dropped.incrementAndGet();
+            if (n == 1 || n % 1000 == 0) {
+                log.warn("Audit queue full; {} events dropped so far", n);
+            }
+            return false;
+        }
+        queue.offer(new Event(type, System.currentTimeMillis(), userId != null ? userId : 0L, subject));
+        if (idle) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Events appended to a segment so far (not necessarily forced yet).
+     */
+    public long written() {
+        return written.get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(10_000);
+    }
+
+    private void run() {
+        lastForce = System.nanoTime();
+        int taken = 0;
+        while (true) {
+            Event e = queue.poll();
+            if (e != null) {
+                // hand queue slots back in batches rather than contend with producers per event
+                if (++taken == 256) {
+                    queued.addAndGet(-taken);
+                    taken = 0;
+                }
+                try {
+                    append(e);
+                } catch (RuntimeException ex) {
+                    log.error("Audit event {} on {} not written", e.type(), e.subject(), ex);
+                }
+                continue;
+            }
+            queued.addAndGet(-taken);
+            taken = 0;
+
+            if (dirty && System.nanoTime() - lastForce >= forceIntervalNanos) {
+                force();
+            }
+            if (!running) {
+                break;
+            }
+            idle = true;
+            if (queue.isEmpty()) {
+                LockSupport.parkNanos(dirty ? forceIntervalNanos : TimeUnit.SECONDS.toNanos(1));
+            }
+            idle = false;
+        }
+        if (dirty) {
+            force();
+        }
+    }
+
+    private void append(Event e) {
+        byte[] subject = AuditRecord.subjectBytes(e.subject());
+        int size = AuditRecord.HEADER + AuditRecord.FIXED_BODY + subject.length;
+        // keep the zero length that ends the segment
+        if (segment.remaining() < size + 4) {
+            force();
+            segment = map(segmentPath(nextSeq));
+        }
+        AuditRecord.write(segment, crc, nextSeq++, e.at(), e.type(), e.userId(), subject);
+        written.incrementAndGet();
+        dirty = true;
+    }
+
+    private void force() {
+        segment.force();
+        lastForce = System.nanoTime();
+        dirty = false;
+    }
+
+    /**
+     * Positions the writer after the last intact record of the newest
+     * segment, or starts the first one.
+     */
+    private void recover() throws IOException {
+        List<Path> segments = AuditLogReader.segments(dir);
+        if (segments.isEmpty()) {
+            nextSeq = 1;
+            segment = map(segmentPath(1));
+            return;
+        }
+
+        Path last = segments.get(segments.size() - 1);
+        nextSeq = AuditLogReader.firstSeq(last);
+        segment = map(last);
+        try {
+            AuditRecord r;
+            while ((r = AuditRecord.read(segment, crc)) != null) {
+                nextSeq = r.seq() + 1;
+            }
+        } catch (IllegalStateException torn) {
+            log.warn("Audit segment {} torn at byte {}; truncating", last.getFileName(), segment.position());
+            int pos = segment.position();
+            for (int i = pos; i < segment.limit(); i++) {
+                segment.put(i, (byte) 0);
+            }
+            segment.force();
+        }
+    }
+
+    private Path segmentPath(long firstSeq) {
+        return dir.resolve(String.format("%020d%s", firstSeq, SUFFIX));
+    }
+
+    private MappedByteBuffer map(Path path) {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            int size = (int) Math.max(ch.size(), segmentBytes);
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
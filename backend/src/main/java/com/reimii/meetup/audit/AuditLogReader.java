@@ -0,0 +1,123 @@
+package com.reimii.meetup.audit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Sequential reader over an {@link AuditLog} directory, oldest segment
+ * first. Safe to run against a live log: it stops at the last complete
+ * record. A corrupt record ends its segment and reading goes on with the
+ * next one.
+ *
+ * Also a standalone exporter writing NDJSON to stdout:
+ * {@code java -cp app.jar com.reimii.meetup.audit.AuditLogReader <dir> [fromSeq]}
+ */
+public final class AuditLogReader {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogReader.class);
+
+    private final Path dir;
+
+    public AuditLogReader(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Feeds every record with {@code seq >= fromSeq} to {@code sink} in order.
+     *
+     * @return records delivered
+     */
+    public long read(long fromSeq, Consumer<AuditRecord> sink) throws IOException {
+        List<Path> segments = segments(dir);
+        var crc = new CRC32C();
+        long delivered = 0;
+
+        for (int i = 0; i < segments.size(); i++) {
+            // the next segment starts past fromSeq: nothing wanted in this one
+            if (i + 1 < segments.size() && firstSeq(segments.get(i + 1)) <= fromSeq) {
+                continue;
+            }
+            MappedByteBuffer buf = map(segments.get(i));
+            try {
+                AuditRecord r;
+                while ((r = AuditRecord.read(buf, crc)) != null) {
+                    if (r.seq() >= fromSeq) {
+                        sink.accept(r);
+                        delivered++;
+                    }
+                }
+            } catch (IllegalStateException corrupt) {
+                log.warn("Audit segment {}: {}; skipping the rest of it", segments.get(i).getFileName(),
+                        corrupt.getMessage());
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * One JSON object per line.
+     */
+    public long export(long fromSeq, Writer out) throws IOException {
+        var om = new ObjectMapper();
+        try {
+            return read(fromSeq, r -> {
+                try {
+                    out.write(om.writeValueAsString(r));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: AuditLogReader <dir> [fromSeq]");
+            System.exit(2);
+        }
+        long fromSeq = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        var out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        new AuditLogReader(Path.of(args[0])).export(fromSeq, out);
+        out.flush();
+    }
+
+    static List<Path> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(AuditLog.SUFFIX)).sorted().toList();
+        }
+    }
+
+    static long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - AuditLog.SUFFIX.length()));
+    }
+
+    private static MappedByteBuffer map(Path segment) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+    }
+}
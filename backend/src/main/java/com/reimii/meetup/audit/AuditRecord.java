@@ -0,0 +1,98 @@
+package com.reimii.meetup.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * One audit log entry and its on-disk format, little room spent per record:
+ *
+ * <pre>
+ * int   length   bytes after the crc
+ * int   crc      CRC32C of those bytes
+ * long  seq
+ * long  at       epoch millis
+ * byte  type     {@link AuditType#code()}
+ * long  userId   0 if none
+ * short n        subject length
+ * byte[n]        subject, UTF-8
+ * </pre>
+ *
+ * A zero length marks the end of the written part of a segment.
+ *
+ * @param subject meeting id or room id
+ */
+public record AuditRecord(long seq, long at, AuditType type, long userId, String subject) {
+
+    static final int HEADER = 8;
+    static final int FIXED_BODY = 8 + 8 + 1 + 8 + 2;
+    static final int MAX_SUBJECT = 1024;
+
+    static byte[] subjectBytes(String subject) {
+        byte[] b = subject != null ? subject.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (b.length > MAX_SUBJECT) {
+            byte[] cut = new byte[MAX_SUBJECT];
+            System.arraycopy(b, 0, cut, 0, MAX_SUBJECT);
+            return cut;
+        }
+        return b;
+    }
+
+    /**
+     * Writes one record at the buffer's position, which must have room for
+     * {@code HEADER + FIXED_BODY + subject.length} bytes. The length goes in
+     * last, so a record torn by a crash fails its CRC or reads as the end.
+     */
+    static void write(ByteBuffer buf, CRC32C crc, long seq, long at, AuditType type, long userId, byte[] subject) {
+        int start = buf.position();
+        int bodyLength = FIXED_BODY + subject.length;
+
+        buf.position(start + HEADER);
+        buf.putLong(seq).putLong(at).put(type.code()).putLong(userId).putShort((short) subject.length).put(subject);
+
+        crc.reset();
+        crc.update(buf.slice(start + HEADER, bodyLength));
+        buf.putInt(start + 4, (int) crc.getValue());
+        buf.putInt(start, bodyLength);
+    }
+
+    /**
+     * Reads the record at the buffer's position and moves past it.
+     *
+     * @return null at the end of the written part; the position is then
+     *         left where it was
+     * @throws IllegalStateException on a torn or corrupt record
+     */
+    static AuditRecord read(ByteBuffer buf, CRC32C crc) {
+        int start = buf.position();
+        if (buf.remaining() < HEADER) {
+            return null;
+        }
+        int length = buf.getInt(start);
+        if (length == 0) {
+            return null;
+        }
+        if (length < FIXED_BODY || length > buf.remaining() - HEADER) {
+            throw new IllegalStateException("bad record length " + length + " at " + start);
+        }
+        crc.reset();
+        crc.update(buf.slice(start + HEADER, length));
+        if ((int) crc.getValue() != buf.getInt(start + 4)) {
+            throw new IllegalStateException("crc mismatch at " + start);
+        }
+
+        buf.position(start + HEADER);
+        long seq = buf.getLong();
+        long at = buf.getLong();
+        AuditType type = AuditType.of(buf.get());
+        long userId = buf.getLong();
+        int n = buf.getShort() & 0xffff;
+        if (type == null || n != length - FIXED_BODY) {
+            buf.position(start);
+            throw new IllegalStateException("bad record body at " + start);
+        }
+        byte[] subject = new byte[n];
+        buf.get(subject);
+        return new AuditRecord(seq, at, type, userId, new String(subject, StandardCharsets.UTF_8));
+    }
+}
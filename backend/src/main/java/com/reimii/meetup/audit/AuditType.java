@@ -0,0 +1,32 @@
+package com.reimii.meetup.audit;
+
+/**
+ * Audited actions. The code is what goes on disk, so existing codes must
+ * never change.
+ */
+public enum AuditType {
+    MEETING_CREATED(1),
+    MEETING_UPDATED(2),
+    MEETING_DELETED(3),
+    ROOM_JOINED(4),
+    ROOM_LEFT(5);
+
+    private final byte code;
+
+    AuditType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public static AuditType of(byte code) {
+        for (AuditType t : values()) {
+            if (t.code == code) {
+                return t;
+            }
+        }
+        return null;
+    }
+}
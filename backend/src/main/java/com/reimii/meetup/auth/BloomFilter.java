@@ -0,0 +1,65 @@
+package com.reimii.meetup.auth;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings, sized for {@code expected} entries
+ * at false-positive rate {@code fpp}. Adds and lookups are lock-free; there
+ * is no removal, owners rebuild a fresh filter instead.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    BloomFilter(int expected, double fpp) {
+        long m = (long) Math.ceil(-Math.max(expected, 1) * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) ((m + 63) >>> 6));
+        this.bits = (long) words.length() << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / Math.max(expected, 1) * Math.log(2)));
+    }
+
+    void add(String s) {
+        long h1 = hash(s);
+        long h2 = mix(h1);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            long mask = 1L << bit;
+            words.getAndAccumulate((int) (bit >>> 6), mask, (w, m) -> w | m);
+        }
+    }
+
+    boolean mightContain(String s) {
+        long h1 = hash(s);
+        long h2 = mix(h1);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a, 64 bit.
+     */
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * splitmix64 finalizer, for the second hash of double hashing.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return (z ^ (z >>> 31)) | 1;
+    }
+}
@@ -9,7 +9,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.reimii.meetup.users.AppUser;
-import com.reimii.meetup.users.UserRepository;
+import com.reimii.meetup.users.PrincipalCache;
 
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
@@ -21,11 +21,13 @@ import jakarta.servlet.http.HttpServletResponse;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principals;
+    private final RevokedTokens revoked;
 
-    public JwtAuthFilter(JwtService jwtService, UserRepository userRepository) {
+    public JwtAuthFilter(JwtService jwtService, PrincipalCache principals, RevokedTokens revoked) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.principals = principals;
+        this.revoked = revoked;
     }
 
     @Override
@@ -43,9 +45,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         try {
             Claims claims = jwtService.parse(token).getPayload();
+            if (revoked.isRevoked(claims.getId())) {
+                filterChain.doFilter(request, response);
+                return;
+            }
             Long userId = Long.valueOf(claims.getSubject());
 
-            AppUser user = userRepository.findById(userId).orElse(null);
+            AppUser user = principals.get(userId);
             if (user != null) {
                 var auth = new UsernamePasswordAuthenticationToken(user, null, List.of());
                 SecurityContextHolder.getContext().setAuthentication(auth);
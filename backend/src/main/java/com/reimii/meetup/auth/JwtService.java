@@ -3,6 +3,7 @@ package com.reimii.meetup.auth;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
 import javax.crypto.SecretKey;
 
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
@@ -19,28 +21,47 @@ public class JwtService {
 
     private final SecretKey key;
     private final long ttlSeconds;
+    private final JwtParser parser;
 
     public JwtService(@Value("${app.jwt.secret}") String secret,
             @Value("${app.jwt.ttl-seconds}") long ttlSeconds) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.ttlSeconds = ttlSeconds;
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+    }
+
+    /**
+     * An access token and what is needed to revoke it.
+     */
+    public record AccessToken(String token, String jti, Instant expiresAt) {
     }
 
     public String createToken(Long userId, String email) {
+        return issue(userId, email).token();
+    }
+
+    public AccessToken issue(Long userId, String email) {
         Instant now = Instant.now();
-        return Jwts.builder()
+        Instant expiresAt = now.plusSeconds(ttlSeconds);
+        String jti = UUID.randomUUID().toString();
+        String token = Jwts.builder()
+                .id(jti)
                 .subject(String.valueOf(userId))
                 .claim("email", email)
                 .issuedAt(Date.from(now))
-                .expiration(Date.from(now.plusSeconds(ttlSeconds)))
+                .expiration(Date.from(expiresAt))
                 .signWith(key, Jwts.SIG.HS256)
                 .compact();
+        return new AccessToken(token, jti, expiresAt);
+    }
+
+    public long ttlSeconds() {
+        return ttlSeconds;
     }
 
     public Jws<Claims> parse(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token);
+        return parser.parseSignedClaims(token);
     }
 }
@@ -19,15 +19,15 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
 
-    private final JwtService jwtService;
     private final UserService userService;
+    private final RefreshTokens refreshTokens;
     private final String frontendBaseUrl;
 
-    public OAuth2SuccessHandler(JwtService jwtService,
-            UserService userService,
+    public OAuth2SuccessHandler(UserService userService,
+            RefreshTokens refreshTokens,
             @Value("${app.frontend.base-url}") String frontendBaseUrl) {
-        this.jwtService = jwtService;
         this.userService = userService;
+        this.refreshTokens = refreshTokens;
         this.frontendBaseUrl = frontendBaseUrl;
     }
 
@@ -44,10 +44,11 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
 
         AppUser user = userService.upsertGoogleUser(email, name, picture);
 
-        String token = jwtService.createToken(user.getId(), user.getEmail());
+        var tokens = refreshTokens.issue(user);
 
         String redirect = frontendBaseUrl + "/auth/callback?token="
-                + URLEncoder.encode(token, StandardCharsets.UTF_8);
+                + URLEncoder.encode(tokens.accessToken(), StandardCharsets.UTF_8)
+                + "&refreshToken=" + URLEncoder.encode(tokens.refreshToken(), StandardCharsets.UTF_8);
 
         response.sendRedirect(redirect);
     }
@@ -0,0 +1,101 @@
+package com.reimii.meetup.auth;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * One refresh token of a login. Each refresh uses it up and issues the next
+ * one in the same family; presenting a used one again revokes the family.
+ * Only the SHA-256 of the token is stored.
+ */
+@Entity
+@Table(name = "refresh_tokens", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_refresh_tokens_hash", columnNames = "token_hash")
+}, indexes = {
+    @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+    @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    private Instant usedAt;
+
+    // the access token issued alongside, revoked with the family
+    @Column(nullable = false, length = 64)
+    private String accessJti;
+
+    @Column(nullable = false)
+    private Instant accessExpiresAt;
+
+    protected RefreshToken() {
+    }
+
+    public RefreshToken(String tokenHash, String familyId, Long userId, Instant expiresAt, String accessJti,
+            Instant accessExpiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+        this.accessJti = accessJti;
+        this.accessExpiresAt = accessExpiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Instant getUsedAt() {
+        return usedAt;
+    }
+
+    public void setUsedAt(Instant usedAt) {
+        this.usedAt = usedAt;
+    }
+
+    public String getAccessJti() {
+        return accessJti;
+    }
+
+    public Instant getAccessExpiresAt() {
+        return accessExpiresAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.reimii.meetup.auth;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.LockModeType;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // locked so two refreshes with the same token can't both rotate it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from RefreshToken t where t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findForUpdate(@Param("tokenHash") String tokenHash);
+
+    // Served by idx_refresh_tokens_family
+    List<RefreshToken> findByFamilyId(String familyId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.familyId = :familyId")
+    int deleteFamily(@Param("familyId") String familyId);
+
+    /**
+     * Expired tokens, and used ones past the window in which a replay still
+     * revokes the family.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken t where t.expiresAt < :now or t.usedAt < :usedBefore")
+    int deleteStale(@Param("now") Instant now, @Param("usedBefore") Instant usedBefore);
+}
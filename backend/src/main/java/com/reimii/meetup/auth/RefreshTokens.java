@@ -0,0 +1,128 @@
+package com.reimii.meetup.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reimii.meetup.users.AppUser;
+import com.reimii.meetup.users.PrincipalCache;
+
+/**
+ * Issues access + refresh token pairs and rotates them. Refresh tokens are
+ * opaque and single-use: a refresh spends the presented one and returns the
+ * next of its family. Presenting a spent one means it leaked, so the whole
+ * family and the access tokens it issued are revoked.
+ */
+@Service
+public class RefreshTokens {
+
+    public record TokenPair(String accessToken, String refreshToken, long expiresIn) {
+    }
+
+    private final RefreshTokenRepository repo;
+    private final JwtService jwt;
+    private final RevokedTokens revoked;
+    private final PrincipalCache principals;
+    private final Duration ttl;
+    private final Duration reuseWindow;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokens(RefreshTokenRepository repo, JwtService jwt, RevokedTokens revoked,
+            PrincipalCache principals,
+            @Value("${app.jwt.refresh-ttl-seconds}") long ttlSeconds,
+            @Value("${app.jwt.refresh-reuse-window-seconds}") long reuseWindowSeconds) {
+        this.repo = repo;
+        this.jwt = jwt;
+        this.revoked = revoked;
+        this.principals = principals;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.reuseWindow = Duration.ofSeconds(reuseWindowSeconds);
+    }
+
+    /**
+     * A new login: starts a family.
+     */
+    @Transactional
+    public TokenPair issue(AppUser user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * @return the next pair, or null if the token is unknown, expired or was
+     *         already used (its family is then revoked)
+     */
+    @Transactional
+    public TokenPair rotate(String refreshToken) {
+        Instant now = Instant.now();
+        RefreshToken current = repo.findForUpdate(hash(refreshToken)).orElse(null);
+        if (current == null || !current.getExpiresAt().isAfter(now)) {
+            return null;
+        }
+        if (current.getUsedAt() != null) {
+            revokeFamily(current.getFamilyId(), now);
+            return null;
+        }
+        AppUser user = principals.get(current.getUserId());
+        if (user == null) {
+            return null;
+        }
+        current.setUsedAt(now);
+        return issue(user, current.getFamilyId());
+    }
+
+    /**
+     * Logout: the family of {@code refreshToken} and every access token it
+     * issued stop working.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        repo.findForUpdate(hash(refreshToken)).ifPresent(t -> revokeFamily(t.getFamilyId(), Instant.now()));
+    }
+
+    private TokenPair issue(AppUser user, String familyId) {
+        var access = jwt.issue(user.getId(), user.getEmail());
+
+        byte[] raw = new byte[32];
+        random.nextBytes(raw);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+
+        repo.save(new RefreshToken(hash(refreshToken), familyId, user.getId(), Instant.now().plus(ttl),
+                access.jti(), access.expiresAt()));
+        return new TokenPair(access.token(), refreshToken, jwt.ttlSeconds());
+    }
+
+    private void revokeFamily(String familyId, Instant now) {
+        for (RefreshToken t : repo.findByFamilyId(familyId)) {
+            if (t.getAccessExpiresAt().isAfter(now)) {
+                revoked.revoke(t.getAccessJti(), t.getAccessExpiresAt());
+            }
+        }
+        repo.deleteFamily(familyId);
+    }
+
+    @Scheduled(fixedDelay = 3_600_000)
+    public void prune() {
+        Instant now = Instant.now();
+        repo.deleteStale(now, now.minus(reuseWindow));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
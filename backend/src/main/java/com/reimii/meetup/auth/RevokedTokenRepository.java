@@ -0,0 +1,36 @@
+package com.reimii.meetup.auth;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    // Served by idx_revoked_tokens_revoked_at
+    List<RevokedToken> findByRevokedAtGreaterThanEqualAndExpiresAtAfter(Instant revokedSince, Instant now);
+
+    /**
+     * Idempotent: revoked on another node first, or twice in one logout, is a
+     * no-op rather than a uk_revoked_tokens_jti violation that would mark the
+     * caller's transaction rollback-only.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            insert ignore into revoked_tokens (jti, expires_at, revoked_at)
+            values (:jti, :expiresAt, :revokedAt)
+            """)
+    int insertIgnore(@Param("jti") String jti, @Param("expiresAt") Instant expiresAt,
+            @Param("revokedAt") Instant revokedAt);
+
+    // Served by idx_revoked_tokens_expires_at
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
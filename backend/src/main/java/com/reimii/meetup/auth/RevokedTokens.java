@@ -0,0 +1,122 @@
+package com.reimii.meetup.auth;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Access tokens (by jti) revoked before they expire, checked on every request
+ * and /ws/meet handshake without I/O: a Bloom filter answers "not revoked"
+ * for almost every token in a few bit probes, and only its hits consult the
+ * exact jti -> expiry map.
+ *
+ * Revocations are written to revoked_tokens and pulled from there by every
+ * node on an interval. Entries drop out once their token has expired anyway;
+ * the filter, which cannot forget, is rebuilt from the map when that happens.
+ */
+@Component
+public class RevokedTokens {
+
+    /**
+     * How far back each pull re-reads, for revocations committed late or
+     * stamped by a node with a slightly different clock.
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository repo;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+
+    private final Map<String, Instant> exact = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile int filterCapacity;
+    private final Object writeLock = new Object();
+    private volatile Instant syncedFrom = Instant.EPOCH;
+
+    public RevokedTokens(RevokedTokenRepository repo,
+            @Value("${app.auth.revocation.expected-entries}") int expectedEntries,
+            @Value("${app.auth.revocation.false-positive-rate}") double falsePositiveRate) {
+        this.repo = repo;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        this.filterCapacity = expectedEntries;
+    }
+
+    /**
+     * Tokens without a jti predate revocation and are refused.
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return true;
+        }
+        return filter.mightContain(jti) && exact.containsKey(jti);
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        Instant now = Instant.now();
+        if (jti == null || !expiresAt.isAfter(now)) {
+            return;
+        }
+        // logout revokes the presented jti and then its family's, often the same one
+        if (remember(jti, expiresAt)) {
+            repo.insertIgnore(jti, expiresAt, now);
+        }
+    }
+
+    public int size() {
+        return exact.size();
+    }
+
+    /**
+     * @return false if the jti was already known here
+     */
+    private boolean remember(String jti, Instant expiresAt) {
+        synchronized (writeLock) {
+            if (exact.putIfAbsent(jti, expiresAt) != null) {
+                return false;
+            }
+            filter.add(jti);
+            return true;
+        }
+    }
+
+    /**
+     * Pulls revocations made on any node since the last pull.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.revocation.sync-interval-ms}")
+    public void sync() {
+        Instant now = Instant.now();
+        for (var t : repo.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(syncedFrom.minus(SYNC_OVERLAP), now)) {
+            remember(t.getJti(), t.getExpiresAt());
+        }
+        syncedFrom = now;
+    }
+
+    /**
+     * Forgets revocations whose tokens have expired and rebuilds the filter
+     * without them, or larger once it holds more than it was sized for.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void sweep() {
+        Instant now = Instant.now();
+        boolean expired = exact.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        if (expired || exact.size() > filterCapacity) {
+            synchronized (writeLock) {
+                int capacity = Math.max(expectedEntries, exact.size() * 2);
+                var fresh = new BloomFilter(capacity, falsePositiveRate);
+                exact.keySet().forEach(fresh::add);
+                filter = fresh;
+                filterCapacity = capacity;
+            }
+        }
+        if (expired) {
+            repo.deleteExpired(now);
+        }
+    }
+}
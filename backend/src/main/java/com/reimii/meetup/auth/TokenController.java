@@ -0,0 +1,68 @@
+package com.reimii.meetup.auth;
+
+import java.util.Date;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Token refresh and logout. Both are reachable without a valid access token:
+ * refresh is what you call once it has expired.
+ */
+@RestController
+public class TokenController {
+
+    public record RefreshRequest(String refreshToken) {
+    }
+
+    private final RefreshTokens refreshTokens;
+    private final RevokedTokens revoked;
+    private final JwtService jwt;
+
+    public TokenController(RefreshTokens refreshTokens, RevokedTokens revoked, JwtService jwt) {
+        this.refreshTokens = refreshTokens;
+        this.revoked = revoked;
+        this.jwt = jwt;
+    }
+
+    @PostMapping("/auth/refresh")
+    public ResponseEntity<RefreshTokens.TokenPair> refresh(@RequestBody RefreshRequest body) {
+        if (body == null || body.refreshToken() == null || body.refreshToken().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        var pair = refreshTokens.rotate(body.refreshToken());
+        if (pair == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.ok(pair);
+    }
+
+    /**
+     * Revokes the presented access token and, if given, the refresh token's
+     * whole family.
+     */
+    @PostMapping("/auth/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(name = "Authorization", required = false) String authorization,
+            @RequestBody(required = false) RefreshRequest body) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwt.parse(authorization.substring("Bearer ".length()).trim()).getPayload();
+                Date exp = claims.getExpiration();
+                if (exp != null) {
+                    revoked.revoke(claims.getId(), exp.toInstant());
+                }
+            } catch (Exception ignored) {
+                // expired or invalid: nothing to revoke
+            }
+        }
+        if (body != null && body.refreshToken() != null && !body.refreshToken().isBlank()) {
+            refreshTokens.revoke(body.refreshToken());
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.reimii.meetup.chat;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * A chat message sent in a /ws/meet room. Written by {@link ChatWriter} in
+ * JDBC batches, not through JPA; mapped here for the schema.
+ */
+@Entity
+@Table(name = "chat_messages", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_chat_messages_message_id", columnNames = "message_id")
+}, indexes = {
+    @Index(name = "idx_chat_messages_room", columnList = "room_id, id")
+})
+public class ChatMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String messageId;
+
+    @Column(nullable = false, length = 191)
+    private String roomId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private String senderName;
+
+    @Column(nullable = false, length = 2000)
+    private String body;
+
+    @Column(nullable = false)
+    private Instant sentAt;
+
+    protected ChatMessage() {
+    }
+}
@@ -0,0 +1,98 @@
+package com.reimii.meetup.chat;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind persistence for room chat: sending a message only queues it,
+ * and every flush interval the queue is drained into chat_messages as
+ * multi-row JDBC batches. A full queue drops messages rather than stall the
+ * room; they still reached everyone live.
+ */
+@Component
+public class ChatWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatWriter.class);
+
+    private static final String INSERT = "insert into chat_messages "
+            + "(message_id, room_id, user_id, sender_name, body, sent_at) values (?, ?, ?, ?, ?, ?)";
+
+    public record Message(String messageId, String roomId, Long userId, String senderName, String body,
+            Instant sentAt) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final BlockingQueue<Message> queue;
+    private final int batchSize;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public ChatWriter(JdbcTemplate jdbc,
+            @Value("${app.meet.chat.write-queue-capacity}") int capacity,
+            @Value("${app.meet.chat.write-batch-size}") int batchSize) {
+        this.jdbc = jdbc;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+    }
+
+    public void enqueue(Message m) {
+        if (!queue.offer(m)) {
+            long n = dropped.incrementAndGet();
+            if (n == 1 || n % 1000 == 0) {
+                log.warn("Chat write queue full; {} messages not persisted so far", n);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.meet.chat.flush-interval-ms}")
+    public void flush() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbc.batchUpdate(INSERT, batch, batch.size(), (ps, m) -> {
+                    ps.setString(1, m.messageId());
+                    ps.setString(2, m.roomId());
+                    ps.setLong(3, m.userId());
+                    ps.setString(4, m.senderName());
+                    ps.setString(5, m.body());
+                    ps.setTimestamp(6, Timestamp.from(m.sentAt()));
+                });
+            } catch (RuntimeException e) {
+                log.warn("Chat batch of {} messages not persisted: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * The newest {@code limit} persisted messages of a room, oldest first.
+     */
+    public List<Message> recent(String roomId, int limit) {
+        List<Message> out = jdbc.query("""
+                select message_id, room_id, user_id, sender_name, body, sent_at
+                from chat_messages where room_id = ? order by id desc limit ?
+                """, (rs, i) -> new Message(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getString(4),
+                rs.getString(5), rs.getTimestamp(6).toInstant()), roomId, limit);
+        Collections.reverse(out);
+        return out;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
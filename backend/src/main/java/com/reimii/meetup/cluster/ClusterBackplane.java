@@ -0,0 +1,41 @@
+package com.reimii.meetup.cluster;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Links the backend nodes serving /ws/meet.
+ *
+ * Two responsibilities: a room directory (which nodes currently hold local
+ * sessions for a room) and point-to-point delivery of {@link ClusterMessage}s
+ * to those nodes. {@link RedisClusterBackplane} links separate instances;
+ * {@link InMemoryClusterBackplane} covers a single JVM, including several
+ * application contexts in one test.
+ */
+public interface ClusterBackplane {
+
+    String nodeId();
+
+    /**
+     * Records that this node has local sessions in {@code roomId}.
+     */
+    void joinRoom(String roomId);
+
+    /**
+     * Records that this node no longer has local sessions in {@code roomId}.
+     */
+    void leaveRoom(String roomId);
+
+    /**
+     * Nodes (including this one) with local sessions in {@code roomId}.
+     */
+    Set<String> nodesFor(String roomId);
+
+    void send(String toNode, ClusterMessage message);
+
+    /**
+     * Registers the handler for messages addressed to this node. Handlers run
+     * off the sender's thread.
+     */
+    void onMessage(Consumer<ClusterMessage> handler);
+}
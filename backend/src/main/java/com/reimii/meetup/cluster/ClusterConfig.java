@@ -0,0 +1,47 @@
+package com.reimii.meetup.cluster;
+
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Picks the backplane with `app.cluster.backplane`: `redis` links instances
+ * on separate hosts, `memory` (the default) only nodes sharing a JVM and
+ * `app.cluster.name`.
+ */
+@Configuration
+public class ClusterConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterConfig.class);
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.cluster.backplane", havingValue = "redis")
+    public RedisClusterBackplane redisClusterBackplane(
+            @Value("${app.cluster.name}") String clusterName,
+            @Value("${app.cluster.node-id:}") String nodeId,
+            @Value("${app.cluster.redis.url}") String redisUrl,
+            @Value("${app.cluster.redis.timeout-ms}") int timeoutMs) {
+        String id = nodeId(nodeId);
+        log.info("Cluster {}: node {} on the Redis backplane", clusterName, id);
+        return new RedisClusterBackplane(redisUrl, timeoutMs, clusterName, id);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.cluster.backplane", havingValue = "memory", matchIfMissing = true)
+    public InMemoryClusterBackplane clusterBackplane(
+            @Value("${app.cluster.name}") String clusterName,
+            @Value("${app.cluster.node-id:}") String nodeId) {
+        log.warn("Cluster {}: in-process backplane. Other backend instances will NOT see this node's rooms, "
+                + "presence or chat; set app.cluster.backplane=redis when running more than one.", clusterName);
+        return new InMemoryClusterBackplane(clusterName, nodeId(nodeId));
+    }
+
+    private static String nodeId(String configured) {
+        return configured == null || configured.isBlank() ? UUID.randomUUID().toString() : configured;
+    }
+}
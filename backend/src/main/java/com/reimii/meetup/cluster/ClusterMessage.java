@@ -0,0 +1,15 @@
+package com.reimii.meetup.cluster;
+
+/**
+ * A room-scoped frame relayed between backend nodes.
+ *
+ * @param exceptUserId user whose sessions must not receive it (may be null)
+ */
+public record ClusterMessage(
+        String fromNode,
+        String roomId,
+        String payload,
+        Long exceptUserId
+        ) {
+
+}
@@ -0,0 +1,107 @@
+package com.reimii.meetup.cluster;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ClusterBackplane} whose "network" is a JVM-wide hub, keyed by
+ * cluster name. Every node delivers on its own thread so handlers never run
+ * on the sender, like they wouldn't over a real link.
+ */
+public class InMemoryClusterBackplane implements ClusterBackplane {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryClusterBackplane.class);
+
+    private static final Map<String, Hub> HUBS = new ConcurrentHashMap<>();
+
+    private static final class Hub {
+
+        final Map<String, InMemoryClusterBackplane> nodes = new ConcurrentHashMap<>();
+        final Map<String, Set<String>> roomNodes = new ConcurrentHashMap<>();
+    }
+
+    private final String nodeId;
+    private final Hub hub;
+    private final List<Consumer<ClusterMessage>> handlers = new CopyOnWriteArrayList<>();
+    private final ExecutorService inbox;
+
+    public InMemoryClusterBackplane(String clusterName, String nodeId) {
+        this.nodeId = nodeId;
+        this.hub = HUBS.computeIfAbsent(clusterName, k -> new Hub());
+        this.inbox = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "cluster-inbox-" + nodeId);
+            t.setDaemon(true);
+            return t;
+        });
+        hub.nodes.put(nodeId, this);
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void joinRoom(String roomId) {
+        hub.roomNodes.computeIfAbsent(roomId, k -> ConcurrentHashMap.newKeySet()).add(nodeId);
+    }
+
+    @Override
+    public void leaveRoom(String roomId) {
+        hub.roomNodes.computeIfPresent(roomId, (k, set) -> {
+            set.remove(nodeId);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @Override
+    public Set<String> nodesFor(String roomId) {
+        var set = hub.roomNodes.get(roomId);
+        return set != null ? Set.copyOf(set) : Set.of();
+    }
+
+    @Override
+    public void send(String toNode, ClusterMessage message) {
+        var target = hub.nodes.get(toNode);
+        if (target != null) {
+            target.deliver(message);
+        }
+    }
+
+    @Override
+    public void onMessage(Consumer<ClusterMessage> handler) {
+        handlers.add(handler);
+    }
+
+    private void deliver(ClusterMessage message) {
+        inbox.execute(() -> {
+            for (var h : handlers) {
+                try {
+                    h.accept(message);
+                } catch (Exception e) {
+                    log.warn("Cluster handler failed on {}", nodeId, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Leaves the hub and drops every room this node was listed in.
+     */
+    public void close() {
+        hub.nodes.remove(nodeId, this);
+        for (String roomId : hub.roomNodes.keySet()) {
+            leaveRoom(roomId);
+        }
+        inbox.shutdown();
+    }
+}
@@ -0,0 +1,319 @@
+package com.reimii.meetup.cluster;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link ClusterBackplane} over Redis, for backend instances on separate
+ * hosts. Keys and channels are prefixed with the cluster name:
+ *
+ * - `room:{roomId}`: set of node ids with local sessions in the room
+ * - `alive:{nodeId}`: heartbeat, expires when the node dies
+ * - channel `node:{nodeId}`: messages addressed to that node
+ * - channel `directory`: room ids whose membership just changed
+ *
+ * Room membership is cached per node and evicted through `directory`, so a
+ * broadcast costs one PUBLISH per other node. Members whose heartbeat has
+ * expired are dropped on the next lookup. After a lost subscription the
+ * cache is cleared and this node re-registers its rooms, which also covers a
+ * Redis restart.
+ */
+public class RedisClusterBackplane implements ClusterBackplane {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisClusterBackplane.class);
+
+    private static final long HEARTBEAT_MS = 5_000;
+    private static final long ALIVE_TTL_SECONDS = 15;
+    private static final long RESUBSCRIBE_DELAY_MS = 1_000;
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final URI url;
+    private final int timeoutMs;
+    private final String prefix;
+    private final String nodeId;
+
+    private final List<Consumer<ClusterMessage>> handlers = new CopyOnWriteArrayList<>();
+    private final Set<String> localRooms = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<String>> nodesByRoom = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped by every directory eviction; a lookup that raced one is used
+     * once but not cached.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final ExecutorService inbox;
+    private final ScheduledExecutorService heartbeat;
+    private final Thread subscriber;
+
+    /**
+     * Guarded by itself; reopened on the next command after an I/O error.
+     */
+    private final Object commandLock = new Object();
+    private RespConnection commands;
+
+    private volatile RespConnection subscription;
+    private volatile boolean running = true;
+
+    public RedisClusterBackplane(String redisUrl, int timeoutMs, String clusterName, String nodeId) {
+        this.url = URI.create(redisUrl);
+        this.timeoutMs = timeoutMs;
+        this.prefix = clusterName + ":";
+        this.nodeId = nodeId;
+
+        this.inbox = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "cluster-inbox-" + nodeId);
+            t.setDaemon(true);
+            return t;
+        });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cluster-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat.scheduleWithFixedDelay(this::beat, 0, HEARTBEAT_MS, TimeUnit.MILLISECONDS);
+
+        this.subscriber = new Thread(this::subscribeLoop, "cluster-subscriber");
+        subscriber.setDaemon(true);
+        subscriber.start();
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void joinRoom(String roomId) {
+        localRooms.add(roomId);
+        register(roomId);
+    }
+
+    @Override
+    public void leaveRoom(String roomId) {
+        localRooms.remove(roomId);
+        try {
+            command("SREM", prefix + "room:" + roomId, nodeId);
+            command("PUBLISH", prefix + "directory", roomId);
+        } catch (IOException e) {
+            log.warn("Cluster leave of {} not published", roomId, e);
+        }
+        evict(roomId);
+    }
+
+    @Override
+    public Set<String> nodesFor(String roomId) {
+        Set<String> cached = nodesByRoom.get(roomId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long seq = evictions.get();
+        Set<String> live;
+        try {
+            live = loadNodes(roomId);
+        } catch (IOException e) {
+            log.warn("Cluster lookup of {} failed; delivering locally only", roomId, e);
+            return localRooms.contains(roomId) ? Set.of(nodeId) : Set.of();
+        }
+        if (evictions.get() == seq) {
+            nodesByRoom.put(roomId, live);
+        }
+        return live;
+    }
+
+    @Override
+    public void send(String toNode, ClusterMessage message) {
+        try {
+            command("PUBLISH", prefix + "node:" + toNode, om.writeValueAsString(message));
+        } catch (IOException e) {
+            log.warn("Cluster message for {} to {} dropped", message.roomId(), toNode, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Consumer<ClusterMessage> handler) {
+        handlers.add(handler);
+    }
+
+    /**
+     * Leaves every room, stops heartbeating and unsubscribes.
+     */
+    public void close() {
+        running = false;
+        heartbeat.shutdownNow();
+        for (String roomId : List.copyOf(localRooms)) {
+            leaveRoom(roomId);
+        }
+        try {
+            command("DEL", prefix + "alive:" + nodeId);
+        } catch (IOException ignored) {
+        }
+        closeQuietly(subscription);
+        synchronized (commandLock) {
+            closeQuietly(commands);
+            commands = null;
+        }
+        inbox.shutdown();
+    }
+
+    private Set<String> loadNodes(String roomId) throws IOException {
+        String key = prefix + "room:" + roomId;
+        List<String> members = strings(command("SMEMBERS", key));
+        if (members.isEmpty()) {
+            return Set.of();
+        }
+
+        String[] aliveKeys = new String[members.size() + 1];
+        aliveKeys[0] = "MGET";
+        for (int i = 0; i < members.size(); i++) {
+            aliveKeys[i + 1] = prefix + "alive:" + members.get(i);
+        }
+        List<Object> alive = list(command(aliveKeys));
+
+        Set<String> live = new HashSet<>();
+        for (int i = 0; i < members.size(); i++) {
+            String node = members.get(i);
+            if (node.equals(nodeId) || alive.get(i) != null) {
+                live.add(node);
+            } else {
+                // crashed without leaving
+                command("SREM", key, node);
+            }
+        }
+        return Set.copyOf(live);
+    }
+
+    private void register(String roomId) {
+        try {
+            command("SADD", prefix + "room:" + roomId, nodeId);
+            command("PUBLISH", prefix + "directory", roomId);
+        } catch (IOException e) {
+            log.warn("Cluster join of {} not published", roomId, e);
+        }
+        evict(roomId);
+    }
+
+    private void evict(String roomId) {
+        evictions.incrementAndGet();
+        nodesByRoom.remove(roomId);
+    }
+
+    private void beat() {
+        try {
+            command("SET", prefix + "alive:" + nodeId, "1", "EX", Long.toString(ALIVE_TTL_SECONDS));
+        } catch (IOException e) {
+            log.warn("Cluster heartbeat for {} failed", nodeId, e);
+        }
+    }
+
+    private void subscribeLoop() {
+        String inboxChannel = prefix + "node:" + nodeId;
+        String directory = prefix + "directory";
+        while (running) {
+            try (var conn = new RespConnection(url, timeoutMs, 0)) {
+                subscription = conn;
+                conn.write("SUBSCRIBE", inboxChannel, directory);
+
+                // anything may have changed while unsubscribed
+                evictions.incrementAndGet();
+                nodesByRoom.clear();
+                for (String roomId : localRooms) {
+                    register(roomId);
+                }
+
+                while (running) {
+                    List<Object> push = list(conn.read());
+                    if (push.size() < 3 || !"message".equals(push.get(0))) {
+                        continue;
+                    }
+                    String channel = (String) push.get(1);
+                    String payload = (String) push.get(2);
+                    if (directory.equals(channel)) {
+                        evict(payload);
+                    } else {
+                        deliver(om.readValue(payload, ClusterMessage.class));
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Cluster subscription for {} lost; resubscribing", nodeId, e);
+                    try {
+                        Thread.sleep(RESUBSCRIBE_DELAY_MS);
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void deliver(ClusterMessage message) {
+        inbox.execute(() -> {
+            for (var h : handlers) {
+                try {
+                    h.accept(message);
+                } catch (Exception e) {
+                    log.warn("Cluster handler failed on {}", nodeId, e);
+                }
+            }
+        });
+    }
+
+    private Object command(String... args) throws IOException {
+        synchronized (commandLock) {
+            if (commands == null) {
+                commands = new RespConnection(url, timeoutMs, timeoutMs);
+            }
+            try {
+                return commands.command(args);
+            } catch (RespConnection.RedisErrorException e) {
+                throw e;
+            } catch (IOException e) {
+                closeQuietly(commands);
+                commands = null;
+                throw e;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> list(Object reply) {
+        return reply instanceof List<?> l ? (List<Object>) l : List.of();
+    }
+
+    private static List<String> strings(Object reply) {
+        List<String> out = new ArrayList<>();
+        for (Object o : list(reply)) {
+            out.add((String) o);
+        }
+        return out;
+    }
+
+    private static void closeQuietly(RespConnection c) {
+        if (c != null) {
+            try {
+                c.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
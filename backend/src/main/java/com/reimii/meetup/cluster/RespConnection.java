@@ -0,0 +1,149 @@
+package com.reimii.meetup.cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One blocking connection speaking RESP2, the Redis wire protocol: just
+ * enough for {@link RedisClusterBackplane} (commands and a subscriber loop).
+ * Not thread-safe; callers serialize use.
+ *
+ * Replies map to String (simple and bulk strings), Long (integers),
+ * List&lt;Object&gt; (arrays) or null; error replies throw
+ * {@link RedisErrorException}.
+ */
+final class RespConnection implements Closeable {
+
+    static final class RedisErrorException extends IOException {
+
+        RedisErrorException(String message) {
+            super(message);
+        }
+    }
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+
+    /**
+     * @param url {@code redis://[:password@]host[:port][/db]}
+     * @param readTimeoutMs 0 blocks forever (subscribers)
+     */
+    RespConnection(URI url, int connectTimeoutMs, int readTimeoutMs) throws IOException {
+        socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(url.getHost(), url.getPort() > 0 ? url.getPort() : 6379),
+                    connectTimeoutMs);
+            socket.setSoTimeout(readTimeoutMs);
+            socket.setTcpNoDelay(true);
+            in = new BufferedInputStream(socket.getInputStream());
+            out = new BufferedOutputStream(socket.getOutputStream());
+
+            String userInfo = url.getUserInfo();
+            if (userInfo != null && !userInfo.isEmpty()) {
+                int colon = userInfo.indexOf(':');
+                if (colon > 0) {
+                    command("AUTH", userInfo.substring(0, colon), userInfo.substring(colon + 1));
+                } else {
+                    command("AUTH", colon == 0 ? userInfo.substring(1) : userInfo);
+                }
+            }
+            String path = url.getPath();
+            if (path != null && path.length() > 1) {
+                command("SELECT", path.substring(1));
+            }
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    Object command(String... args) throws IOException {
+        write(args);
+        return read();
+    }
+
+    void write(String... args) throws IOException {
+        out.write(('*' + Integer.toString(args.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (String a : args) {
+            byte[] b = a.getBytes(StandardCharsets.UTF_8);
+            out.write(('$' + Integer.toString(b.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(b);
+            out.write('\r');
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    Object read() throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            throw new EOFException("Redis connection closed");
+        }
+        String line = readLine();
+        switch (type) {
+            case '+':
+                return line;
+            case '-':
+                throw new RedisErrorException(line);
+            case ':':
+                return Long.parseLong(line);
+            case '$': {
+                int len = Integer.parseInt(line);
+                if (len < 0) {
+                    return null;
+                }
+                byte[] b = in.readNBytes(len);
+                if (b.length < len || in.read() != '\r' || in.read() != '\n') {
+                    throw new EOFException("Truncated bulk string");
+                }
+                return new String(b, StandardCharsets.UTF_8);
+            }
+            case '*': {
+                int n = Integer.parseInt(line);
+                if (n < 0) {
+                    return null;
+                }
+                List<Object> items = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    items.add(read());
+                }
+                return items;
+            }
+            default:
+                throw new IOException("Unexpected RESP type '" + (char) type + "'");
+        }
+    }
+
+    private String readLine() throws IOException {
+        var buf = new ByteArrayOutputStream(32);
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c < 0) {
+                throw new EOFException("Redis connection closed");
+            }
+            buf.write(c);
+        }
+        if (in.read() != '\n') {
+            throw new IOException("Malformed RESP line");
+        }
+        return buf.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,62 @@
+package com.reimii.meetup.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.reimii.meetup.db.ReadWriteRoutingDataSource;
+import com.reimii.meetup.db.ReadYourWrites;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Primary pool from spring.datasource.*, optional replica pool from
+ * app.datasource.replica.*, routed by {@link ReadWriteRoutingDataSource}.
+ * With no replica URL everything uses the primary, as before.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    ReadWriteRoutingDataSource routingDataSource(Environment env, ReadYourWrites readYourWrites,
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${app.datasource.replica.url}") String replicaUrl,
+            @Value("${app.datasource.replica.username}") String replicaUsername,
+            @Value("${app.datasource.replica.password}") String replicaPassword) {
+        var primary = pool(env, "spring.datasource.hikari", "primary", url, username, password);
+        var replica = replicaUrl.isBlank()
+                ? null
+                : pool(env, "app.datasource.replica.hikari", "replica", replicaUrl, replicaUsername, replicaPassword);
+        return new ReadWriteRoutingDataSource(primary, replica, readYourWrites);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ReadWriteRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource pool(Environment env, String prefix, String name, String url, String username,
+            String password) {
+        var config = new HikariConfig();
+        Binder.get(env).bind(prefix, Bindable.ofInstance(config));
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+
+        // started on first use, so an unreachable replica does not stop the app
+        var ds = new HikariDataSource();
+        config.copyStateTo(ds);
+        return ds;
+    }
+}
@@ -15,6 +15,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.reimii.meetup.auth.JwtAuthFilter;
 import com.reimii.meetup.auth.OAuth2SuccessHandler;
+import com.reimii.meetup.ratelimit.RateLimitFilter;
 
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -25,7 +26,8 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(
             HttpSecurity http,
             OAuth2SuccessHandler successHandler,
-            JwtAuthFilter jwtAuthFilter
+            JwtAuthFilter jwtAuthFilter,
+            RateLimitFilter rateLimitFilter
     ) throws Exception {
 
         http
@@ -37,6 +39,12 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/", "/health", "/oauth2/**", "/login/**").permitAll()
 
+                // refresh is called with an expired access token; logout checks its own
+                .requestMatchers("/auth/refresh", "/auth/logout").permitAll()
+
+                // authenticated by JwtHandshakeInterceptor before the upgrade
+                .requestMatchers("/ws/meet").permitAll()
+
                 .requestMatchers("/me", "/meetings/**").authenticated()
 
                 .anyRequest().authenticated()
@@ -56,7 +64,8 @@ public class SecurityConfig {
                 })
             )
 
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(rateLimitFilter, JwtAuthFilter.class);
 
         return http.build();
     }
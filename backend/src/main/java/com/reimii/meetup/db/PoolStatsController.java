@@ -0,0 +1,48 @@
+package com.reimii.meetup.db;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Connection pool usage per pool plus where reads were routed, for sizing
+ * the pools and checking the replica actually takes the read traffic.
+ */
+@RestController
+public class PoolStatsController {
+
+    public record PoolStats(String name, boolean started, int active, int idle, int total, int waiting,
+            int maxSize) {
+    }
+
+    private final ReadWriteRoutingDataSource routing;
+    private final ReadYourWrites readYourWrites;
+
+    public PoolStatsController(ReadWriteRoutingDataSource routing, ReadYourWrites readYourWrites) {
+        this.routing = routing;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @GetMapping("/db/pools")
+    public Map<String, Object> pools() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("primary", stats(routing.primary()));
+        body.put("replica", routing.replica() != null ? stats(routing.replica()) : null);
+        body.put("routes", routing.counts());
+        body.put("stickyUsers", readYourWrites.size());
+        return body;
+    }
+
+    private static PoolStats stats(HikariDataSource ds) {
+        var mx = ds.getHikariPoolMXBean();
+        if (mx == null) {
+            return new PoolStats(ds.getPoolName(), false, 0, 0, 0, 0, ds.getMaximumPoolSize());
+        }
+        return new PoolStats(ds.getPoolName(), true, mx.getActiveConnections(), mx.getIdleConnections(),
+                mx.getTotalConnections(), mx.getThreadsAwaitingConnection(), ds.getMaximumPoolSize());
+    }
+}
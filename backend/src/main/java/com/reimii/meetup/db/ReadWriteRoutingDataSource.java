@@ -0,0 +1,127 @@
+package com.reimii.meetup.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.reimii.meetup.users.AppUser;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else
+ * (writes, DDL, work outside a transaction) to the primary.
+ *
+ * Spring Data repositories run finders in {@code @Transactional(readOnly = true)},
+ * so plain repository reads go to the replica. After an authenticated user
+ * writes, their reads stay on the primary for a short window
+ * ({@link ReadYourWrites}). If the replica refuses a connection the read
+ * falls back to the primary.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction's
+ * read-only flag is only set after the JPA transaction manager has asked for
+ * a connection, so the physical one has to be fetched on first use.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    public record RouteCounts(long writes, long replicaReads, long stickyReads, long replicaFallbacks) {
+    }
+
+    private final HikariDataSource primary;
+
+    /**
+     * Null when no replica is configured: every read goes to the primary.
+     */
+    private final HikariDataSource replica;
+    private final ReadYourWrites readYourWrites;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong stickyReads = new AtomicLong();
+    private final AtomicLong replicaFallbacks = new AtomicLong();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica,
+            ReadYourWrites readYourWrites) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWrites = readYourWrites;
+    }
+
+    public HikariDataSource primary() {
+        return primary;
+    }
+
+    public HikariDataSource replica() {
+        return replica;
+    }
+
+    public RouteCounts counts() {
+        return new RouteCounts(writes.get(), replicaReads.get(), stickyReads.get(), replicaFallbacks.get());
+    }
+
+    Route route() {
+        Long userId = currentUserId();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.incrementAndGet();
+            if (userId != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.wrote(userId);
+            }
+            return Route.PRIMARY;
+        }
+        if (replica == null) {
+            return Route.PRIMARY;
+        }
+        if (userId != null && readYourWrites.isSticky(userId)) {
+            stickyReads.incrementAndGet();
+            return Route.PRIMARY;
+        }
+        replicaReads.incrementAndGet();
+        return Route.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (route() == Route.PRIMARY) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            replicaFallbacks.incrementAndGet();
+            log.debug("Replica unavailable, reading from primary: {}", e.toString());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route() == Route.PRIMARY
+                ? primary.getConnection(username, password)
+                : replica.getConnection(username, password);
+    }
+
+    @Override
+    public void close() {
+        if (replica != null) {
+            replica.close();
+        }
+        primary.close();
+    }
+
+    private static Long currentUserId() {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof AppUser user ? user.getId() : null;
+    }
+}
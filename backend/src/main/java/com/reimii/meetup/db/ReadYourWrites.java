@@ -0,0 +1,49 @@
+package com.reimii.meetup.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Users who wrote in the last few seconds, whose reads stay on the primary
+ * so they never see the replica lag behind their own change.
+ *
+ * Per node: a user whose next request lands on another node reads from the
+ * replica there.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final long windowMs;
+
+    /**
+     * userId -> sticky until (epoch ms).
+     */
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(@Value("${app.datasource.read-your-writes-ms}") long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public void wrote(Long userId) {
+        stickyUntil.put(userId, System.currentTimeMillis() + windowMs);
+    }
+
+    public boolean isSticky(Long userId) {
+        Long until = stickyUntil.get(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return stickyUntil.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.read-your-writes-ms}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+}
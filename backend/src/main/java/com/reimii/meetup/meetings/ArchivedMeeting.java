@@ -0,0 +1,79 @@
+package com.reimii.meetup.meetings;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A meeting moved out of `meetings` by {@link MeetingArchiver} once it ended.
+ * Same columns and id as the hot row; read back as a {@link Meeting} copy.
+ */
+@Entity
+@Table(name = "meetings_archive", indexes = {
+    @Index(name = "idx_meetings_archive_owner_starts_at", columnList = "owner_user_id, starts_at"),
+    @Index(name = "idx_meetings_archive_ends_at", columnList = "ends_at")
+})
+public class ArchivedMeeting {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long ownerUserId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false)
+    private Instant startsAt;
+
+    @Column(nullable = false)
+    private Instant endsAt;
+
+    @Column(nullable = false)
+    private String hostName;
+
+    @Column(nullable = false)
+    private String guestEmail;
+
+    private String guestName;
+    private String guestAvatarUrl;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(nullable = false)
+    private boolean createVideoLink;
+
+    private String roomUrl;
+
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+    protected ArchivedMeeting() {
+    }
+
+    Meeting toMeeting() {
+        Meeting m = new Meeting();
+        m.setOwnerUserId(ownerUserId);
+        m.setTitle(title);
+        m.setStartsAt(startsAt);
+        m.setEndsAt(endsAt);
+        m.setHostName(hostName);
+        m.setGuestEmail(guestEmail);
+        m.setGuestName(guestName);
+        m.setGuestAvatarUrl(guestAvatarUrl);
+        m.setNotes(notes);
+        m.setCreateVideoLink(createVideoLink);
+        m.setRoomUrl(roomUrl);
+        m.restoreArchived(id, createdAt, updatedAt);
+        return m;
+    }
+}
@@ -0,0 +1,55 @@
+package com.reimii.meetup.meetings;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A participant of an {@link ArchivedMeeting}, moved with it.
+ */
+@Entity
+@Table(name = "meeting_participants_archive", indexes = {
+    @Index(name = "idx_meeting_participants_archive_meeting", columnList = "meeting_id")
+})
+public class ArchivedMeetingParticipant {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long meetingId;
+
+    private Long userId;
+
+    @Column(nullable = false)
+    private String email;
+
+    private String name;
+    private String avatarUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MeetingParticipantRole role;
+
+    protected ArchivedMeetingParticipant() {
+    }
+
+    Long getMeetingId() {
+        return meetingId;
+    }
+
+    MeetingParticipant toParticipant(Meeting meeting) {
+        MeetingParticipant p = new MeetingParticipant();
+        p.setMeeting(meeting);
+        p.setUserId(userId);
+        p.setEmail(email);
+        p.setName(name);
+        p.setAvatarUrl(avatarUrl);
+        p.setRole(role);
+        return p;
+    }
+}
@@ -0,0 +1,248 @@
+package com.reimii.meetup.meetings;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-user index of the `[startsAt, endsAt)` ranges of the meetings a user
+ * owns, for free/busy and conflict checks.
+ *
+ * Each user's meetings ending within {@code app.meet.busy-index.lookback-hours}
+ * of now or later are loaded on first use into an immutable {@link Intervals}
+ * snapshot (sorted primitive arrays); only their ids and time ranges are
+ * read. A query reaching back further is answered from the database
+ * uncached, including meetings_archive when the range reaches it. {@link MeetingController}
+ * swaps in a rebuilt snapshot on every write. Snapshots also expire after a
+ * TTL so writes made on other backend nodes show up eventually. Bounded LRU
+ * like {@link RoomAccessCache}.
+ */
+@Component
+public class BusyIndex {
+
+    public record Busy(long meetingId, Instant startsAt, Instant endsAt) {
+    }
+
+    private final MeetingRepository meetings;
+    private final Duration ttl;
+    private final Duration lookback;
+    private final Map<Long, Intervals> byUser;
+
+    /**
+     * Bumped by every write; a load that raced one is used once but not cached.
+     */
+    private final AtomicLong writes = new AtomicLong();
+
+    public BusyIndex(MeetingRepository meetings,
+            @Value("${app.meet.busy-index.max-users}") int maxUsers,
+            @Value("${app.meet.busy-index.ttl-seconds}") long ttlSeconds,
+            @Value("${app.meet.busy-index.lookback-hours}") long lookbackHours) {
+        this.meetings = meetings;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.lookback = Duration.ofHours(lookbackHours);
+        this.byUser = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Intervals> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    /**
+     * Meetings of {@code userId} overlapping {@code [from, to)}, by start time.
+     */
+    public List<Busy> busy(Long userId, Instant from, Instant to) {
+        return intervals(userId, from).overlapping(from.toEpochMilli(), to.toEpochMilli(), -1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * First meeting of {@code userId} other than {@code excludeMeetingId}
+     * overlapping {@code [start, end)}, or null.
+     */
+    public Busy firstConflict(Long userId, Instant start, Instant end, Long excludeMeetingId) {
+        var hits = intervals(userId, start).overlapping(start.toEpochMilli(), end.toEpochMilli(),
+                excludeMeetingId != null ? excludeMeetingId : -1, 1);
+        return hits.isEmpty() ? null : hits.get(0);
+    }
+
+    public void onSaved(Meeting m) {
+        writes.incrementAndGet();
+        byUser.computeIfPresent(m.getOwnerUserId(), (k, cur) -> cur.with(m));
+    }
+
+    public void onDeleted(Meeting m) {
+        writes.incrementAndGet();
+        byUser.computeIfPresent(m.getOwnerUserId(), (k, cur) -> cur.without(m.getId()));
+    }
+
+    /**
+     * Intervals holding at least every meeting that ends after {@code from}.
+     */
+    private Intervals intervals(Long userId, Instant from) {
+        Instant now = Instant.now();
+        Instant since = now.minus(lookback);
+        if (from.isBefore(since)) {
+            List<Busy> rows = new ArrayList<>();
+            meetings.findByOwnerUserIdAndEndsAtGreaterThan(userId, from).forEach(r -> rows.add(busy(r)));
+            rows.addAll(meetings.findArchivedBusy(userId, from));
+            return Intervals.of(rows, now);
+        }
+
+        Intervals cached = byUser.get(userId);
+        if (cached != null && cached.loadedAt.plus(ttl).isAfter(now)) {
+            return cached;
+        }
+
+        long seq = writes.get();
+        Intervals loaded = Intervals.of(
+                meetings.findByOwnerUserIdAndEndsAtGreaterThan(userId, since).stream().map(BusyIndex::busy).toList(),
+                now);
+        if (writes.get() == seq) {
+            byUser.put(userId, loaded);
+        } else {
+            byUser.remove(userId);
+        }
+        return loaded;
+    }
+
+    private static Busy busy(MeetingRepository.BusyRow r) {
+        return new Busy(r.getId(), r.getStartsAt(), r.getEndsAt());
+    }
+
+    /**
+     * Intervals sorted by start, with the running maximum of the ends: every
+     * interval before the first index whose running max exceeds `from` ends
+     * at or before `from`, so an overlap query is two binary searches plus a
+     * scan of the candidates in between.
+     */
+    static final class Intervals {
+
+        final long[] ids;
+        final long[] starts;
+        final long[] ends;
+        final long[] maxEndUpTo;
+        final Instant loadedAt;
+
+        private Intervals(long[] ids, long[] starts, long[] ends, Instant loadedAt) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.loadedAt = loadedAt;
+            this.maxEndUpTo = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEndUpTo[i] = max;
+            }
+        }
+
+        static Intervals of(List<Busy> list, Instant loadedAt) {
+            var sorted = new ArrayList<>(list);
+            sorted.sort((a, b) -> a.startsAt().compareTo(b.startsAt()));
+
+            int n = sorted.size();
+            long[] ids = new long[n];
+            long[] starts = new long[n];
+            long[] ends = new long[n];
+            for (int i = 0; i < n; i++) {
+                Busy b = sorted.get(i);
+                ids[i] = b.meetingId();
+                starts[i] = b.startsAt().toEpochMilli();
+                ends[i] = b.endsAt().toEpochMilli();
+            }
+            return new Intervals(ids, starts, ends, loadedAt);
+        }
+
+        List<Busy> overlapping(long from, long to, long excludeId, int limit) {
+            int hi = firstIndex(starts, to);
+            int lo = firstIndexAbove(maxEndUpTo, from, hi);
+
+            List<Busy> out = new ArrayList<>();
+            for (int i = lo; i < hi && out.size() < limit; i++) {
+                if (ends[i] > from && ids[i] != excludeId) {
+                    out.add(new Busy(ids[i], Instant.ofEpochMilli(starts[i]), Instant.ofEpochMilli(ends[i])));
+                }
+            }
+            return out;
+        }
+
+        Intervals with(Meeting m) {
+            Intervals base = without(m.getId());
+            long start = m.getStartsAt().toEpochMilli();
+            int at = firstIndex(base.starts, start);
+
+            return new Intervals(
+                    insert(base.ids, at, m.getId()),
+                    insert(base.starts, at, start),
+                    insert(base.ends, at, m.getEndsAt().toEpochMilli()),
+                    loadedAt);
+        }
+
+        Intervals without(long meetingId) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == meetingId) {
+                    return new Intervals(remove(ids, i), remove(starts, i), remove(ends, i), loadedAt);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * First index with {@code a[i] >= key} in sorted {@code a}.
+         */
+        private static int firstIndex(long[] a, long key) {
+            int lo = 0;
+            int hi = a.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] < key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * First index below {@code limit} with {@code a[i] > key} in
+         * non-decreasing {@code a}.
+         */
+        private static int firstIndexAbove(long[] a, long key, int limit) {
+            int lo = 0;
+            int hi = limit;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] <= key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private static long[] insert(long[] a, int at, long v) {
+            long[] out = Arrays.copyOf(a, a.length + 1);
+            System.arraycopy(a, at, out, at + 1, a.length - at);
+            out[at] = v;
+            return out;
+        }
+
+        private static long[] remove(long[] a, int at) {
+            long[] out = new long[a.length - 1];
+            System.arraycopy(a, 0, out, 0, at);
+            System.arraycopy(a, at + 1, out, at, a.length - at - 1);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.reimii.meetup.meetings;
+
+import java.util.List;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * startsAt/endsAt are the first occurrence. At most one of until/count; with
+ * neither the series is open-ended.
+ */
+public record CreateSeriesRequest(
+        @NotBlank
+        String title,
+        @NotNull
+        String startsAt,
+        @NotNull
+        String endsAt,
+        @NotBlank
+        @Email
+        String guestEmail,
+        String notes,
+        boolean createVideoLink,
+        @NotNull
+        RecurrenceFrequency frequency,
+        @Min(1)
+        @Max(365)
+        Integer interval,
+        // WEEKLY: MONDAY..SUNDAY; defaults to the first occurrence's weekday
+        List<String> byDays,
+        String until,
+        @Min(1)
+        @Max(Recurrence.MAX_COUNT)
+        Integer count,
+        // defaults to Europe/Madrid like /meetings/today
+        String timeZone
+        ) {
+
+}
@@ -10,10 +10,18 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
-@Table(name = "meetings")
+@Table(name = "meetings", indexes = {
+    @Index(name = "idx_meetings_starts_at", columnList = "starts_at"),
+    @Index(name = "idx_meetings_room_url", columnList = "room_url"),
+    @Index(name = "idx_meetings_updated_at", columnList = "updated_at"),
+    @Index(name = "idx_meetings_ends_at", columnList = "ends_at"),
+    @Index(name = "idx_meetings_owner_ends_at", columnList = "owner_user_id, ends_at")
+})
 public class Meeting {
 
     @Id
@@ -57,6 +65,10 @@ public class Meeting {
     @UpdateTimestamp
     private Instant updatedAt;
 
+    // read back from meetings_archive: a detached copy, not to be saved
+    @Transient
+    private boolean archived;
+
     public Long getId() {
         return id;
     }
@@ -156,4 +168,15 @@ public class Meeting {
     public Instant getUpdatedAt() {
         return updatedAt;
     }
+
+    public boolean isArchived() {
+        return archived;
+    }
+
+    void restoreArchived(Long id, Instant createdAt, Instant updatedAt) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.archived = true;
+    }
 }
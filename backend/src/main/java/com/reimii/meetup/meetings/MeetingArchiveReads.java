@@ -0,0 +1,34 @@
+package com.reimii.meetup.meetings;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads of {@link MeetingRepository} that also see meetings moved to
+ * meetings_archive, touching the archive only when the request can reach it.
+ * Archived meetings come back as detached {@link Meeting#isArchived()} copies.
+ */
+public interface MeetingArchiveReads {
+
+    /**
+     * Own meetings starting in {@code [from, to]}, by start.
+     */
+    List<Meeting> findOwnedInRange(Long ownerUserId, Instant from, Instant to);
+
+    Optional<Meeting> findByIdIncludingArchive(Long id);
+
+    List<Meeting> findAllByIdIncludingArchive(Collection<Long> ids);
+
+    /**
+     * Time ranges of own archived meetings ending after {@code after}; empty
+     * when that cannot reach the archive.
+     */
+    List<BusyIndex.Busy> findArchivedBusy(Long ownerUserId, Instant after);
+
+    /**
+     * Keyset page of archived meetings by id, for the search index build.
+     */
+    List<Meeting> findArchivedByIdGreaterThan(Long id, int limit);
+}
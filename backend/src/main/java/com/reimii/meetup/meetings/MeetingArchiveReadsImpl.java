@@ -0,0 +1,111 @@
+package com.reimii.meetup.meetings;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+
+class MeetingArchiveReadsImpl implements MeetingArchiveReads {
+
+    private final EntityManager em;
+    private final MeetingArchiver archiver;
+
+    MeetingArchiveReadsImpl(EntityManager em, MeetingArchiver archiver) {
+        this.em = em;
+        this.archiver = archiver;
+    }
+
+    @Override
+    public List<Meeting> findOwnedInRange(Long ownerUserId, Instant from, Instant to) {
+        // Served by idx_meetings_starts_at
+        List<Meeting> out = new ArrayList<>(em.createQuery("""
+                select m from Meeting m
+                where m.ownerUserId = :owner and m.startsAt between :from and :to
+                order by m.startsAt
+                """, Meeting.class)
+                .setParameter("owner", ownerUserId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList());
+        if (!archiver.reachesArchive(from)) {
+            return out;
+        }
+
+        // Served by idx_meetings_archive_owner_starts_at
+        em.createQuery("""
+                select a from ArchivedMeeting a
+                where a.ownerUserId = :owner and a.startsAt between :from and :to
+                """, ArchivedMeeting.class)
+                .setParameter("owner", ownerUserId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList()
+                .forEach(a -> out.add(a.toMeeting()));
+        out.sort(Comparator.comparing(Meeting::getStartsAt));
+        return out;
+    }
+
+    @Override
+    public Optional<Meeting> findByIdIncludingArchive(Long id) {
+        Meeting hot = em.find(Meeting.class, id);
+        if (hot != null) {
+            return Optional.of(hot);
+        }
+        ArchivedMeeting cold = em.find(ArchivedMeeting.class, id);
+        return Optional.ofNullable(cold != null ? cold.toMeeting() : null);
+    }
+
+    @Override
+    public List<Meeting> findAllByIdIncludingArchive(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Meeting> out = new ArrayList<>(em.createQuery("select m from Meeting m where m.id in :ids", Meeting.class)
+                .setParameter("ids", ids)
+                .getResultList());
+        if (out.size() == ids.size()) {
+            return out;
+        }
+
+        Set<Long> missing = new HashSet<>(ids);
+        out.forEach(m -> missing.remove(m.getId()));
+        em.createQuery("select a from ArchivedMeeting a where a.id in :ids", ArchivedMeeting.class)
+                .setParameter("ids", missing)
+                .getResultList()
+                .forEach(a -> out.add(a.toMeeting()));
+        return out;
+    }
+
+    @Override
+    public List<BusyIndex.Busy> findArchivedBusy(Long ownerUserId, Instant after) {
+        if (!archiver.reachesArchive(after)) {
+            return List.of();
+        }
+        // Served by idx_meetings_archive_owner_starts_at
+        return em.createQuery("""
+                select a.id, a.startsAt, a.endsAt from ArchivedMeeting a
+                where a.ownerUserId = :owner and a.endsAt > :after
+                """, Object[].class)
+                .setParameter("owner", ownerUserId)
+                .setParameter("after", after)
+                .getResultStream()
+                .map(r -> new BusyIndex.Busy((Long) r[0], (Instant) r[1], (Instant) r[2]))
+                .toList();
+    }
+
+    @Override
+    public List<Meeting> findArchivedByIdGreaterThan(Long id, int limit) {
+        return em.createQuery("select a from ArchivedMeeting a where a.id > :id order by a.id", ArchivedMeeting.class)
+                .setParameter("id", id)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(ArchivedMeeting::toMeeting)
+                .toList();
+    }
+}
@@ -0,0 +1,131 @@
+package com.reimii.meetup.meetings;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Moves meetings that ended more than {@code after} ago, with their
+ * participants, from `meetings` / `meeting_participants` to the archive
+ * tables, a batch per transaction, so the hot tables and their indexes only
+ * hold recent and upcoming meetings.
+ *
+ * Also answers whether a read starting at some instant can reach archived
+ * rows: every archived meeting ended before now - {@code after} when it was
+ * moved, and before the latest archived end seen here, whichever is later.
+ */
+@Component
+public class MeetingArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(MeetingArchiver.class);
+
+    private static final String MEETING_COLUMNS = "id, owner_user_id, title, starts_at, ends_at, host_name, "
+            + "guest_email, guest_name, guest_avatar_url, notes, create_video_link, room_url, created_at, updated_at";
+    private static final String PARTICIPANT_COLUMNS = "id, meeting_id, user_id, email, name, avatar_url, role";
+
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final Duration after;
+    private final int batchSize;
+
+    private volatile Instant archivedThrough;
+
+    public MeetingArchiver(EntityManager em, PlatformTransactionManager txManager,
+            @Value("${app.meet.archive.after-days}") long afterDays,
+            @Value("${app.meet.archive.batch-size}") int batchSize) {
+        this.em = em;
+        this.tx = new TransactionTemplate(txManager);
+        this.after = Duration.ofDays(afterDays);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Whether meetings starting at or after {@code from} may be archived.
+     */
+    public boolean reachesArchive(Instant from) {
+        if (from.isBefore(Instant.now().minus(after))) {
+            return true;
+        }
+        Instant through = archivedThrough;
+        return through != null && from.isBefore(through);
+    }
+
+    @Scheduled(fixedDelayString = "${app.meet.archive.interval-ms}")
+    public void archive() {
+        Instant cutoff = Instant.now().minus(after);
+        int moved = 0;
+        int batch;
+        do {
+            batch = tx.execute(s -> moveBatch(cutoff));
+            moved += batch;
+        } while (batch == batchSize);
+
+        Object latest = em.createNativeQuery("select max(ends_at) from meetings_archive").getSingleResult();
+        if (latest != null) {
+            archivedThrough = toInstant(latest);
+        }
+        if (moved > 0) {
+            log.info("Archived {} meetings that ended before {}", moved, cutoff);
+        }
+    }
+
+    private int moveBatch(Instant cutoff) {
+        // other nodes archiving at the same time skip the rows locked here
+        @SuppressWarnings("unchecked")
+        List<Number> rows = em.createNativeQuery("""
+                select id from meetings
+                where ends_at < :cutoff
+                order by ends_at
+                limit :n
+                for update skip locked
+                """)
+                .setParameter("cutoff", cutoff)
+                .setParameter("n", batchSize)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = rows.stream().map(Number::longValue).toList();
+
+        em.createNativeQuery("insert into meeting_participants_archive (" + PARTICIPANT_COLUMNS + ") select "
+                + PARTICIPANT_COLUMNS + " from meeting_participants where meeting_id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createNativeQuery("insert into meetings_archive (" + MEETING_COLUMNS + ", archived_at) select "
+                + MEETING_COLUMNS + ", :now from meetings where id in (:ids)")
+                .setParameter("ids", ids)
+                .setParameter("now", Instant.now())
+                .executeUpdate();
+        em.createNativeQuery("delete from meeting_participants where meeting_id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createNativeQuery("delete from meetings where id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return ids.size();
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Timestamp ts) {
+            return ts.toInstant();
+        }
+        if (value instanceof LocalDateTime ldt) {
+            // the connection runs in UTC (serverTimezone=UTC)
+            return ldt.toInstant(ZoneOffset.UTC);
+        }
+        return (Instant) value;
+    }
+}
@@ -1,21 +1,36 @@
 package com.reimii.meetup.meetings;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.reimii.meetup.audit.AuditLog;
+import com.reimii.meetup.audit.AuditType;
 import com.reimii.meetup.meetings.dto.MeetingDto;
+import com.reimii.meetup.reminders.ReminderEngine;
+import com.reimii.meetup.sync.ChangeLog;
 import com.reimii.meetup.users.AppUser;
 
 import jakarta.validation.Valid;
@@ -23,14 +38,38 @@ import jakarta.validation.Valid;
 @RestController
 public class MeetingController {
 
+    /**
+     * Longest range a free/busy or range query may cover.
+     */
+    private static final Duration MAX_FREE_BUSY_RANGE = Duration.ofDays(62);
+
+    private static final int MAX_SEARCH_QUERY = 200;
+    private static final int MAX_SEARCH_RESULTS = 50;
+
     private final MeetingRepository meetings;
     private final MeetingParticipantRepository participants;
     private final MeetingMapper mapper;
-
-    public MeetingController(MeetingRepository meetings, MeetingParticipantRepository participants, MeetingMapper mapper) {
+    private final RoomAccessCache roomAccess;
+    private final BusyIndex busyIndex;
+    private final RecurringMeetings recurring;
+    private final ReminderEngine reminders;
+    private final MeetingSearchIndex search;
+    private final ChangeLog changeLog;
+    private final AuditLog audit;
+
+    public MeetingController(MeetingRepository meetings, MeetingParticipantRepository participants, MeetingMapper mapper,
+            RoomAccessCache roomAccess, BusyIndex busyIndex, RecurringMeetings recurring, ReminderEngine reminders,
+            MeetingSearchIndex search, ChangeLog changeLog, AuditLog audit) {
         this.meetings = meetings;
         this.participants = participants;
         this.mapper = mapper;
+        this.roomAccess = roomAccess;
+        this.busyIndex = busyIndex;
+        this.recurring = recurring;
+        this.reminders = reminders;
+        this.search = search;
+        this.changeLog = changeLog;
+        this.audit = audit;
     }
 
     @GetMapping("/meetings/today")
@@ -43,10 +82,87 @@ public class MeetingController {
         Instant from = today.atStartOfDay(zone).toInstant();
         Instant to = today.plusDays(1).atStartOfDay(zone).toInstant();
 
-        return meetings.findByOwnerUserIdAndStartsAtBetweenOrderByStartsAtAsc(user.getId(), from, to)
-                .stream()
-                .map(m -> mapper.toDto(m, participants.findByMeetingId(m.getId())))
-                .toList();
+        return inRange(user.getId(), from, to);
+    }
+
+    /**
+     * One-off meetings starting in {@code [from, to)} plus the occurrences of
+     * recurring series overlapping it, by start.
+     */
+    @GetMapping("/meetings/range")
+    public ResponseEntity<List<MeetingDto>> range(Authentication auth, @RequestParam("from") String fromParam,
+            @RequestParam("to") String toParam) {
+        AppUser user = (AppUser) auth.getPrincipal();
+
+        Instant from;
+        Instant to;
+        try {
+            from = Instant.parse(fromParam);
+            to = Instant.parse(toParam);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!to.isAfter(from) || Duration.between(from, to).compareTo(MAX_FREE_BUSY_RANGE) > 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(inRange(user.getId(), from, to));
+    }
+
+    private List<MeetingDto> inRange(Long userId, Instant from, Instant to) {
+        List<MeetingDto> out = new ArrayList<>();
+        var owned = meetings.findOwnedInRange(userId, from, to);
+        Map<Long, List<MeetingParticipant>> partsByMeeting = new HashMap<>();
+        if (!owned.isEmpty()) {
+            participants.findByMeetingIdInIncludingArchive(owned.stream().map(Meeting::getId).toList())
+                    .forEach(p -> partsByMeeting.computeIfAbsent(p.getMeeting().getId(), k -> new ArrayList<>()).add(p));
+        }
+        owned.forEach(m -> out.add(mapper.toDto(m, partsByMeeting.getOrDefault(m.getId(), List.of()))));
+        recurring.occurrences(userId, from, to)
+                .forEach(o -> out.add(mapper.toDto(o)));
+
+        out.sort(Comparator.comparing(d -> Instant.parse(d.startsAt())));
+        return out;
+    }
+
+    /**
+     * Own meetings whose title, notes or people match every word of {@code q}
+     * (prefixes included), best first. 503 until the index is built.
+     */
+    @GetMapping("/meetings/search")
+    public ResponseEntity<List<MeetingDto>> search(Authentication auth, @RequestParam("q") String q,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        AppUser user = (AppUser) auth.getPrincipal();
+
+        if (q.isBlank() || q.length() > MAX_SEARCH_QUERY || limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!search.isReady()) {
+            return ResponseEntity.status(503).build();
+        }
+
+        var hits = search.search(user.getId(), q, Math.min(limit, MAX_SEARCH_RESULTS));
+        if (hits.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+
+        List<Long> ids = hits.stream().map(MeetingSearchIndex.Hit::meetingId).toList();
+        Map<Long, Meeting> rows = new HashMap<>();
+        meetings.findAllByIdIncludingArchive(ids).forEach(m -> rows.put(m.getId(), m));
+        Map<Long, List<MeetingParticipant>> partsByMeeting = new HashMap<>();
+        participants.findByMeetingIdInIncludingArchive(ids)
+                .forEach(p -> partsByMeeting.computeIfAbsent(p.getMeeting().getId(), k -> new ArrayList<>()).add(p));
+
+        List<MeetingDto> out = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Meeting m = rows.get(id);
+            if (m == null || !m.getOwnerUserId().equals(user.getId())) {
+                search.evict(user.getId(), id);
+                continue;
+            }
+            out.add(mapper.toDto(m, partsByMeeting.getOrDefault(id, List.of())));
+        }
+        return ResponseEntity.ok(out);
     }
 
     @GetMapping("/meetings/next")
@@ -62,11 +178,83 @@ public class MeetingController {
         return ResponseEntity.ok(mapper.toDto(m, participants.findByMeetingId(m.getId())));
     }
 
+    /**
+     * Busy blocks (overlapping meetings merged) and the free gaps between them
+     * within {@code [from, to)}.
+     */
+    @GetMapping("/meetings/free-busy")
+    public ResponseEntity<Map<String, Object>> freeBusy(Authentication auth, @RequestParam("from") String fromParam,
+            @RequestParam("to") String toParam) {
+        AppUser user = (AppUser) auth.getPrincipal();
+
+        Instant from;
+        Instant to;
+        try {
+            from = Instant.parse(fromParam);
+            to = Instant.parse(toParam);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!to.isAfter(from) || Duration.between(from, to).compareTo(MAX_FREE_BUSY_RANGE) > 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<Map<String, Instant>> busy = new ArrayList<>();
+        List<Map<String, Instant>> free = new ArrayList<>();
+        Instant blockStart = null;
+        Instant blockEnd = null;
+        Instant cursor = from;
+
+        List<BusyIndex.Busy> blocks = new ArrayList<>(busyIndex.busy(user.getId(), from, to));
+        recurring.occurrences(user.getId(), from, to)
+                .forEach(o -> blocks.add(new BusyIndex.Busy(0, o.startsAt(), o.endsAt())));
+        blocks.sort(Comparator.comparing(BusyIndex.Busy::startsAt));
+
+        for (var b : blocks) {
+            Instant s = b.startsAt().isBefore(from) ? from : b.startsAt();
+            Instant e = b.endsAt().isAfter(to) ? to : b.endsAt();
+            if (blockEnd != null && !s.isAfter(blockEnd)) {
+                if (e.isAfter(blockEnd)) {
+                    blockEnd = e;
+                }
+                continue;
+            }
+            if (blockEnd != null) {
+                busy.add(Map.of("start", blockStart, "end", blockEnd));
+                cursor = blockEnd;
+            }
+            if (s.isAfter(cursor)) {
+                free.add(Map.of("start", cursor, "end", s));
+            }
+            blockStart = s;
+            blockEnd = e;
+        }
+        if (blockEnd != null) {
+            busy.add(Map.of("start", blockStart, "end", blockEnd));
+            cursor = blockEnd;
+        }
+        if (to.isAfter(cursor)) {
+            free.add(Map.of("start", cursor, "end", to));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("from", from);
+        body.put("to", to);
+        body.put("busy", busy);
+        body.put("free", free);
+        return ResponseEntity.ok(body);
+    }
+
+    private boolean conflicts(Long userId, Instant start, Instant end, Long excludeMeetingId) {
+        return busyIndex.firstConflict(userId, start, end, excludeMeetingId) != null
+                || recurring.occurrences(userId, start, end).findFirst().isPresent();
+    }
+
     @GetMapping("/meetings/{id}")
     public ResponseEntity<MeetingDto> getById(Authentication auth, @PathVariable("id") Long id) {
         AppUser user = (AppUser) auth.getPrincipal();
 
-        var mOpt = meetings.findById(id);
+        var mOpt = meetings.findByIdIncludingArchive(id);
         if (mOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -80,13 +268,24 @@ public class MeetingController {
             return ResponseEntity.status(403).build();
         }
 
-        return ResponseEntity.ok(mapper.toDto(m, participants.findByMeetingId(m.getId())));
+        return ResponseEntity.ok(mapper.toDto(m, participants.findByMeetingIdInIncludingArchive(List.of(id))));
     }
 
+    /**
+     * With {@code checkConflicts=true}, answers 409 instead of creating a
+     * meeting that overlaps another one of the caller's.
+     */
     @PostMapping("/meetings")
-    public MeetingDto create(Authentication auth, @Valid @RequestBody CreateMeetingRequest body) {
+    @Transactional
+    public ResponseEntity<MeetingDto> create(Authentication auth, @Valid @RequestBody CreateMeetingRequest body,
+            @RequestParam(name = "checkConflicts", defaultValue = "false") boolean checkConflicts) {
         AppUser user = (AppUser) auth.getPrincipal();
 
+        if (checkConflicts && conflicts(user.getId(), Instant.parse(body.startsAt()), Instant.parse(body.endsAt()),
+                null)) {
+            return ResponseEntity.status(409).build();
+        }
+
         Meeting m = new Meeting();
         m.setOwnerUserId(user.getId());
         m.setTitle(body.title());
@@ -125,14 +324,27 @@ public class MeetingController {
         guest.setRole(MeetingParticipantRole.PRIMARY_GUEST);
         participants.save(guest);
 
-        return mapper.toDto(m, participants.findByMeetingId(m.getId()));
+        var parts = participants.findByMeetingId(m.getId());
+        changeLog.recordUpsert(m, parts);
+        Meeting created = m;
+        afterCommit(() -> {
+            audit.record(AuditType.MEETING_CREATED, user.getId(), String.valueOf(created.getId()));
+            roomAccess.put(created, parts);
+            busyIndex.onSaved(created);
+            reminders.onSaved(created, parts);
+            search.onSaved(created, parts);
+        });
+
+        return ResponseEntity.ok(mapper.toDto(m, parts));
     }
 
     @PutMapping("/meetings/{id}")
+    @Transactional
     public ResponseEntity<MeetingDto> update(
             Authentication auth,
             @PathVariable("id") Long id,
-            @Valid @RequestBody CreateMeetingRequest body
+            @Valid @RequestBody CreateMeetingRequest body,
+            @RequestParam(name = "checkConflicts", defaultValue = "false") boolean checkConflicts
     ) {
         AppUser user = (AppUser) auth.getPrincipal();
 
@@ -157,6 +369,11 @@ public class MeetingController {
         if (!end.isAfter(start)) {
             return ResponseEntity.badRequest().build();
         }
+        if (checkConflicts && conflicts(m.getOwnerUserId(), start, end, m.getId())) {
+            return ResponseEntity.status(409).build();
+        }
+
+        String previousRoomUrl = m.getRoomUrl();
 
         m.setTitle(body.title());
         m.setStartsAt(start);
@@ -194,10 +411,23 @@ public class MeetingController {
         pg.setEmail(body.guestEmail());
         participants.save(pg);
 
-        return ResponseEntity.ok(mapper.toDto(m, participants.findByMeetingId(m.getId())));
+        var updated = participants.findByMeetingId(m.getId());
+        changeLog.recordUpsert(m, updated);
+        Meeting saved = m;
+        afterCommit(() -> {
+            audit.record(AuditType.MEETING_UPDATED, user.getId(), String.valueOf(saved.getId()));
+            roomAccess.evict(previousRoomUrl);
+            roomAccess.put(saved, updated);
+            busyIndex.onSaved(saved);
+            reminders.onSaved(saved, updated);
+            search.onSaved(saved, updated);
+        });
+
+        return ResponseEntity.ok(mapper.toDto(m, updated));
     }
 
     @DeleteMapping("/meetings/{id}")
+    @Transactional
     public ResponseEntity<Void> delete(Authentication auth, @PathVariable("id") Long id) {
         AppUser user = (AppUser) auth.getPrincipal();
 
@@ -215,9 +445,31 @@ public class MeetingController {
             return ResponseEntity.status(403).build();
         }
 
-        participants.findByMeetingId(id).forEach(participants::delete);
+        var parts = participants.findByMeetingId(id);
+        parts.forEach(participants::delete);
         meetings.delete(m);
+        changeLog.recordDelete(m, parts);
+        afterCommit(() -> {
+            audit.record(AuditType.MEETING_DELETED, user.getId(), String.valueOf(m.getId()));
+            roomAccess.evict(m.getRoomUrl());
+            busyIndex.onDeleted(m);
+            reminders.onDeleted(m);
+            search.onDeleted(m);
+        });
 
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Runs once the surrounding transaction commits, so neither the in-memory
+     * indexes nor the audit log reflect a write that rolled back.
+     */
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
@@ -36,7 +36,41 @@ public class MeetingMapper {
                 m.getRoomUrl(),
                 m.getNotes(),
                 m.getCreatedAt() != null ? m.getCreatedAt().toString() : null,
-                m.getUpdatedAt() != null ? m.getUpdatedAt().toString() : null
+                m.getUpdatedAt() != null ? m.getUpdatedAt().toString() : null,
+                null,
+                null
+        );
+    }
+
+    /**
+     * Occurrences have no participant rows: owner and guest come from the series.
+     */
+    public MeetingDto toDto(RecurringMeetings.Occurrence o) {
+        MeetingSeries s = o.series();
+        var parts = List.of(
+                new MeetingParticipantDto(s.getOwnerUserId(), null, s.getHostName(), null,
+                        MeetingParticipantRole.OWNER.name()),
+                new MeetingParticipantDto(null, s.getGuestEmail(), null, null,
+                        MeetingParticipantRole.PRIMARY_GUEST.name()));
+
+        return new MeetingDto(
+                0,
+                s.getOwnerUserId(),
+                o.title(),
+                o.startsAt().toString(),
+                o.endsAt().toString(),
+                s.getHostName(),
+                s.getGuestEmail(),
+                parts,
+                null,
+                null,
+                s.isCreateVideoLink(),
+                s.getRoomUrl(),
+                s.getNotes(),
+                s.getCreatedAt() != null ? s.getCreatedAt().toString() : null,
+                s.getUpdatedAt() != null ? s.getUpdatedAt().toString() : null,
+                s.getId(),
+                o.originalStartsAt().toString()
         );
     }
 }
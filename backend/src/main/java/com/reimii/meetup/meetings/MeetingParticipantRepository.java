@@ -1,12 +1,15 @@
 package com.reimii.meetup.meetings;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface MeetingParticipantRepository extends JpaRepository<MeetingParticipant, Long> {
+public interface MeetingParticipantRepository extends JpaRepository<MeetingParticipant, Long>, ParticipantArchiveReads {
 
     List<MeetingParticipant> findByMeetingId(Long meetingId);
 
+    List<MeetingParticipant> findByMeetingIdIn(Collection<Long> meetingIds);
+
     boolean existsByMeetingIdAndUserIdAndRole(Long meetingId, Long userId, MeetingParticipantRole role);
 }
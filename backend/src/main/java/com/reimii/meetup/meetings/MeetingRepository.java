@@ -1,14 +1,56 @@
 package com.reimii.meetup.meetings;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface MeetingRepository extends JpaRepository<Meeting, Long> {
+public interface MeetingRepository extends JpaRepository<Meeting, Long>, MeetingArchiveReads {
 
     List<Meeting> findByOwnerUserIdAndStartsAtBetweenOrderByStartsAtAsc(Long ownerUserId, Instant from, Instant to);
 
+    /**
+     * Just the time range of each meeting, for {@link BusyIndex}.
+     */
+    interface BusyRow {
+        Long getId();
+
+        Instant getStartsAt();
+
+        Instant getEndsAt();
+    }
+
+    // Served by idx_meetings_owner_ends_at
+    List<BusyRow> findByOwnerUserIdAndEndsAtGreaterThan(Long ownerUserId, Instant after);
+
     Optional<Meeting> findTop1ByOwnerUserIdAndStartsAtAfterOrderByStartsAtAsc(Long ownerUserId, Instant now);
+
+    // Served by idx_meetings_starts_at
+    List<Meeting> findByCreateVideoLinkTrueAndStartsAtBetweenOrderByStartsAtAsc(Instant from, Instant to);
+
+    // Served by idx_meetings_starts_at
+    List<Meeting> findByStartsAtGreaterThanEqualAndStartsAtLessThanOrderByStartsAtAsc(Instant from, Instant to);
+
+    // Keyset paging for the search index build
+    List<Meeting> findByIdGreaterThanOrderByIdAsc(Long id, Pageable page);
+
+    /**
+     * Keyset page of meetings updated at or after {@code since}, by
+     * (updatedAt, id); pass the last row of the previous page to continue.
+     */
+    // Served by idx_meetings_updated_at
+    @Query("""
+            select m from Meeting m
+            where m.updatedAt > :since or (m.updatedAt = :since and m.id > :afterId)
+            order by m.updatedAt asc, m.id asc
+            """)
+    List<Meeting> findUpdatedSince(@Param("since") Instant since, @Param("afterId") Long afterId, Pageable page);
+
+    // Served by idx_meetings_room_url
+    List<Meeting> findByRoomUrlIn(Collection<String> roomUrls);
 }
@@ -0,0 +1,43 @@
+package com.reimii.meetup.meetings;
+
+import java.util.List;
+
+/**
+ * Maps a meeting's {@code roomUrl} to the signaling room id used on
+ * {@code /ws/meet} and by the SFU. Mirrors the client-side parsing in
+ * {@code use-meet-room-id.ts}.
+ */
+public final class MeetingRooms {
+
+    private MeetingRooms() {
+    }
+
+    /**
+     * @return the room id, or null if the meeting has no usable video link
+     */
+    public static String roomIdOf(String roomUrl) {
+        if (roomUrl == null) {
+            return null;
+        }
+        String url = roomUrl.trim();
+
+        String id;
+        if (url.startsWith("/meetup-")) {
+            id = url.substring("/meetup-".length());
+        } else if (url.startsWith("/meet/")) {
+            id = url.substring("/meet/".length());
+        } else {
+            return null;
+        }
+
+        id = id.trim();
+        return id.isEmpty() ? null : id;
+    }
+
+    /**
+     * Every roomUrl form that {@link #roomIdOf} maps to {@code roomId}.
+     */
+    public static List<String> roomUrlsFor(String roomId) {
+        return List.of("/meet/" + roomId, "/meetup-" + roomId);
+    }
+}
@@ -0,0 +1,399 @@
+package com.reimii.meetup.meetings;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory inverted index per owner over meeting title, notes, guest email
+ * and participant names/emails, so search does not scan the TEXT column.
+ *
+ * Terms are lowercased and stripped of accents; each owner's terms sit in a
+ * sorted map so a query term matches every indexed term it prefixes. Hits
+ * score by field (title over people over notes), exact terms over prefixes,
+ * and must match every query term.
+ *
+ * Built at startup by keyset-paged passes over meetings and meetings_archive
+ * whose pages are tokenized in parallel; {@link MeetingController} keeps it current on
+ * write, and writes made on other nodes are picked up by an updatedAt
+ * catch-up. Results are ids only: callers load the rows, which also drops
+ * meetings deleted elsewhere.
+ */
+@Component
+public class MeetingSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MeetingSearchIndex.class);
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final int TITLE = 8;
+    private static final int PEOPLE = 4;
+    private static final int NOTES = 1;
+
+    /**
+     * Long notes index at most this many distinct terms.
+     */
+    private static final int MAX_TERMS_PER_MEETING = 2000;
+
+    public record Hit(long meetingId, int score) {
+    }
+
+    private final MeetingRepository meetings;
+    private final MeetingParticipantRepository participants;
+    private final int pageSize;
+    private final int threads;
+
+    private final Map<Long, OwnerIndex> byOwner = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * Meetings written or deleted while the startup pass runs; its (older)
+     * copy of them is skipped. Null once the pass is done.
+     */
+    private volatile Set<Long> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Highest updatedAt seen by the catch-up.
+     */
+    private volatile Instant caughtUpTo = Instant.now();
+
+    /**
+     * How far behind {@link #caughtUpTo} each catch-up rescans, for rows
+     * committed late: long transactions, node clock skew and replica lag.
+     */
+    private final Duration catchUpOverlap;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "search-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public MeetingSearchIndex(MeetingRepository meetings, MeetingParticipantRepository participants,
+            @Value("${app.meet.search.rebuild-page-size}") int pageSize,
+            @Value("${app.meet.search.rebuild-threads}") int threads,
+            @Value("${app.meet.search.catch-up-overlap-ms}") long catchUpOverlapMs) {
+        this.meetings = meetings;
+        this.participants = participants;
+        this.pageSize = pageSize;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.catchUpOverlap = Duration.ofMillis(catchUpOverlapMs);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuildExecutor.execute(this::rebuild);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    public void onSaved(Meeting m, List<MeetingParticipant> parts) {
+        markTouched(m.getId());
+        owner(m.getOwnerUserId()).put(m.getId(), m.getStartsAt().toEpochMilli(), terms(m, parts));
+    }
+
+    public void onDeleted(Meeting m) {
+        markTouched(m.getId());
+        var idx = byOwner.get(m.getOwnerUserId());
+        if (idx != null) {
+            idx.remove(m.getId());
+        }
+    }
+
+    /**
+     * Drops a meeting whose row is gone, e.g. deleted on another node.
+     */
+    public void evict(Long ownerUserId, long meetingId) {
+        var idx = byOwner.get(ownerUserId);
+        if (idx != null) {
+            idx.remove(meetingId);
+        }
+    }
+
+    /**
+     * Best {@code limit} meetings of {@code ownerUserId} matching every term
+     * of {@code query}, by score then most recent start.
+     */
+    public List<Hit> search(Long ownerUserId, String query, int limit) {
+        var idx = byOwner.get(ownerUserId);
+        List<String> queryTerms = new ArrayList<>(tokenize(query));
+        if (idx == null || queryTerms.isEmpty()) {
+            return List.of();
+        }
+        return idx.search(queryTerms, limit);
+    }
+
+    static Set<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        Set<String> out = new LinkedHashSet<>();
+        for (String t : NON_WORD.split(folded)) {
+            if (!t.isEmpty()) {
+                out.add(t);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * term -> field weight, strongest field wins.
+     */
+    static Map<String, Integer> terms(Meeting m, List<MeetingParticipant> parts) {
+        Map<String, Integer> out = new HashMap<>();
+        addTerms(out, m.getTitle(), TITLE);
+        addTerms(out, m.getGuestEmail(), PEOPLE);
+        addTerms(out, m.getGuestName(), PEOPLE);
+        for (var p : parts) {
+            addTerms(out, p.getName(), PEOPLE);
+            addTerms(out, p.getEmail(), PEOPLE);
+        }
+        addTerms(out, m.getNotes(), NOTES);
+        return out;
+    }
+
+    private static void addTerms(Map<String, Integer> out, String text, int weight) {
+        for (String t : tokenize(text)) {
+            if (out.size() >= MAX_TERMS_PER_MEETING && !out.containsKey(t)) {
+                return;
+            }
+            out.merge(t, weight, Math::max);
+        }
+    }
+
+    /**
+     * Re-indexes meetings changed since the last run, wherever they were
+     * written. Rows in the overlap window are indexed again, which is
+     * harmless: a put replaces the meeting's previous terms.
+     */
+    @Scheduled(fixedDelayString = "${app.meet.search.catch-up-interval-ms}")
+    public void catchUp() {
+        if (!ready) {
+            return;
+        }
+        Instant since = caughtUpTo.minus(catchUpOverlap);
+        long afterId = 0;
+        Instant newest = caughtUpTo;
+        while (true) {
+            var changed = meetings.findUpdatedSince(since, afterId, PageRequest.of(0, pageSize));
+            if (changed.isEmpty()) {
+                break;
+            }
+            indexPage(changed);
+            Meeting last = changed.get(changed.size() - 1);
+            since = last.getUpdatedAt();
+            afterId = last.getId();
+            if (since.isAfter(newest)) {
+                newest = since;
+            }
+            if (changed.size() < pageSize) {
+                break;
+            }
+        }
+        caughtUpTo = newest;
+    }
+
+    private void rebuild() {
+        long started = System.nanoTime();
+        Instant startedAt = Instant.now();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "search-rebuild-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        // bounds the pages read ahead of the workers
+        Semaphore inFlight = new Semaphore(threads * 2);
+
+        long count = 0;
+        try {
+            long lastId = 0;
+            while (true) {
+                var page = meetings.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).getId();
+                count += page.size();
+                submit(workers, inFlight, page);
+            }
+            // archived meetings stay searchable; one moved while the first pass ran is read here
+            lastId = 0;
+            while (true) {
+                var page = meetings.findArchivedByIdGreaterThan(lastId, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).getId();
+                count += page.size();
+                submit(workers, inFlight, page);
+            }
+            workers.shutdown();
+            workers.awaitTermination(10, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+            return;
+        } catch (Exception e) {
+            log.warn("Search index rebuild failed; only new writes are searchable", e);
+            workers.shutdownNow();
+        }
+
+        caughtUpTo = startedAt;
+        touchedDuringRebuild = null;
+        ready = true;
+        log.info("Search index built: {} meetings, {} owners in {} ms", count, byOwner.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private void submit(ExecutorService workers, Semaphore inFlight, List<Meeting> page)
+            throws InterruptedException {
+        inFlight.acquire();
+        workers.execute(() -> {
+            try {
+                indexPage(page);
+            } catch (Exception e) {
+                log.warn("Search index page failed", e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void indexPage(List<Meeting> page) {
+        List<Long> ids = new ArrayList<>(page.size());
+        page.forEach(m -> ids.add(m.getId()));
+
+        Map<Long, List<MeetingParticipant>> partsByMeeting = new HashMap<>();
+        for (var p : participants.findByMeetingIdInIncludingArchive(ids)) {
+            partsByMeeting.computeIfAbsent(p.getMeeting().getId(), k -> new ArrayList<>()).add(p);
+        }
+
+        var touched = touchedDuringRebuild;
+        for (Meeting m : page) {
+            if (touched != null && touched.contains(m.getId())) {
+                continue;
+            }
+            var parts = partsByMeeting.getOrDefault(m.getId(), List.of());
+            owner(m.getOwnerUserId()).put(m.getId(), m.getStartsAt().toEpochMilli(), terms(m, parts));
+        }
+    }
+
+    private void markTouched(Long meetingId) {
+        var touched = touchedDuringRebuild;
+        if (touched != null) {
+            touched.add(meetingId);
+        }
+    }
+
+    private OwnerIndex owner(Long ownerUserId) {
+        return byOwner.computeIfAbsent(ownerUserId, k -> new OwnerIndex());
+    }
+
+    /**
+     * Postings of one owner. Writes are rare next to searches and both are
+     * short, so a monitor is enough.
+     */
+    static final class OwnerIndex {
+
+        private record Doc(long startsAtMs, String[] terms) {
+        }
+
+        /**
+         * term -> meetingId -> field weight.
+         */
+        private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Doc> docs = new HashMap<>();
+
+        synchronized void put(long meetingId, long startsAtMs, Map<String, Integer> terms) {
+            remove(meetingId);
+            terms.forEach((t, w) -> postings.computeIfAbsent(t, k -> new HashMap<>(4)).put(meetingId, w));
+            docs.put(meetingId, new Doc(startsAtMs, terms.keySet().toArray(new String[0])));
+        }
+
+        synchronized void remove(long meetingId) {
+            var old = docs.remove(meetingId);
+            if (old == null) {
+                return;
+            }
+            for (String t : old.terms()) {
+                var posting = postings.get(t);
+                if (posting != null) {
+                    posting.remove(meetingId);
+                    if (posting.isEmpty()) {
+                        postings.remove(t);
+                    }
+                }
+            }
+        }
+
+        synchronized List<Hit> search(List<String> queryTerms, int limit) {
+            // rarest-looking (longest) term first keeps the candidate set small
+            queryTerms.sort((a, b) -> b.length() - a.length());
+
+            Map<Long, Integer> scores = null;
+            for (String q : queryTerms) {
+                final Map<Long, Integer> prev = scores;
+                Map<Long, Integer> termScores = new HashMap<>();
+                for (var e : postings.subMap(q, true, q + Character.MAX_VALUE, false).entrySet()) {
+                    int factor = e.getKey().length() == q.length() ? 2 : 1;
+                    e.getValue().forEach((id, w) -> {
+                        if (prev == null || prev.containsKey(id)) {
+                            termScores.merge(id, w * factor, Math::max);
+                        }
+                    });
+                }
+                if (prev != null) {
+                    termScores.replaceAll((id, s) -> s + prev.get(id));
+                }
+                scores = termScores;
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(scores.size());
+            scores.forEach((id, s) -> hits.add(new Hit(id, s)));
+            hits.sort((a, b) -> a.score() != b.score()
+                    ? Integer.compare(b.score(), a.score())
+                    : Long.compare(docs.get(b.meetingId()).startsAtMs(), docs.get(a.meetingId()).startsAtMs()));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        }
+    }
+}
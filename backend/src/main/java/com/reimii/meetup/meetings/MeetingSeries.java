@@ -0,0 +1,209 @@
+package com.reimii.meetup.meetings;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A recurring meeting stored as one rule row. Occurrences are expanded on
+ * read by {@link Recurrence}; per-occurrence changes live in
+ * {@link MeetingSeriesOverride}.
+ */
+@Entity
+@Table(name = "meeting_series", indexes = {
+    @Index(name = "idx_meeting_series_owner", columnList = "owner_user_id, first_starts_at"),
+    @Index(name = "idx_meeting_series_room_url", columnList = "room_url")
+})
+public class MeetingSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long ownerUserId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false)
+    private String hostName;
+
+    @Column(nullable = false)
+    private String guestEmail;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(nullable = false)
+    private boolean createVideoLink = true;
+
+    // one room for every occurrence
+    private String roomUrl;
+
+    // first occurrence; its wall-clock time in timeZone is kept across DST
+    @Column(nullable = false)
+    private Instant firstStartsAt;
+
+    @Column(nullable = false)
+    private long durationSeconds;
+
+    @Column(nullable = false)
+    private String timeZone;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecurrenceFrequency frequency;
+
+    @Column(nullable = false)
+    private int intervalCount = 1;
+
+    // WEEKLY only: bit 0 = Monday ... bit 6 = Sunday
+    @Column(nullable = false)
+    private int byDays;
+
+    // start of the last occurrence (inclusive); null = open-ended
+    private Instant untilAt;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOwnerUserId() {
+        return ownerUserId;
+    }
+
+    public void setOwnerUserId(Long ownerUserId) {
+        this.ownerUserId = ownerUserId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public void setHostName(String hostName) {
+        this.hostName = hostName;
+    }
+
+    public String getGuestEmail() {
+        return guestEmail;
+    }
+
+    public void setGuestEmail(String guestEmail) {
+        this.guestEmail = guestEmail;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public boolean isCreateVideoLink() {
+        return createVideoLink;
+    }
+
+    public void setCreateVideoLink(boolean createVideoLink) {
+        this.createVideoLink = createVideoLink;
+    }
+
+    public String getRoomUrl() {
+        return roomUrl;
+    }
+
+    public void setRoomUrl(String roomUrl) {
+        this.roomUrl = roomUrl;
+    }
+
+    public Instant getFirstStartsAt() {
+        return firstStartsAt;
+    }
+
+    public void setFirstStartsAt(Instant firstStartsAt) {
+        this.firstStartsAt = firstStartsAt;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(String timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public int getIntervalCount() {
+        return intervalCount;
+    }
+
+    public void setIntervalCount(int intervalCount) {
+        this.intervalCount = intervalCount;
+    }
+
+    public int getByDays() {
+        return byDays;
+    }
+
+    public void setByDays(int byDays) {
+        this.byDays = byDays;
+    }
+
+    public Instant getUntilAt() {
+        return untilAt;
+    }
+
+    public void setUntilAt(Instant untilAt) {
+        this.untilAt = untilAt;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,223 @@
+package com.reimii.meetup.meetings;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.reimii.meetup.users.AppUser;
+
+import jakarta.validation.Valid;
+
+/**
+ * Recurring meetings: one {@link MeetingSeries} row per series plus one
+ * {@link MeetingSeriesOverride} row per changed occurrence. Occurrences show
+ * up in the /meetings range queries.
+ */
+@RestController
+public class MeetingSeriesController {
+
+    private final MeetingSeriesRepository series;
+    private final MeetingSeriesOverrideRepository overrides;
+    private final RoomAccessCache roomAccess;
+
+    public MeetingSeriesController(MeetingSeriesRepository series, MeetingSeriesOverrideRepository overrides,
+            RoomAccessCache roomAccess) {
+        this.series = series;
+        this.overrides = overrides;
+        this.roomAccess = roomAccess;
+    }
+
+    @PostMapping("/meetings/series")
+    public ResponseEntity<Map<String, Object>> create(Authentication auth,
+            @Valid @RequestBody CreateSeriesRequest body) {
+        AppUser user = (AppUser) auth.getPrincipal();
+
+        MeetingSeries s = new MeetingSeries();
+        try {
+            Instant start = Instant.parse(body.startsAt());
+            Instant end = Instant.parse(body.endsAt());
+            Duration duration = Duration.between(start, end);
+            if (duration.isNegative() || duration.isZero() || duration.compareTo(Recurrence.MAX_DURATION) > 0) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (body.until() != null && body.count() != null) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            s.setFirstStartsAt(start);
+            s.setDurationSeconds(duration.toSeconds());
+            s.setTimeZone(ZoneId.of(body.timeZone() != null ? body.timeZone() : "Europe/Madrid").getId());
+            s.setFrequency(body.frequency());
+            s.setIntervalCount(body.interval() != null ? body.interval() : 1);
+            s.setByDays(byDaysMask(body));
+            if (body.until() != null) {
+                s.setUntilAt(Instant.parse(body.until()));
+            }
+        } catch (DateTimeException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        s.setOwnerUserId(user.getId());
+        s.setTitle(body.title());
+        s.setHostName(user.getName());
+        s.setGuestEmail(body.guestEmail());
+        s.setNotes(body.notes());
+        s.setCreateVideoLink(body.createVideoLink());
+        if (body.createVideoLink()) {
+            s.setRoomUrl("/meet/meetup-" + java.util.UUID.randomUUID());
+        }
+        if (body.count() != null) {
+            s.setUntilAt(Recurrence.nthStart(s, body.count()));
+        }
+
+        s = series.save(s);
+        return ResponseEntity.ok(toBody(s));
+    }
+
+    @GetMapping("/meetings/series/{id}")
+    public ResponseEntity<Map<String, Object>> get(Authentication auth, @PathVariable("id") Long id) {
+        AppUser user = (AppUser) auth.getPrincipal();
+
+        var sOpt = series.findById(id);
+        if (sOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        var s = sOpt.get();
+        boolean owner = s.getOwnerUserId().equals(user.getId());
+        boolean invitedByEmail = user.getEmail() != null && user.getEmail().equalsIgnoreCase(s.getGuestEmail());
+        if (!owner && !invitedByEmail) {
+            return ResponseEntity.status(403).build();
+        }
+
+        return ResponseEntity.ok(toBody(s));
+    }
+
+    /**
+     * Cancels, moves or retitles the occurrence the rule puts at
+     * {@code originalStartsAt}.
+     */
+    @PutMapping("/meetings/series/{id}/occurrences/{originalStartsAt}")
+    public ResponseEntity<Void> override(Authentication auth, @PathVariable("id") Long id,
+            @PathVariable("originalStartsAt") String originalStartsAt,
+            @RequestBody OccurrenceOverrideRequest body) {
+        AppUser user = (AppUser) auth.getPrincipal();
+
+        var sOpt = series.findById(id);
+        if (sOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        var s = sOpt.get();
+        if (!s.getOwnerUserId().equals(user.getId())) {
+            return ResponseEntity.status(403).build();
+        }
+
+        Instant original;
+        Instant start;
+        Instant end;
+        try {
+            original = Instant.parse(originalStartsAt);
+            start = body.startsAt() != null ? Instant.parse(body.startsAt()) : null;
+            end = body.endsAt() != null ? Instant.parse(body.endsAt()) : null;
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // a moved occurrence is held to the same bounds as the series itself
+        if (end != null && start == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (start != null && end != null) {
+            Duration duration = Duration.between(start, end);
+            if (duration.isNegative() || duration.isZero() || duration.compareTo(Recurrence.MAX_DURATION) > 0) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        // moved without a new end: keeps the series' duration, stored so range queries can match it
+        if (start != null && end == null) {
+            end = start.plusSeconds(s.getDurationSeconds());
+        }
+
+        var it = Recurrence.starts(s, original, original.plusMillis(1));
+        if (!it.hasNext() || !it.next().equals(original)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        var o = overrides.findBySeriesIdAndOriginalStartsAt(id, original).orElseGet(MeetingSeriesOverride::new);
+        o.setSeriesId(id);
+        o.setOriginalStartsAt(original);
+        o.setCancelled(body.cancelled());
+        o.setStartsAt(start);
+        o.setEndsAt(end);
+        o.setTitle(body.title());
+        overrides.save(o);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    @Transactional
+    @DeleteMapping("/meetings/series/{id}")
+    public ResponseEntity<Void> delete(Authentication auth, @PathVariable("id") Long id) {
+        AppUser user = (AppUser) auth.getPrincipal();
+
+        var sOpt = series.findById(id);
+        if (sOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        var s = sOpt.get();
+        if (!s.getOwnerUserId().equals(user.getId())) {
+            return ResponseEntity.status(403).build();
+        }
+
+        overrides.deleteBySeriesId(id);
+        series.delete(s);
+        roomAccess.evict(s.getRoomUrl());
+
+        return ResponseEntity.noContent().build();
+    }
+
+    private static int byDaysMask(CreateSeriesRequest body) {
+        if (body.frequency() != RecurrenceFrequency.WEEKLY || body.byDays() == null) {
+            return 0;
+        }
+        int mask = 0;
+        for (String d : body.byDays()) {
+            mask |= Recurrence.dayBit(DayOfWeek.valueOf(d.toUpperCase(Locale.ROOT)));
+        }
+        return mask;
+    }
+
+    private static Map<String, Object> toBody(MeetingSeries s) {
+        var body = new LinkedHashMap<String, Object>();
+        body.put("id", s.getId());
+        body.put("ownerUserId", s.getOwnerUserId());
+        body.put("title", s.getTitle());
+        body.put("firstStartsAt", s.getFirstStartsAt().toString());
+        body.put("durationSeconds", s.getDurationSeconds());
+        body.put("timeZone", s.getTimeZone());
+        body.put("frequency", s.getFrequency().name());
+        body.put("interval", s.getIntervalCount());
+        body.put("byDays", s.getByDays());
+        body.put("until", s.getUntilAt() != null ? s.getUntilAt().toString() : null);
+        body.put("guestEmail", s.getGuestEmail());
+        body.put("notes", s.getNotes());
+        body.put("createVideoLink", s.isCreateVideoLink());
+        body.put("roomUrl", s.getRoomUrl());
+        return body;
+    }
+}
@@ -0,0 +1,95 @@
+package com.reimii.meetup.meetings;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Change to one occurrence of a {@link MeetingSeries}, keyed by the start the
+ * rule gave it: cancelled, moved and/or retitled.
+ */
+@Entity
+@Table(name = "meeting_series_overrides",
+        uniqueConstraints = @UniqueConstraint(name = "uq_series_override", columnNames = { "series_id",
+            "original_starts_at" }),
+        indexes = @Index(name = "idx_series_override_starts_at", columnList = "series_id, starts_at"))
+public class MeetingSeriesOverride {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long seriesId;
+
+    @Column(nullable = false)
+    private Instant originalStartsAt;
+
+    @Column(nullable = false)
+    private boolean cancelled;
+
+    // null = keep the rule's times
+    private Instant startsAt;
+    private Instant endsAt;
+
+    private String title;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(Long seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    public Instant getOriginalStartsAt() {
+        return originalStartsAt;
+    }
+
+    public void setOriginalStartsAt(Instant originalStartsAt) {
+        this.originalStartsAt = originalStartsAt;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public Instant getStartsAt() {
+        return startsAt;
+    }
+
+    public void setStartsAt(Instant startsAt) {
+        this.startsAt = startsAt;
+    }
+
+    public Instant getEndsAt() {
+        return endsAt;
+    }
+
+    public void setEndsAt(Instant endsAt) {
+        this.endsAt = endsAt;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+}
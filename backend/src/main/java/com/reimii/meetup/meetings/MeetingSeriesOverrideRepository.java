@@ -0,0 +1,32 @@
+package com.reimii.meetup.meetings;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface MeetingSeriesOverrideRepository extends JpaRepository<MeetingSeriesOverride, Long> {
+
+    /**
+     * Overrides of any of {@code seriesIds} whose original or moved occurrence
+     * falls in the window, in one query. A moved occurrence stored without an
+     * end lasts the series' duration, so it is matched by start alone.
+     */
+    @Query("""
+            select o from MeetingSeriesOverride o
+            where o.seriesId in :seriesIds
+              and ((o.originalStartsAt >= :earliestStart and o.originalStartsAt < :to)
+                or (o.startsAt < :to and o.endsAt > :from)
+                or (o.startsAt < :to and o.endsAt is null and o.startsAt >= :earliestStart))
+            """)
+    List<MeetingSeriesOverride> findInWindow(@Param("seriesIds") Collection<Long> seriesIds,
+            @Param("earliestStart") Instant earliestStart, @Param("from") Instant from, @Param("to") Instant to);
+
+    Optional<MeetingSeriesOverride> findBySeriesIdAndOriginalStartsAt(Long seriesId, Instant originalStartsAt);
+
+    void deleteBySeriesId(Long seriesId);
+}
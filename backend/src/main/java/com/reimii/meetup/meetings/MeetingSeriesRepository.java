@@ -0,0 +1,40 @@
+package com.reimii.meetup.meetings;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface MeetingSeriesRepository extends JpaRepository<MeetingSeries, Long> {
+
+    /**
+     * Series of {@code ownerUserId} that may have an occurrence starting in
+     * {@code [earliestStart, to)}. Served by idx_meeting_series_owner.
+     */
+    @Query("""
+            select s from MeetingSeries s
+            where s.ownerUserId = :ownerUserId
+              and s.firstStartsAt < :to
+              and (s.untilAt is null or s.untilAt >= :earliestStart)
+            """)
+    List<MeetingSeries> findActive(@Param("ownerUserId") Long ownerUserId,
+            @Param("earliestStart") Instant earliestStart, @Param("to") Instant to);
+
+    /**
+     * Series of any owner that may have an occurrence starting in
+     * {@code [earliestStart, to)}, for reminders. A scan of the rule rows,
+     * run once per reminder reload.
+     */
+    @Query("""
+            select s from MeetingSeries s
+            where s.firstStartsAt < :to
+              and (s.untilAt is null or s.untilAt >= :earliestStart)
+            """)
+    List<MeetingSeries> findActive(@Param("earliestStart") Instant earliestStart, @Param("to") Instant to);
+
+    // Served by idx_meeting_series_room_url
+    List<MeetingSeries> findByRoomUrlIn(Collection<String> roomUrls);
+}
@@ -0,0 +1,13 @@
+package com.reimii.meetup.meetings;
+
+/**
+ * Change to one occurrence; null fields keep the rule's value.
+ */
+public record OccurrenceOverrideRequest(
+        boolean cancelled,
+        String startsAt,
+        String endsAt,
+        String title
+        ) {
+
+}
@@ -0,0 +1,19 @@
+package com.reimii.meetup.meetings;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Participant reads of {@link MeetingParticipantRepository} that also see
+ * meeting_participants_archive.
+ */
+public interface ParticipantArchiveReads {
+
+    /**
+     * Participants of the given meetings, hot or archived. Meetings with no
+     * hot participants (every hot meeting has its owner) are looked up in the
+     * archive; their participants' {@link MeetingParticipant#getMeeting()}
+     * carries only the id.
+     */
+    List<MeetingParticipant> findByMeetingIdInIncludingArchive(Collection<Long> meetingIds);
+}
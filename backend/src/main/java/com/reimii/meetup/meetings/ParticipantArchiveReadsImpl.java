@@ -0,0 +1,49 @@
+package com.reimii.meetup.meetings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+
+class ParticipantArchiveReadsImpl implements ParticipantArchiveReads {
+
+    private final EntityManager em;
+
+    ParticipantArchiveReadsImpl(EntityManager em) {
+        this.em = em;
+    }
+
+    @Override
+    public List<MeetingParticipant> findByMeetingIdInIncludingArchive(Collection<Long> meetingIds) {
+        if (meetingIds.isEmpty()) {
+            return List.of();
+        }
+        List<MeetingParticipant> out = new ArrayList<>(em.createQuery(
+                "select p from MeetingParticipant p where p.meeting.id in :ids", MeetingParticipant.class)
+                .setParameter("ids", meetingIds)
+                .getResultList());
+
+        Set<Long> missing = new HashSet<>(meetingIds);
+        out.forEach(p -> missing.remove(p.getMeeting().getId()));
+        if (missing.isEmpty()) {
+            return out;
+        }
+
+        Map<Long, Meeting> stubs = new HashMap<>();
+        em.createQuery("select a from ArchivedMeetingParticipant a where a.meetingId in :ids",
+                ArchivedMeetingParticipant.class)
+                .setParameter("ids", missing)
+                .getResultList()
+                .forEach(a -> out.add(a.toParticipant(stubs.computeIfAbsent(a.getMeetingId(), id -> {
+                    Meeting stub = new Meeting();
+                    stub.restoreArchived(id, null, null);
+                    return stub;
+                }))));
+        return out;
+    }
+}
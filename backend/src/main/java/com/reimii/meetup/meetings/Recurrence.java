@@ -0,0 +1,179 @@
+package com.reimii.meetup.meetings;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy expansion of a {@link MeetingSeries} rule.
+ *
+ * {@link #starts} jumps straight to the first period that can reach the
+ * window and yields occurrence starts one at a time, so the cost depends on
+ * the window, not on how long the series has been running.
+ */
+final class Recurrence {
+
+    /**
+     * Longest occurrence a series may have; bounds how far before a window an
+     * overlapping occurrence can start.
+     */
+    static final Duration MAX_DURATION = Duration.ofHours(24);
+
+    /**
+     * Most occurrences a series created with a count may have.
+     */
+    static final int MAX_COUNT = 1000;
+
+    private Recurrence() {
+    }
+
+    /**
+     * Original starts of the occurrences overlapping {@code [from, to)}, in
+     * order.
+     */
+    static Iterator<Instant> starts(MeetingSeries s, Instant from, Instant to) {
+        return new Starts(s, from, to);
+    }
+
+    /**
+     * Start of the {@code count}-th occurrence, used to store a count-bounded
+     * series as an until-bounded one.
+     */
+    static Instant nthStart(MeetingSeries s, int count) {
+        Iterator<Instant> it = new Starts(s, s.getFirstStartsAt(), Instant.MAX);
+        Instant last = null;
+        for (int i = 0; i < count && it.hasNext(); i++) {
+            last = it.next();
+        }
+        return last;
+    }
+
+    static int dayBit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+
+    private static final class Starts implements Iterator<Instant> {
+
+        private final MeetingSeries s;
+        private final ZoneId zone;
+        private final LocalDate firstDate;
+        private final LocalTime time;
+        private final Duration duration;
+        private final Instant from;
+        private final Instant to;
+        private final int interval;
+
+        /**
+         * Period index (day, week or month, times the interval) being walked.
+         */
+        private long period;
+
+        /**
+         * WEEKLY: next weekday to look at in the current period.
+         */
+        private int dayInWeek;
+
+        private Instant next;
+        private boolean done;
+
+        Starts(MeetingSeries s, Instant from, Instant to) {
+            this.s = s;
+            this.zone = ZoneId.of(s.getTimeZone());
+            ZonedDateTime first = s.getFirstStartsAt().atZone(zone);
+            this.firstDate = first.toLocalDate();
+            this.time = first.toLocalTime();
+            this.duration = Duration.ofSeconds(s.getDurationSeconds());
+            this.from = from;
+            this.to = to;
+            this.interval = Math.max(s.getIntervalCount(), 1);
+
+            // a day of slack either side of the window absorbs DST shifts
+            LocalDate earliest = from.minus(duration).atZone(zone).toLocalDate().minusDays(1);
+            if (earliest.isAfter(firstDate)) {
+                long elapsed = switch (s.getFrequency()) {
+                    case DAILY -> ChronoUnit.DAYS.between(firstDate, earliest);
+                    case WEEKLY -> ChronoUnit.WEEKS.between(
+                            firstDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                            earliest.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+                    case MONTHLY -> ChronoUnit.MONTHS.between(YearMonth.from(firstDate), YearMonth.from(earliest));
+                };
+                this.period = elapsed / interval;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Instant next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Instant out = next;
+            next = null;
+            return out;
+        }
+
+        private void advance() {
+            while (true) {
+                LocalDate date = nextDate();
+                if (date == null) {
+                    continue;
+                }
+
+                Instant start = ZonedDateTime.of(date, time, zone).toInstant();
+                if (!start.isBefore(to) || (s.getUntilAt() != null && start.isAfter(s.getUntilAt()))) {
+                    done = true;
+                    return;
+                }
+                if (date.isBefore(firstDate) || !start.plus(duration).isAfter(from)) {
+                    continue;
+                }
+                next = start;
+                return;
+            }
+        }
+
+        /**
+         * Next candidate date of the rule, or null when the current period
+         * yields nothing (short month, unselected weekday).
+         */
+        private LocalDate nextDate() {
+            switch (s.getFrequency()) {
+                case DAILY -> {
+                    return firstDate.plusDays(period++ * interval);
+                }
+                case MONTHLY -> {
+                    YearMonth ym = YearMonth.from(firstDate).plusMonths(period++ * interval);
+                    int dom = firstDate.getDayOfMonth();
+                    return dom <= ym.lengthOfMonth() ? ym.atDay(dom) : null;
+                }
+                default -> {
+                    int mask = s.getByDays() != 0 ? s.getByDays() : dayBit(firstDate.getDayOfWeek());
+                    LocalDate monday = firstDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                            .plusWeeks(period * interval);
+                    int day = dayInWeek;
+                    if (++dayInWeek == 7) {
+                        dayInWeek = 0;
+                        period++;
+                    }
+                    return (mask & (1 << day)) != 0 ? monday.plusDays(day) : null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.reimii.meetup.meetings;
+
+public enum RecurrenceFrequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY
+}
@@ -0,0 +1,180 @@
+package com.reimii.meetup.meetings;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Occurrences of a user's recurring series within a window.
+ *
+ * One query for the series that can reach the window and one for their
+ * overrides; occurrences are then expanded lazily per series and k-way merged
+ * by original start, so only the window's occurrences are ever built.
+ */
+@Component
+public class RecurringMeetings {
+
+    public record Occurrence(MeetingSeries series, Instant originalStartsAt, Instant startsAt, Instant endsAt,
+            String title) {
+    }
+
+    private final MeetingSeriesRepository series;
+    private final MeetingSeriesOverrideRepository overrides;
+
+    public RecurringMeetings(MeetingSeriesRepository series, MeetingSeriesOverrideRepository overrides) {
+        this.series = series;
+        this.overrides = overrides;
+    }
+
+    public Stream<Occurrence> occurrences(Long ownerUserId, Instant from, Instant to) {
+        Instant earliestStart = from.minus(Recurrence.MAX_DURATION);
+        return occurrences(series.findActive(ownerUserId, earliestStart, to), earliestStart, from, to);
+    }
+
+    /**
+     * Occurrences of every user's series within the window.
+     */
+    public Stream<Occurrence> occurrences(Instant from, Instant to) {
+        Instant earliestStart = from.minus(Recurrence.MAX_DURATION);
+        return occurrences(series.findActive(earliestStart, to), earliestStart, from, to);
+    }
+
+    private Stream<Occurrence> occurrences(List<MeetingSeries> active, Instant earliestStart, Instant from,
+            Instant to) {
+        if (active.isEmpty()) {
+            return Stream.empty();
+        }
+
+        Map<Long, Map<Instant, MeetingSeriesOverride>> bySeries = new HashMap<>();
+        var ids = active.stream().map(MeetingSeries::getId).toList();
+        for (var o : overrides.findInWindow(ids, earliestStart, from, to)) {
+            bySeries.computeIfAbsent(o.getSeriesId(), k -> new HashMap<>()).put(o.getOriginalStartsAt(), o);
+        }
+
+        return expand(active, bySeries, from, to);
+    }
+
+    /**
+     * Lazily merged occurrences of {@code active} in order of original start;
+     * overrides moved from outside the window into it are included, cancelled
+     * ones dropped. Moved occurrences keep their original start's place, so
+     * callers wanting actual start order sort.
+     */
+    static Stream<Occurrence> expand(List<MeetingSeries> active,
+            Map<Long, Map<Instant, MeetingSeriesOverride>> bySeries, Instant from, Instant to) {
+        var merge = new PriorityQueue<Cursor>(Comparator.comparing(c -> c.head));
+
+        for (MeetingSeries s : active) {
+            var own = bySeries.getOrDefault(s.getId(), Map.of());
+            var cursor = new Cursor(s, own, Recurrence.starts(s, from, to));
+            if (cursor.advance()) {
+                merge.add(cursor);
+            }
+
+            // moved in from outside the window: merged as one more cursor over their original starts
+            List<Instant> movedIn = new ArrayList<>();
+            for (var o : own.values()) {
+                boolean originalInWindow = o.getOriginalStartsAt().isBefore(to)
+                        && o.getOriginalStartsAt().plusSeconds(s.getDurationSeconds()).isAfter(from);
+                if (!originalInWindow && !o.isCancelled() && o.getStartsAt() != null) {
+                    var moved = apply(s, o.getOriginalStartsAt(), o);
+                    if (moved.startsAt().isBefore(to) && moved.endsAt().isAfter(from)) {
+                        movedIn.add(o.getOriginalStartsAt());
+                    }
+                }
+            }
+            if (!movedIn.isEmpty()) {
+                movedIn.sort(null);
+                var movedCursor = new Cursor(s, own, movedIn.iterator());
+                movedCursor.advance();
+                merge.add(movedCursor);
+            }
+        }
+
+        Iterator<Occurrence> merged = new Iterator<>() {
+            private Occurrence next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && !merge.isEmpty()) {
+                    Cursor c = merge.poll();
+                    Occurrence o = apply(c.series, c.head, c.overrides.get(c.head));
+                    if (c.advance()) {
+                        merge.add(c);
+                    }
+                    if (o != null && o.startsAt().isBefore(to) && o.endsAt().isAfter(from)) {
+                        next = o;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Occurrence next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Occurrence out = next;
+                next = null;
+                return out;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * The occurrence the rule puts at {@code originalStart} after applying its
+     * override, or null if cancelled.
+     */
+    private static Occurrence apply(MeetingSeries s, Instant originalStart, MeetingSeriesOverride o) {
+        Instant start = originalStart;
+        Instant end = originalStart.plusSeconds(s.getDurationSeconds());
+        String title = s.getTitle();
+
+        if (o != null) {
+            if (o.isCancelled()) {
+                return null;
+            }
+            if (o.getStartsAt() != null) {
+                start = o.getStartsAt();
+                end = o.getEndsAt() != null ? o.getEndsAt() : start.plusSeconds(s.getDurationSeconds());
+            }
+            if (o.getTitle() != null) {
+                title = o.getTitle();
+            }
+        }
+        return new Occurrence(s, originalStart, start, end, title);
+    }
+
+    private static final class Cursor {
+
+        final MeetingSeries series;
+        final Map<Instant, MeetingSeriesOverride> overrides;
+        final Iterator<Instant> starts;
+        Instant head;
+
+        Cursor(MeetingSeries series, Map<Instant, MeetingSeriesOverride> overrides, Iterator<Instant> starts) {
+            this.series = series;
+            this.overrides = overrides;
+            this.starts = starts;
+        }
+
+        boolean advance() {
+            head = starts.hasNext() ? starts.next() : null;
+            return head != null;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.reimii.meetup.meetings;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.reimii.meetup.users.AppUser;
+
+/**
+ * Who may JOIN a room on /ws/meet.
+ *
+ * Keeps a bounded LRU of roomId -> {@link RoomAccess}, warmed by
+ * {@link MeetingController} on create/update and evicted on delete or once the
+ * meeting has ended. A miss costs one indexed lookup on `room_url` plus the
+ * participant list; rooms with no meeting are cached negatively for a short
+ * while so random ids can't hammer the DB.
+ */
+@Component
+public class RoomAccessCache {
+
+    public record RoomAccess(long meetingId, long ownerUserId, Set<Long> userIds, Set<String> emails,
+            Instant endsAt) {
+
+        public boolean allows(AppUser user) {
+            if (user.getId() != null && (user.getId() == ownerUserId || userIds.contains(user.getId()))) {
+                return true;
+            }
+            return user.getEmail() != null && emails.contains(user.getEmail().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private final MeetingRepository meetings;
+    private final MeetingParticipantRepository participants;
+    private final MeetingSeriesRepository series;
+    private final Duration negativeTtl;
+
+    /**
+     * Negative entries store their own expiry in endsAt.
+     */
+    private final Map<String, RoomAccess> byRoom;
+
+    public RoomAccessCache(MeetingRepository meetings, MeetingParticipantRepository participants,
+            MeetingSeriesRepository series,
+            @Value("${app.meet.room-access.max-entries}") int maxEntries,
+            @Value("${app.meet.room-access.negative-ttl-seconds}") long negativeTtlSeconds) {
+        this.meetings = meetings;
+        this.participants = participants;
+        this.series = series;
+        this.negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+        this.byRoom = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RoomAccess> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public boolean canJoin(String roomId, AppUser user) {
+        if (roomId == null || roomId.isBlank() || user == null) {
+            return false;
+        }
+
+        RoomAccess access = byRoom.get(roomId);
+        if (access == null || (access.meetingId() < 0 && access.endsAt().isBefore(Instant.now()))) {
+            access = load(roomId);
+        }
+        return access.meetingId() >= 0 && access.allows(user);
+    }
+
+    public void put(Meeting m, List<MeetingParticipant> parts) {
+        String roomId = MeetingRooms.roomIdOf(m.getRoomUrl());
+        if (roomId != null) {
+            byRoom.put(roomId, toAccess(m, parts));
+        }
+    }
+
+    public void evict(String roomUrl) {
+        String roomId = MeetingRooms.roomIdOf(roomUrl);
+        if (roomId != null) {
+            byRoom.remove(roomId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.meet.room-access.sweep-interval-ms}")
+    public void evictEnded() {
+        Instant now = Instant.now();
+        synchronized (byRoom) {
+            byRoom.values().removeIf(a -> a.endsAt().isBefore(now));
+        }
+    }
+
+    private RoomAccess load(String roomId) {
+        var found = meetings.findByRoomUrlIn(MeetingRooms.roomUrlsFor(roomId));
+
+        RoomAccess access;
+        if (found.isEmpty()) {
+            // recurring series share one room across occurrences
+            var s = series.findByRoomUrlIn(MeetingRooms.roomUrlsFor(roomId));
+            access = s.isEmpty()
+                    ? new RoomAccess(-1, -1, Set.of(), Set.of(), Instant.now().plus(negativeTtl))
+                    : toAccess(s.get(0));
+        } else {
+            Meeting m = found.get(0);
+            access = toAccess(m, participants.findByMeetingId(m.getId()));
+        }
+
+        byRoom.put(roomId, access);
+        return access;
+    }
+
+    private static RoomAccess toAccess(MeetingSeries s) {
+        Set<String> emails = s.getGuestEmail() != null ? Set.of(s.getGuestEmail().toLowerCase(Locale.ROOT)) : Set.of();
+        Instant endsAt = s.getUntilAt() != null
+                ? s.getUntilAt().plusSeconds(s.getDurationSeconds())
+                : Instant.MAX;
+        return new RoomAccess(s.getId(), s.getOwnerUserId(), Set.of(), emails, endsAt);
+    }
+
+    private static RoomAccess toAccess(Meeting m, List<MeetingParticipant> parts) {
+        Set<Long> userIds = parts.stream()
+                .map(MeetingParticipant::getUserId)
+                .filter(id -> id != null)
+                .collect(Collectors.toUnmodifiableSet());
+
+        Set<String> emails = new HashSet<>();
+        if (m.getGuestEmail() != null) {
+            emails.add(m.getGuestEmail().toLowerCase(Locale.ROOT));
+        }
+        for (var p : parts) {
+            if (p.getEmail() != null) {
+                emails.add(p.getEmail().toLowerCase(Locale.ROOT));
+            }
+        }
+
+        return new RoomAccess(m.getId(), m.getOwnerUserId(), userIds, Set.copyOf(emails), m.getEndsAt());
+    }
+}
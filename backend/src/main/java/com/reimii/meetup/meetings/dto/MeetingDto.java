@@ -17,7 +17,10 @@ public record MeetingDto(
         String roomUrl,
         String notes,
         String createdAt,
-        String updatedAt
+        String updatedAt,
+        // set on occurrences of a recurring series (id is then 0)
+        Long seriesId,
+        String originalStartsAt
         ) {
 
 }
@@ -0,0 +1,59 @@
+package com.reimii.meetup.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed token buckets, lock-free.
+ *
+ * Each bucket is a single {@link AtomicLong} holding its theoretical arrival
+ * time (GCRA, equivalent to a token bucket of {@code burst} tokens refilled
+ * at {@code perSecond}). An acquire is one read and usually one CAS, with no
+ * allocation once the key's bucket exists.
+ */
+public final class RateLimiter<K> {
+
+    private final long emissionNanos;
+    private final long toleranceNanos;
+    private final ConcurrentHashMap<K, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(double perSecond, int burst) {
+        if (perSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("perSecond must be > 0 and burst >= 1");
+        }
+        this.emissionNanos = (long) (1_000_000_000L / perSecond);
+        this.toleranceNanos = emissionNanos * (burst - 1);
+    }
+
+    public boolean tryAcquire(K key) {
+        long now = System.nanoTime();
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            tat = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        for (;;) {
+            long current = tat.get();
+            long base = Math.max(current, now);
+            if (base - now > toleranceNanos) {
+                return false;
+            }
+            if (tat.compareAndSet(current, base + emissionNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have fully refilled; they behave exactly like a new
+     * bucket, so this only bounds memory.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(tat -> tat.get() <= now);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,48 @@
+package com.reimii.meetup.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission control limits: REST calls and /ws/meet frames per user, and
+ * SFU-bound signaling per room (the SFU link is shared by every room).
+ */
+@Component
+public class RateLimits {
+
+    private final RateLimiter<Long> rest;
+    private final RateLimiter<Long> ws;
+    private final RateLimiter<String> sfuRoom;
+
+    public RateLimits(
+            @Value("${app.ratelimit.rest.per-second}") double restPerSecond,
+            @Value("${app.ratelimit.rest.burst}") int restBurst,
+            @Value("${app.ratelimit.ws.per-second}") double wsPerSecond,
+            @Value("${app.ratelimit.ws.burst}") int wsBurst,
+            @Value("${app.ratelimit.sfu-room.per-second}") double sfuPerSecond,
+            @Value("${app.ratelimit.sfu-room.burst}") int sfuBurst) {
+        this.rest = new RateLimiter<>(restPerSecond, restBurst);
+        this.ws = new RateLimiter<>(wsPerSecond, wsBurst);
+        this.sfuRoom = new RateLimiter<>(sfuPerSecond, sfuBurst);
+    }
+
+    public boolean allowRest(Long userId) {
+        return rest.tryAcquire(userId);
+    }
+
+    public boolean allowWsFrame(Long userId) {
+        return ws.tryAcquire(userId);
+    }
+
+    public boolean allowSfu(String roomId) {
+        return sfuRoom.tryAcquire(roomId);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        rest.evictIdle();
+        ws.evictIdle();
+        sfuRoom.evictIdle();
+    }
+}
@@ -0,0 +1,344 @@
+package com.reimii.meetup.reminders;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.reimii.meetup.meetings.Meeting;
+import com.reimii.meetup.meetings.MeetingParticipant;
+import com.reimii.meetup.meetings.MeetingParticipantRepository;
+import com.reimii.meetup.meetings.MeetingRepository;
+import com.reimii.meetup.meetings.RecurringMeetings;
+import com.reimii.meetup.timing.HierarchicalTimingWheel;
+import com.reimii.meetup.users.AppUser;
+import com.reimii.meetup.users.UserRepository;
+import com.reimii.meetup.ws.UserSessions;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * "Meeting starts in N minutes" pushes over /ws/meet.
+ *
+ * Every reload interval, one range query on idx_meetings_starts_at loads the
+ * meetings starting within the horizon, {@link RecurringMeetings} expands the
+ * series occurrences starting there (overrides applied), and both are
+ * reconciled against the reminders already on the {@link HierarchicalTimingWheel}:
+ * new ones are scheduled, moved ones rescheduled, vanished ones (deleted,
+ * cancelled or moved away, possibly on another node) cancelled.
+ * {@link com.reimii.meetup.meetings.MeetingController} reconciles single
+ * meetings on write so local changes apply immediately; series edits apply
+ * on the next reload.
+ *
+ * The wheel's ticker collects everything due in a tick and sends each
+ * connected user a single REMINDERS frame. A delivered reminder stays marked
+ * as fired until its meeting starts, so reloads within the lead don't
+ * announce it again.
+ */
+@Component
+public class ReminderEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderEngine.class);
+
+    /**
+     * Either a meeting ({@code meetingId}) or one occurrence of a series
+     * ({@code seriesId} and its {@code originalStartsAt}).
+     */
+    record Reminder(Long meetingId, Long seriesId, Instant originalStartsAt, String title, Instant startsAt,
+            String roomUrl, Set<Long> userIds) {
+
+        String key() {
+            return meetingId != null ? key(meetingId) : "s" + seriesId + "@" + originalStartsAt.toEpochMilli();
+        }
+
+        static String key(long meetingId) {
+            return "m" + meetingId;
+        }
+    }
+
+    /**
+     * @param fired delivered already; kept until the meeting starts so the
+     *              next reload, which still finds it in range, does not
+     *              schedule it again
+     */
+    private record Entry(Reminder reminder, HierarchicalTimingWheel.Timeout<Reminder> timeout, Instant touchedAt,
+            boolean fired) {
+    }
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final MeetingRepository meetings;
+    private final MeetingParticipantRepository participants;
+    private final RecurringMeetings recurring;
+    private final UserRepository users;
+    private final UserSessions userSessions;
+    private final Duration lead;
+    private final Duration horizon;
+
+    private final HierarchicalTimingWheel<Reminder> wheel;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "reminder-wheel");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * {@link Reminder#key()} -> pending or fired reminder; guarded by this for
+     * writes.
+     */
+    private final Map<String, Entry> pending = new ConcurrentHashMap<>();
+
+    public ReminderEngine(MeetingRepository meetings, MeetingParticipantRepository participants,
+            RecurringMeetings recurring, UserRepository users, UserSessions userSessions,
+            @Value("${app.reminders.lead-minutes}") long leadMinutes,
+            @Value("${app.reminders.horizon-minutes}") long horizonMinutes,
+            @Value("${app.reminders.tick-ms}") long tickMs) {
+        this.meetings = meetings;
+        this.participants = participants;
+        this.recurring = recurring;
+        this.users = users;
+        this.userSessions = userSessions;
+        this.lead = Duration.ofMinutes(leadMinutes);
+        this.horizon = Duration.ofMinutes(horizonMinutes);
+
+        // 64 slots per level: 1 s ticks cover ~1 min, ~68 min and ~3 days
+        this.wheel = new HierarchicalTimingWheel<>(tickMs, 64, 3, System.currentTimeMillis());
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reminders.reload-interval-ms}")
+    public void reload() {
+        Instant now = Instant.now();
+        Instant until = now.plus(lead).plus(horizon);
+
+        var upcoming = meetings.findByStartsAtGreaterThanEqualAndStartsAtLessThanOrderByStartsAtAsc(now, until);
+        var recipients = recipients(upcoming);
+        // the window also yields occurrences already running; those are past their reminder
+        var occurrences = recurring.occurrences(now, until).filter(o -> !o.startsAt().isBefore(now)).toList();
+        var guests = guestUsers(occurrences);
+
+        synchronized (this) {
+            Set<String> seen = new HashSet<>();
+            for (Meeting m : upcoming) {
+                var r = toReminder(m, recipients.getOrDefault(m.getId(), Set.of()));
+                seen.add(r.key());
+                reconcile(r, now);
+            }
+            for (var o : occurrences) {
+                var r = toReminder(o, guests);
+                seen.add(r.key());
+                reconcile(r, now);
+            }
+
+            // untouched since this reload started and no longer in range: gone
+            pending.values().removeIf(e -> {
+                if (seen.contains(e.reminder().key()) || e.touchedAt().isAfter(now)) {
+                    return false;
+                }
+                e.timeout().cancel();
+                return true;
+            });
+        }
+    }
+
+    public void onSaved(Meeting m, List<MeetingParticipant> parts) {
+        Instant now = Instant.now();
+        if (m.getStartsAt().isBefore(now) || !m.getStartsAt().isBefore(now.plus(lead).plus(horizon))) {
+            onDeleted(m);
+            return;
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        userIds.add(m.getOwnerUserId());
+        List<String> emails = new ArrayList<>();
+        for (var p : parts) {
+            if (p.getUserId() != null) {
+                userIds.add(p.getUserId());
+            } else if (p.getEmail() != null) {
+                emails.add(p.getEmail());
+            }
+        }
+        if (!emails.isEmpty()) {
+            users.findByEmailIn(emails).forEach(u -> userIds.add(u.getId()));
+        }
+
+        synchronized (this) {
+            reconcile(toReminder(m, userIds), now);
+        }
+    }
+
+    public synchronized void onDeleted(Meeting m) {
+        var e = pending.remove(Reminder.key(m.getId()));
+        if (e != null) {
+            e.timeout().cancel();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private void reconcile(Reminder r, Instant now) {
+        var current = pending.get(r.key());
+        if (current != null && current.reminder().equals(r)) {
+            pending.put(r.key(), new Entry(r, current.timeout(), now, current.fired()));
+            return;
+        }
+        if (current != null && current.fired() && current.reminder().startsAt().equals(r.startsAt())) {
+            // same start, other details changed: it has been announced already
+            pending.put(r.key(), new Entry(r, current.timeout(), now, true));
+            return;
+        }
+        if (current != null) {
+            current.timeout().cancel();
+        }
+        var timeout = wheel.schedule(r, r.startsAt().minus(lead).toEpochMilli());
+        pending.put(r.key(), new Entry(r, timeout, now, false));
+    }
+
+    private void tick() {
+        List<Reminder> due = new ArrayList<>();
+        try {
+            wheel.advance(System.currentTimeMillis(), due::add);
+            if (!due.isEmpty()) {
+                deliver(due);
+            }
+        } catch (Exception e) {
+            log.warn("Reminder tick failed", e);
+        }
+    }
+
+    /**
+     * One frame per connected user with everything that came due this tick.
+     */
+    private void deliver(List<Reminder> due) {
+        Map<Long, List<Reminder>> byUser = new HashMap<>();
+        for (Reminder r : due) {
+            synchronized (this) {
+                pending.computeIfPresent(r.key(),
+                        (k, e) -> e.reminder() == r ? new Entry(r, e.timeout(), e.touchedAt(), true) : e);
+            }
+            for (Long userId : r.userIds()) {
+                if (userSessions.isConnected(userId)) {
+                    byUser.computeIfAbsent(userId, k -> new ArrayList<>()).add(r);
+                }
+            }
+        }
+
+        Instant now = Instant.now();
+        byUser.forEach((userId, reminders) -> {
+            ObjectNode msg = om.createObjectNode();
+            msg.put("type", "REMINDERS");
+            var list = msg.putArray("reminders");
+            for (Reminder r : reminders) {
+                var item = list.addObject();
+                if (r.meetingId() != null) {
+                    item.put("meetingId", r.meetingId());
+                } else {
+                    item.put("seriesId", r.seriesId());
+                    item.put("originalStartsAt", r.originalStartsAt().toString());
+                }
+                item.put("title", r.title());
+                item.put("startsAt", r.startsAt().toString());
+                item.put("startsInSeconds", Math.max(Duration.between(now, r.startsAt()).toSeconds(), 0));
+                item.put("roomUrl", r.roomUrl());
+            }
+
+            var frame = new TextMessage(msg.toString());
+            userSessions.forEach(userId, s -> {
+                try {
+                    s.sendMessage(frame);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Reminder to user {} not delivered: {}", userId, e.toString());
+                }
+            });
+        });
+    }
+
+    /**
+     * Owner, registered participants and guests whose email belongs to a
+     * user, for all meetings in two queries.
+     */
+    private Map<Long, Set<Long>> recipients(List<Meeting> upcoming) {
+        Map<Long, Set<Long>> out = new LinkedHashMap<>();
+        if (upcoming.isEmpty()) {
+            return out;
+        }
+        for (Meeting m : upcoming) {
+            out.computeIfAbsent(m.getId(), k -> new HashSet<>()).add(m.getOwnerUserId());
+        }
+
+        Map<String, List<Long>> meetingsByGuestEmail = new HashMap<>();
+        for (var p : participants.findByMeetingIdIn(out.keySet())) {
+            Long meetingId = p.getMeeting().getId();
+            if (p.getUserId() != null) {
+                out.get(meetingId).add(p.getUserId());
+            } else if (p.getEmail() != null) {
+                meetingsByGuestEmail.computeIfAbsent(p.getEmail(), k -> new ArrayList<>()).add(meetingId);
+            }
+        }
+
+        if (!meetingsByGuestEmail.isEmpty()) {
+            for (AppUser u : users.findByEmailIn(meetingsByGuestEmail.keySet())) {
+                for (Long meetingId : meetingsByGuestEmail.getOrDefault(u.getEmail(), List.of())) {
+                    out.get(meetingId).add(u.getId());
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Guest email -> user id for the series of {@code occurrences}, in one
+     * query.
+     */
+    private Map<String, Long> guestUsers(List<RecurringMeetings.Occurrence> occurrences) {
+        Set<String> emails = new HashSet<>();
+        for (var o : occurrences) {
+            if (o.series().getGuestEmail() != null) {
+                emails.add(o.series().getGuestEmail());
+            }
+        }
+        Map<String, Long> out = new HashMap<>();
+        if (!emails.isEmpty()) {
+            users.findByEmailIn(emails).forEach(u -> out.put(u.getEmail(), u.getId()));
+        }
+        return out;
+    }
+
+    private static Reminder toReminder(Meeting m, Set<Long> userIds) {
+        return new Reminder(m.getId(), null, null, m.getTitle(), m.getStartsAt(), m.getRoomUrl(),
+                Set.copyOf(userIds));
+    }
+
+    private static Reminder toReminder(RecurringMeetings.Occurrence o, Map<String, Long> guestUsers) {
+        var s = o.series();
+        Set<Long> userIds = new HashSet<>();
+        userIds.add(s.getOwnerUserId());
+        Long guest = s.getGuestEmail() != null ? guestUsers.get(s.getGuestEmail()) : null;
+        if (guest != null) {
+            userIds.add(guest);
+        }
+        return new Reminder(null, s.getId(), o.originalStartsAt(), o.title(), o.startsAt(), s.getRoomUrl(),
+                Set.copyOf(userIds));
+    }
+}
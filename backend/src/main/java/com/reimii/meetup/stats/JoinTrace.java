@@ -0,0 +1,132 @@
+package com.reimii.meetup.stats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Timeline of one sampled session from JOIN to first media: every request
+ * the client sends after JOIN is timed from its arrival at the backend to
+ * its reply being routed back, matched by the client's `reqId`. The timeline
+ * completes on the first PRODUCED or CONSUMER_RESUMED and is handed to
+ * {@link JoinTracer}. One that takes longer than the tracer's limit, or whose
+ * socket closes first, is abandoned.
+ *
+ * Only sampled sessions carry one (under {@link #ATTR}); callers look it up
+ * with {@link #of} and skip all tracing when it is null.
+ */
+public final class JoinTrace {
+
+    public static final String ATTR = "joinTrace";
+
+    /**
+     * @param atMs offset of the request from JOIN
+     */
+    public record Span(String phase, String reqId, double atMs, double durationMs, boolean ok) {
+    }
+
+    private record Pending(String phase, long receivedAt) {
+    }
+
+    private final JoinTracer tracer;
+    private final long authNanos;
+    private final long maxNanos;
+
+    private final Map<String, Pending> pending = new HashMap<>();
+    private final List<Span> spans = new ArrayList<>();
+
+    private String roomId;
+    private long joinedAt;
+    private long startedAtMillis;
+    private boolean finished;
+
+    JoinTrace(JoinTracer tracer, long authNanos, long maxNanos) {
+        this.tracer = tracer;
+        this.authNanos = authNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public static JoinTrace of(WebSocketSession session) {
+        return (JoinTrace) session.getAttributes().get(ATTR);
+    }
+
+    /**
+     * A client request arrived. JOIN starts the timeline; requests before it
+     * or of a type the tracer does not time are ignored.
+     */
+    public synchronized void onRequest(String type, String roomId, String reqId) {
+        long now = System.nanoTime();
+        if (finished || reqId == null) {
+            return;
+        }
+        if (joinedAt == 0) {
+            if (!"JOIN".equals(type)) {
+                return;
+            }
+            this.roomId = roomId;
+            joinedAt = now;
+            startedAtMillis = System.currentTimeMillis();
+        } else if (expired(now)) {
+            return;
+        }
+        String phase = JoinTracer.phase(type);
+        if (phase != null && roomId.equals(this.roomId)) {
+            pending.put(reqId, new Pending(phase, now));
+        }
+    }
+
+    /**
+     * The reply to {@code reqId} went out to the client.
+     */
+    public synchronized void onReply(String reqId, String replyType) {
+        long now = System.nanoTime();
+        if (finished || joinedAt == 0 || reqId == null || expired(now)) {
+            return;
+        }
+        Pending p = pending.remove(reqId);
+        if (p == null) {
+            return;
+        }
+        boolean ok = !"ERROR".equals(replyType);
+        spans.add(new Span(p.phase(), reqId, millis(p.receivedAt() - joinedAt), millis(now - p.receivedAt()), ok));
+
+        if (ok && ("PRODUCED".equals(replyType) || "CONSUMER_RESUMED".equals(replyType))) {
+            finished = true;
+            pending.clear();
+            tracer.complete(new JoinTracer.Timeline(startedAtMillis, millis(now - joinedAt),
+                    millis(authNanos), replyType, List.copyOf(spans)));
+        }
+    }
+
+    /**
+     * The socket closed. A join that started but never reached media counts
+     * as abandoned; without this it would only be noticed on a later frame
+     * that never comes.
+     */
+    public synchronized void onClose() {
+        if (!finished && joinedAt != 0) {
+            abandon();
+        }
+    }
+
+    private boolean expired(long now) {
+        if (now - joinedAt <= maxNanos) {
+            return false;
+        }
+        abandon();
+        return true;
+    }
+
+    private void abandon() {
+        finished = true;
+        pending.clear();
+        tracer.abandon();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,30 @@
+package com.reimii.meetup.stats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Join-to-first-media latency on this node: per-phase distributions and the
+ * slowest sampled joins, for the current and the previous window.
+ */
+@RestController
+public class JoinTraceController {
+
+    private final JoinTracer tracer;
+
+    public JoinTraceController(JoinTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @GetMapping("/sfu/traces/joins")
+    public Map<String, Object> joins() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sampleRate", tracer.sampleRate());
+        body.put("current", tracer.current());
+        body.put("previous", tracer.previous());
+        return body;
+    }
+}
@@ -0,0 +1,168 @@
+package com.reimii.meetup.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Samples sessions at the /ws/meet handshake and aggregates their completed
+ * {@link JoinTrace}s: a latency histogram per phase (auth, join, rtpCaps,
+ * createTransport, connectTransport, produce, consume, resumeConsumer, total)
+ * and the slowest timelines in full.
+ *
+ * Aggregates cover a window of {@code app.sfu.trace.window-ms}; the current
+ * window and the one before it are kept. Sessions that are not sampled carry
+ * no trace, so the signaling path pays one attribute lookup per frame.
+ */
+@Component
+public class JoinTracer {
+
+    /**
+     * A completed join, JOIN to first media. Span offsets are from JOIN.
+     * Carries no user or room ids: any signed-in user can read these.
+     */
+    public record Timeline(long startedAt, double totalMs, double authMs,
+            String firstMedia, List<JoinTrace.Span> spans) {
+    }
+
+    public record PhaseStats(long count, double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    public record WindowStats(long since, long completed, long abandoned, Map<String, PhaseStats> phases,
+            List<Timeline> slowest) {
+    }
+
+    private static final Map<String, String> PHASES = Map.of(
+            "JOIN", "join",
+            "RTPCAPS_REQUEST", "rtpCaps",
+            "CREATE_TRANSPORT", "createTransport",
+            "CONNECT_TRANSPORT", "connectTransport",
+            "PRODUCE", "produce",
+            "CONSUME", "consume",
+            "RESUME_CONSUMER", "resumeConsumer");
+
+    private static final List<String> PHASE_ORDER = List.of("auth", "join", "rtpCaps", "createTransport",
+            "connectTransport", "produce", "consume", "resumeConsumer", "total");
+
+    private final class Window {
+        final long since = System.currentTimeMillis();
+        final Map<String, LatencyHistogram> phases = new ConcurrentHashMap<>();
+        final PriorityQueue<Timeline> slowest = new PriorityQueue<>(Comparator.comparingDouble(Timeline::totalMs));
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong abandoned = new AtomicLong();
+
+        void record(Timeline t) {
+            completed.incrementAndGet();
+            histogram("auth").recordNanos(nanos(t.authMs()));
+            histogram("total").recordNanos(nanos(t.totalMs()));
+            for (JoinTrace.Span s : t.spans()) {
+                if (s.ok()) {
+                    histogram(s.phase()).recordNanos(nanos(s.durationMs()));
+                }
+            }
+            synchronized (slowest) {
+                if (slowest.size() < keepSlowest) {
+                    slowest.add(t);
+                } else if (keepSlowest > 0 && slowest.peek().totalMs() < t.totalMs()) {
+                    slowest.poll();
+                    slowest.add(t);
+                }
+            }
+        }
+
+        LatencyHistogram histogram(String phase) {
+            return phases.computeIfAbsent(phase, k -> new LatencyHistogram());
+        }
+
+        WindowStats stats() {
+            Map<String, PhaseStats> byPhase = new LinkedHashMap<>();
+            for (String phase : PHASE_ORDER) {
+                LatencyHistogram h = phases.get(phase);
+                if (h != null) {
+                    byPhase.put(phase, new PhaseStats(h.count(), h.percentileMs(0.50), h.percentileMs(0.95),
+                            h.percentileMs(0.99), h.percentileMs(1.0)));
+                }
+            }
+            List<Timeline> worst;
+            synchronized (slowest) {
+                worst = new ArrayList<>(slowest);
+            }
+            worst.sort(Comparator.comparingDouble(Timeline::totalMs).reversed());
+            return new WindowStats(since, completed.get(), abandoned.get(), byPhase, worst);
+        }
+    }
+
+    private final double sampleRate;
+    private final int keepSlowest;
+    private final long maxJoinNanos;
+
+    private volatile Window current = new Window();
+    private volatile Window previous;
+
+    public JoinTracer(
+            @Value("${app.sfu.trace.sample-rate}") double sampleRate,
+            @Value("${app.sfu.trace.slowest}") int keepSlowest,
+            @Value("${app.sfu.trace.max-join-ms}") long maxJoinMs) {
+        this.sampleRate = sampleRate;
+        this.keepSlowest = keepSlowest;
+        this.maxJoinNanos = maxJoinMs * 1_000_000L;
+    }
+
+    /**
+     * Called once per authenticated handshake.
+     *
+     * @return a trace to store under {@link JoinTrace#ATTR}, or null when the
+     *         session is not sampled
+     */
+    public JoinTrace begin(long authNanos) {
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        return new JoinTrace(this, authNanos, maxJoinNanos);
+    }
+
+    public double sampleRate() {
+        return sampleRate;
+    }
+
+    public WindowStats current() {
+        return current.stats();
+    }
+
+    public WindowStats previous() {
+        Window w = previous;
+        return w != null ? w.stats() : null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.sfu.trace.window-ms}")
+    public void rotate() {
+        previous = current;
+        current = new Window();
+    }
+
+    void complete(Timeline timeline) {
+        current.record(timeline);
+    }
+
+    void abandon() {
+        current.abandoned.incrementAndGet();
+    }
+
+    static String phase(String requestType) {
+        return PHASES.get(requestType);
+    }
+
+    private static long nanos(double ms) {
+        return (long) (ms * 1_000_000);
+    }
+}
@@ -0,0 +1,73 @@
+package com.reimii.meetup.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram in microseconds with ~3% relative error:
+ * values below 64 us get one bucket each, above that every power of two is
+ * split into 32 buckets. Recording is a single atomic increment.
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR = 64;
+    private static final int SUB = 32;
+    private static final int MAX_EXP = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(LINEAR + (MAX_EXP - 5) * SUB);
+
+    public void recordNanos(long nanos) {
+        long us = Math.max(nanos / 1_000, 0);
+        counts.incrementAndGet(index(us));
+    }
+
+    public long count() {
+        long n = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            n += counts.get(i);
+        }
+        return n;
+    }
+
+    /**
+     * Upper bound of the bucket holding the {@code q} quantile, in ms.
+     */
+    public double percentileMs(double q) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBoundUs(i) / 1_000.0;
+            }
+        }
+        return upperBoundUs(counts.length() - 1) / 1_000.0;
+    }
+
+    public String summary() {
+        return String.format("n=%d p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                count(), percentileMs(0.50), percentileMs(0.95), percentileMs(0.99), percentileMs(1.0));
+    }
+
+    static int index(long us) {
+        if (us < LINEAR) {
+            return (int) us;
+        }
+        int exp = Math.min(63 - Long.numberOfLeadingZeros(us), MAX_EXP);
+        int mantissa = (int) Math.min(us >>> (exp - 5), 2 * SUB - 1);
+        return LINEAR + (exp - 6) * SUB + (mantissa - SUB);
+    }
+
+    private static long upperBoundUs(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int k = index - LINEAR;
+        int exp = k / SUB + 6;
+        long mantissa = k % SUB + SUB;
+        return ((mantissa + 1) << (exp - 5)) - 1;
+    }
+}
@@ -0,0 +1,127 @@
+package com.reimii.meetup.stats;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Fixed-size time series of one room's SFU stats.
+ *
+ * One slot per sample, stored column-wise in primitive arrays so nothing is
+ * boxed and the footprint is {@link #BYTES_PER_SAMPLE} times the capacity,
+ * whatever the room does. The oldest sample is overwritten once full.
+ */
+final class RoomStatsRing {
+
+    /**
+     * timestamp + two bitrates (long) + two loss fractions (float) + three
+     * counts (int) + one rollup scratch slot (double).
+     */
+    static final int BYTES_PER_SAMPLE = 3 * Long.BYTES + 2 * Float.BYTES + 3 * Integer.BYTES + Double.BYTES;
+
+    record Percentiles(double p50, double p95) {
+    }
+
+    record Rollup(int samples, Percentiles recvBitrate, Percentiles sendBitrate, Percentiles uplinkLoss,
+            Percentiles downlinkLoss) {
+    }
+
+    record Counts(long atMs, int producers, int consumers, int transports) {
+    }
+
+    private final long[] atMs;
+    private final long[] recvBps;
+    private final long[] sendBps;
+    private final float[] uplinkLoss;
+    private final float[] downlinkLoss;
+    private final int[] producers;
+    private final int[] consumers;
+    private final int[] transports;
+
+    /**
+     * Reused by rollups (guarded by this).
+     */
+    private final double[] scratch;
+
+    private int next;
+    private int size;
+
+    RoomStatsRing(int capacity) {
+        atMs = new long[capacity];
+        recvBps = new long[capacity];
+        sendBps = new long[capacity];
+        uplinkLoss = new float[capacity];
+        downlinkLoss = new float[capacity];
+        producers = new int[capacity];
+        consumers = new int[capacity];
+        transports = new int[capacity];
+        scratch = new double[capacity];
+    }
+
+    synchronized void add(long at, long recv, long send, float upLoss, float downLoss, int producerCount,
+            int consumerCount, int transportCount) {
+        int i = next;
+        atMs[i] = at;
+        recvBps[i] = recv;
+        sendBps[i] = send;
+        uplinkLoss[i] = upLoss;
+        downlinkLoss[i] = downLoss;
+        producers[i] = producerCount;
+        consumers[i] = consumerCount;
+        transports[i] = transportCount;
+
+        next = (i + 1) % atMs.length;
+        if (size < atMs.length) {
+            size++;
+        }
+    }
+
+    synchronized Counts latest() {
+        if (size == 0) {
+            return null;
+        }
+        int i = (next - 1 + atMs.length) % atMs.length;
+        return new Counts(atMs[i], producers[i], consumers[i], transports[i]);
+    }
+
+    /**
+     * Percentiles over the samples taken at or after {@code sinceMs}.
+     */
+    synchronized Rollup rollup(long sinceMs) {
+        int n = 0;
+        // newest to oldest; samples are appended in time order
+        for (int k = 0; k < size; k++) {
+            if (atMs[slot(k)] < sinceMs) {
+                break;
+            }
+            n++;
+        }
+
+        return new Rollup(n,
+                percentiles(n, k -> recvBps[slot(k)]),
+                percentiles(n, k -> sendBps[slot(k)]),
+                percentiles(n, k -> uplinkLoss[slot(k)]),
+                percentiles(n, k -> downlinkLoss[slot(k)]));
+    }
+
+    private int slot(int ageIndex) {
+        return (next - 1 - ageIndex + 2 * atMs.length) % atMs.length;
+    }
+
+    private Percentiles percentiles(int n, IntToDoubleFunction column) {
+        if (n == 0) {
+            return new Percentiles(0, 0);
+        }
+        for (int k = 0; k < n; k++) {
+            scratch[k] = column.applyAsDouble(k);
+        }
+        Arrays.sort(scratch, 0, n);
+        return new Percentiles(scratch[rank(n, 0.50)], scratch[rank(n, 0.95)]);
+    }
+
+    /**
+     * Nearest-rank index of percentile {@code p} among {@code n} sorted values.
+     */
+    private static int rank(int n, double p) {
+        return Math.max((int) Math.ceil(p * n) - 1, 0);
+    }
+}
@@ -0,0 +1,96 @@
+package com.reimii.meetup.stats;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.reimii.meetup.ws.RoomRegistry;
+import com.reimii.meetup.ws.SfuBridge;
+
+/**
+ * Samples SFU stats for every room with sessions on this node.
+ *
+ * Each interval sends one GET_ROOM_STATS per room (the SFU aggregates its
+ * producers, consumers and transports) and appends the reply to the room's
+ * {@link RoomStatsRing}. Rings hold the longest rollup window and are dropped
+ * when the room leaves this node, so memory is
+ * rooms x capacity x {@link RoomStatsRing#BYTES_PER_SAMPLE}.
+ */
+@Component
+public class SfuStatsCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(SfuStatsCollector.class);
+
+    static final Duration LONGEST_WINDOW = Duration.ofMinutes(15);
+
+    private final SfuBridge sfu;
+    private final RoomRegistry rooms;
+    private final long intervalMs;
+    private final int capacity;
+    private final Duration requestTimeout;
+
+    private final Map<String, RoomStatsRing> rings = new ConcurrentHashMap<>();
+
+    public SfuStatsCollector(SfuBridge sfu, RoomRegistry rooms,
+            @Value("${app.sfu.stats.interval-ms}") long intervalMs,
+            @Value("${app.sfu.request-timeout-ms}") long requestTimeoutMs) {
+        this.sfu = sfu;
+        this.rooms = rooms;
+        this.intervalMs = intervalMs;
+        this.capacity = (int) ((LONGEST_WINDOW.toMillis() + intervalMs - 1) / intervalMs);
+        this.requestTimeout = Duration.ofMillis(Math.min(requestTimeoutMs, intervalMs));
+    }
+
+    @Scheduled(fixedDelayString = "${app.sfu.stats.interval-ms}")
+    public void collect() {
+        Set<String> local = rooms.localRoomIds();
+        rings.keySet().retainAll(local);
+
+        for (String roomId : local) {
+            sfu.request(roomId, "GET_ROOM_STATS", Map.of(), requestTimeout)
+                    .whenComplete((reply, ex) -> {
+                        if (ex != null) {
+                            log.debug("Stats for room {} failed: {}", roomId, ex.toString());
+                            return;
+                        }
+                        record(roomId, reply);
+                    });
+        }
+    }
+
+    RoomStatsRing ring(String roomId) {
+        return rings.get(roomId);
+    }
+
+    long intervalMs() {
+        return intervalMs;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    private void record(String roomId, JsonNode stats) {
+        // the room may have emptied while the request was in flight
+        if (rooms.isEmpty(roomId)) {
+            return;
+        }
+        rings.computeIfAbsent(roomId, k -> new RoomStatsRing(capacity))
+                .add(System.currentTimeMillis(),
+                        stats.path("recvBitrate").asLong(),
+                        stats.path("sendBitrate").asLong(),
+                        (float) stats.path("uplinkLoss").asDouble(),
+                        (float) stats.path("downlinkLoss").asDouble(),
+                        stats.path("producers").asInt(),
+                        stats.path("consumers").asInt(),
+                        stats.path("transports").asInt());
+    }
+}
@@ -0,0 +1,68 @@
+package com.reimii.meetup.stats;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.reimii.meetup.meetings.RoomAccessCache;
+import com.reimii.meetup.users.AppUser;
+
+/**
+ * Per-room SFU stats rolled up over 1, 5 and 15 minutes. Visible to anyone
+ * allowed to join the room; 404 when this node has no samples for it.
+ */
+@RestController
+public class SfuStatsController {
+
+    private record Window(String name, Duration length) {
+    }
+
+    private static final List<Window> WINDOWS = List.of(
+            new Window("1m", Duration.ofMinutes(1)),
+            new Window("5m", Duration.ofMinutes(5)),
+            new Window("15m", SfuStatsCollector.LONGEST_WINDOW));
+
+    private final SfuStatsCollector collector;
+    private final RoomAccessCache roomAccess;
+
+    public SfuStatsController(SfuStatsCollector collector, RoomAccessCache roomAccess) {
+        this.collector = collector;
+        this.roomAccess = roomAccess;
+    }
+
+    @GetMapping("/sfu/stats/{roomId}")
+    public ResponseEntity<Map<String, Object>> room(Authentication auth, @PathVariable("roomId") String roomId) {
+        AppUser user = (AppUser) auth.getPrincipal();
+
+        if (!roomAccess.canJoin(roomId, user)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        RoomStatsRing ring = collector.ring(roomId);
+        RoomStatsRing.Counts latest = ring != null ? ring.latest() : null;
+        if (latest == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, Object> windows = new LinkedHashMap<>();
+        for (Window w : WINDOWS) {
+            windows.put(w.name(), ring.rollup(now - w.length().toMillis()));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("roomId", roomId);
+        body.put("intervalMs", collector.intervalMs());
+        body.put("capacity", collector.capacity());
+        body.put("latest", latest);
+        body.put("windows", windows);
+        return ResponseEntity.ok(body);
+    }
+}
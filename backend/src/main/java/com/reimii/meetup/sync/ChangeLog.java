@@ -0,0 +1,137 @@
+package com.reimii.meetup.sync;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reimii.meetup.meetings.Meeting;
+import com.reimii.meetup.meetings.MeetingParticipant;
+
+/**
+ * Append-only feed of meeting changes per affected user (owner plus
+ * registered participants), written in the caller's transaction so a change
+ * is in the feed iff the write committed. Deletes leave a DELETE tombstone.
+ *
+ * Seqs come from the head row locked until commit, so a reader that has
+ * seen seq N has seen every change up to N: no later commit can slip in
+ * below it. Entries older than the retention window are pruned and the head
+ * remembers how far, so {@code /sync} can tell a client it fell behind.
+ */
+@Component
+public class ChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeLog.class);
+
+    private final ChangeLogHeadRepository heads;
+    private final MeetingChangeRepository changes;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate seedTx;
+    private final Duration retention;
+    private final int pruneBatch;
+
+    public ChangeLog(ChangeLogHeadRepository heads, MeetingChangeRepository changes,
+            PlatformTransactionManager txManager,
+            @Value("${app.sync.retention-days}") long retentionDays,
+            @Value("${app.sync.prune-batch-size}") int pruneBatch) {
+        this.heads = heads;
+        this.changes = changes;
+        this.tx = new TransactionTemplate(txManager);
+        this.seedTx = new TransactionTemplate(txManager);
+        this.seedTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retention = Duration.ofDays(retentionDays);
+        this.pruneBatch = pruneBatch;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpsert(Meeting m, List<MeetingParticipant> parts) {
+        append(m.getId(), affected(m, parts), ChangeOp.UPSERT);
+    }
+
+    /**
+     * @param parts the participants as they were before the delete
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDelete(Meeting m, List<MeetingParticipant> parts) {
+        append(m.getId(), affected(m, parts), ChangeOp.DELETE);
+    }
+
+    private static Set<Long> affected(Meeting m, List<MeetingParticipant> parts) {
+        Set<Long> users = new LinkedHashSet<>();
+        users.add(m.getOwnerUserId());
+        parts.stream().map(MeetingParticipant::getUserId).filter(Objects::nonNull).forEach(users::add);
+        return users;
+    }
+
+    private void append(Long meetingId, Collection<Long> userIds, ChangeOp op) {
+        ChangeLogHead head = lockHead();
+        long seq = head.getLastSeq();
+        Instant now = Instant.now();
+
+        List<MeetingChange> rows = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            rows.add(new MeetingChange(++seq, userId, meetingId, op, now));
+        }
+        head.setLastSeq(seq);
+        changes.saveAll(rows);
+    }
+
+    private ChangeLogHead lockHead() {
+        return heads.lock().orElseGet(() -> {
+            try {
+                seedTx.executeWithoutResult(s -> heads.saveAndFlush(new ChangeLogHead(ChangeLogHead.ID)));
+            } catch (DataIntegrityViolationException e) {
+                // another writer or node seeded it first
+            }
+            return heads.lock().orElseThrow();
+        });
+    }
+
+    /**
+     * Drops entries older than the retention window, a batch per transaction
+     * so writers only wait on the head lock for one batch.
+     */
+    @Scheduled(fixedDelayString = "${app.sync.prune-interval-ms}")
+    public void prune() {
+        Long upTo = changes.maxSeqBefore(Instant.now().minus(retention));
+        if (upTo == null) {
+            return;
+        }
+        int removed = 0;
+        while (true) {
+            Integer n = tx.execute(s -> {
+                ChangeLogHead head = heads.lock().orElse(null);
+                if (head == null || head.getPrunedThrough() >= upTo) {
+                    return -1;
+                }
+                long from = head.getPrunedThrough();
+                long to = Math.min(from + pruneBatch, upTo);
+                head.setPrunedThrough(to);
+                return changes.deleteRange(from, to);
+            });
+            if (n == null || n < 0) {
+                break;
+            }
+            removed += n;
+        }
+        if (removed > 0) {
+            log.info("Pruned {} meeting changes through seq {}", removed, upTo);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.reimii.meetup.sync;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Single row holding the last assigned change seq and how far the log has
+ * been pruned. Writers lock it until commit, which is what makes seq order
+ * match commit order.
+ */
+@Entity
+@Table(name = "meeting_change_head")
+public class ChangeLogHead {
+
+    static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long lastSeq;
+
+    @Column(nullable = false)
+    private long prunedThrough;
+
+    protected ChangeLogHead() {
+    }
+
+    ChangeLogHead(int id) {
+        this.id = id;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+
+    public long getPrunedThrough() {
+        return prunedThrough;
+    }
+
+    public void setPrunedThrough(long prunedThrough) {
+        this.prunedThrough = prunedThrough;
+    }
+}
@@ -0,0 +1,17 @@
+package com.reimii.meetup.sync;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import jakarta.persistence.LockModeType;
+
+public interface ChangeLogHeadRepository extends JpaRepository<ChangeLogHead, Integer> {
+
+    // SELECT ... FOR UPDATE: held until the writing transaction commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from ChangeLogHead h where h.id = " + ChangeLogHead.ID)
+    Optional<ChangeLogHead> lock();
+}
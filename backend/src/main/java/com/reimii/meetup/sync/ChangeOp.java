@@ -0,0 +1,6 @@
+package com.reimii.meetup.sync;
+
+public enum ChangeOp {
+    UPSERT,
+    DELETE
+}
@@ -0,0 +1,71 @@
+package com.reimii.meetup.sync;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * One entry of a user's change feed: meeting {@code meetingId} was created or
+ * changed (UPSERT) or deleted (DELETE). {@code seq} is assigned by
+ * {@link ChangeLog} in commit order and shared by all users.
+ */
+@Entity
+@Table(name = "meeting_changes", indexes = {
+    @Index(name = "idx_meeting_changes_user_seq", columnList = "user_id, seq"),
+    @Index(name = "idx_meeting_changes_changed_at", columnList = "changed_at")
+})
+public class MeetingChange {
+
+    @Id
+    private Long seq;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long meetingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private ChangeOp op;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    protected MeetingChange() {
+    }
+
+    public MeetingChange(Long seq, Long userId, Long meetingId, ChangeOp op, Instant changedAt) {
+        this.seq = seq;
+        this.userId = userId;
+        this.meetingId = meetingId;
+        this.op = op;
+        this.changedAt = changedAt;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getMeetingId() {
+        return meetingId;
+    }
+
+    public ChangeOp getOp() {
+        return op;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
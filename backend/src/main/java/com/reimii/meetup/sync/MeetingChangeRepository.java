@@ -0,0 +1,24 @@
+package com.reimii.meetup.sync;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface MeetingChangeRepository extends JpaRepository<MeetingChange, Long> {
+
+    // Served by idx_meeting_changes_user_seq
+    List<MeetingChange> findByUserIdAndSeqGreaterThanOrderBySeqAsc(Long userId, Long since, Pageable page);
+
+    // Served by idx_meeting_changes_changed_at
+    @Query("select max(c.seq) from MeetingChange c where c.changedAt < :cutoff")
+    Long maxSeqBefore(@Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query("delete from MeetingChange c where c.seq > :after and c.seq <= :through")
+    int deleteRange(@Param("after") long after, @Param("through") long through);
+}
@@ -0,0 +1,13 @@
+package com.reimii.meetup.sync;
+
+import java.util.List;
+
+import com.reimii.meetup.meetings.dto.MeetingDto;
+
+/**
+ * Changes after the client's seq, collapsed per meeting: the current state of
+ * every meeting created or changed, and the ids of the deleted ones. Pass
+ * {@code seq} as {@code since} next time; {@code more} means ask again now.
+ */
+public record SyncBatch(long seq, boolean more, List<MeetingDto> upserts, List<Long> deletes) {
+}
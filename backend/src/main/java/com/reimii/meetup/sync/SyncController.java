@@ -0,0 +1,107 @@
+package com.reimii.meetup.sync;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.reimii.meetup.meetings.Meeting;
+import com.reimii.meetup.meetings.MeetingMapper;
+import com.reimii.meetup.meetings.MeetingParticipant;
+import com.reimii.meetup.meetings.MeetingParticipantRepository;
+import com.reimii.meetup.meetings.MeetingRepository;
+import com.reimii.meetup.meetings.dto.MeetingDto;
+import com.reimii.meetup.users.AppUser;
+
+@RestController
+public class SyncController {
+
+    private final ChangeLogHeadRepository heads;
+    private final MeetingChangeRepository changes;
+    private final MeetingRepository meetings;
+    private final MeetingParticipantRepository participants;
+    private final MeetingMapper mapper;
+    private final int batchSize;
+
+    public SyncController(ChangeLogHeadRepository heads, MeetingChangeRepository changes, MeetingRepository meetings,
+            MeetingParticipantRepository participants, MeetingMapper mapper,
+            @Value("${app.sync.batch-size}") int batchSize) {
+        this.heads = heads;
+        this.changes = changes;
+        this.meetings = meetings;
+        this.participants = participants;
+        this.mapper = mapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Meetings of the caller created, changed or deleted after {@code since}
+     * (0 on first sync). 410 with the current seq when entries after
+     * {@code since} were already pruned: reload everything, then sync from
+     * that seq.
+     *
+     * Read-only so it may go to the replica; the head and the entries come
+     * from the same snapshot, so the returned seq never skips a change.
+     */
+    @GetMapping("/sync")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> sync(Authentication auth, @RequestParam(name = "since", defaultValue = "0") long since) {
+        AppUser user = (AppUser) auth.getPrincipal();
+        if (since < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ChangeLogHead head = heads.findById(ChangeLogHead.ID).orElse(null);
+        long headSeq = head != null ? head.getLastSeq() : 0;
+        if (head != null && since < head.getPrunedThrough()) {
+            return ResponseEntity.status(410).body(Map.of("seq", headSeq));
+        }
+
+        List<MeetingChange> page = changes.findByUserIdAndSeqGreaterThanOrderBySeqAsc(
+                user.getId(), since, PageRequest.of(0, batchSize + 1));
+        boolean more = page.size() > batchSize;
+        if (more) {
+            page = page.subList(0, batchSize);
+        }
+        long seq = more ? page.get(page.size() - 1).getSeq() : Math.max(headSeq, since);
+
+        // last change per meeting wins
+        Map<Long, ChangeOp> latest = new LinkedHashMap<>();
+        page.forEach(c -> latest.put(c.getMeetingId(), c.getOp()));
+
+        List<Long> upsertIds = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        latest.forEach((id, op) -> (op == ChangeOp.UPSERT ? upsertIds : deletes).add(id));
+
+        Map<Long, List<MeetingParticipant>> partsByMeeting = new HashMap<>();
+        if (!upsertIds.isEmpty()) {
+            participants.findByMeetingIdInIncludingArchive(upsertIds).forEach(p -> partsByMeeting
+                    .computeIfAbsent(p.getMeeting().getId(), k -> new ArrayList<>()).add(p));
+        }
+        Map<Long, Meeting> byId = new HashMap<>();
+        meetings.findAllByIdIncludingArchive(upsertIds).forEach(m -> byId.put(m.getId(), m));
+
+        List<MeetingDto> upserts = new ArrayList<>();
+        for (Long id : upsertIds) {
+            Meeting m = byId.get(id);
+            if (m == null) {
+                // deleted by a change past this batch
+                deletes.add(id);
+            } else {
+                upserts.add(mapper.toDto(m, partsByMeeting.getOrDefault(id, List.of())));
+            }
+        }
+
+        return ResponseEntity.ok(new SyncBatch(seq, more, upserts, deletes));
+    }
+}
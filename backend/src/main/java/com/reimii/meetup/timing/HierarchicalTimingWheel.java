@@ -0,0 +1,191 @@
+package com.reimii.meetup.timing;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for timers spread over hours or days.
+ *
+ * Level 0 has {@code wheelSize} slots of {@code tickMs}; each level above has
+ * the same number of slots, each as wide as the whole level below. A timer
+ * sits in the lowest level whose span covers its deadline and cascades down a
+ * level each time the level above reaches its slot, so every timer is touched
+ * at most once per level instead of once per revolution as in
+ * {@link TimingWheel}. Deadlines past the top level wait in an overflow list
+ * that is re-examined whenever the top level moves.
+ *
+ * Same threading model as {@link TimingWheel}: schedule and cancel from any
+ * thread, {@link #advance} from a single ticker thread.
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    public static final class Timeout<T> {
+
+        private final T payload;
+        private final long deadlineMs;
+        private volatile boolean cancelled;
+
+        private Timeout(T payload, long deadlineMs) {
+            this.payload = payload;
+            this.deadlineMs = deadlineMs;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public long deadlineMs() {
+            return deadlineMs;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickMs;
+    private final int size;
+    private final int mask;
+    private final long[] levelTickMs;
+    private final ArrayDeque<Timeout<T>>[][] levels;
+    private final ArrayDeque<Timeout<T>> overflow = new ArrayDeque<>();
+    private final Queue<Timeout<T>> incoming = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Start of the current level-0 slot; only touched by the ticker thread.
+     */
+    private long currentMs;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levelCount, long startMs) {
+        if (tickMs <= 0 || wheelSize <= 1 || levelCount <= 0) {
+            throw new IllegalArgumentException("tickMs, wheelSize and levelCount must be positive");
+        }
+        int n = Integer.highestOneBit(wheelSize - 1) << 1;
+
+        this.tickMs = tickMs;
+        this.size = n;
+        this.mask = n - 1;
+        this.levelTickMs = new long[levelCount];
+        this.levels = levels(levelCount, n);
+
+        long width = tickMs;
+        for (int l = 0; l < levelCount; l++) {
+            levelTickMs[l] = width;
+            width = Math.multiplyExact(width, n);
+        }
+        this.currentMs = startMs - Math.floorMod(startMs, tickMs);
+    }
+
+    private static <T> ArrayDeque<Timeout<T>>[][] levels(int levelCount, int size) {
+        @SuppressWarnings("unchecked")
+        ArrayDeque<Timeout<T>>[][] levels = (ArrayDeque<Timeout<T>>[][]) new ArrayDeque<?>[levelCount][size];
+        for (var slots : levels) {
+            for (int i = 0; i < size; i++) {
+                slots[i] = new ArrayDeque<>();
+            }
+        }
+        return levels;
+    }
+
+    public long tickMs() {
+        return tickMs;
+    }
+
+    /**
+     * Furthest deadline the levels cover without the overflow list.
+     */
+    public long spanMs() {
+        return levelTickMs[levelTickMs.length - 1] * size;
+    }
+
+    /**
+     * Safe to call from any thread.
+     */
+    public Timeout<T> schedule(T payload, long deadlineMs) {
+        var timeout = new Timeout<>(payload, deadlineMs);
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Fires every timeout whose deadline is at or before {@code nowMs}. Must
+     * only be called from the ticker thread.
+     */
+    public void advance(long nowMs, Consumer<? super T> onExpire) {
+        while (true) {
+            drainIncoming(onExpire);
+
+            var bucket = levels[0][slot(0, currentMs)];
+            for (int n = bucket.size(); n > 0; n--) {
+                var t = bucket.poll();
+                if (!t.cancelled) {
+                    onExpire.accept(t.payload);
+                }
+            }
+
+            if (currentMs + tickMs > nowMs) {
+                return;
+            }
+            currentMs += tickMs;
+            cascade(onExpire);
+        }
+    }
+
+    /**
+     * Moves the timers of every higher-level slot that starts at
+     * {@code currentMs} down to the levels below, top level first.
+     */
+    private void cascade(Consumer<? super T> onExpire) {
+        int top = levels.length - 1;
+        if (currentMs % levelTickMs[top] == 0 && !overflow.isEmpty()) {
+            for (int n = overflow.size(); n > 0; n--) {
+                place(overflow.poll(), onExpire);
+            }
+        }
+        for (int l = top; l >= 1; l--) {
+            if (currentMs % levelTickMs[l] != 0) {
+                continue;
+            }
+            var bucket = levels[l][slot(l, currentMs)];
+            for (int n = bucket.size(); n > 0; n--) {
+                place(bucket.poll(), onExpire);
+            }
+        }
+    }
+
+    private void drainIncoming(Consumer<? super T> onExpire) {
+        Timeout<T> t;
+        while ((t = incoming.poll()) != null) {
+            place(t, onExpire);
+        }
+    }
+
+    private void place(Timeout<T> t, Consumer<? super T> onExpire) {
+        if (t.cancelled) {
+            return;
+        }
+        if (t.deadlineMs < currentMs + tickMs) {
+            // due in the current slot (or already late)
+            levels[0][slot(0, currentMs)].add(t);
+            return;
+        }
+        for (int l = 0; l < levels.length; l++) {
+            long width = levelTickMs[l];
+            if (Math.floorDiv(t.deadlineMs, width) - Math.floorDiv(currentMs, width) < size) {
+                levels[l][slot(l, t.deadlineMs)].add(t);
+                return;
+            }
+        }
+        overflow.add(t);
+    }
+
+    private int slot(int level, long ms) {
+        return (int) (Math.floorDiv(ms, levelTickMs[level]) & mask);
+    }
+}
@@ -0,0 +1,132 @@
+package com.reimii.meetup.timing;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel (Varghese & Lauck) for large numbers of coarse timers.
+ *
+ * Scheduling and cancelling are O(1) and lock-free: new timeouts go through a
+ * concurrent queue and cancellation only flips a flag. All bucket work happens
+ * in {@link #advance}, which must be driven by a single ticker thread.
+ * Timers fire at most one tick late.
+ */
+public final class TimingWheel<T> {
+
+    public static final class Timeout<T> {
+
+        private final T payload;
+        private final long deadlineMs;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(T payload, long deadlineMs) {
+            this.payload = payload;
+            this.deadlineMs = deadlineMs;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public long deadlineMs() {
+            return deadlineMs;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickMs;
+    private final int mask;
+    private final ArrayDeque<Timeout<T>>[] buckets;
+    private final Queue<Timeout<T>> incoming = new ConcurrentLinkedQueue<>();
+    private final long startMs;
+
+    /**
+     * Ticks processed so far; only touched by the ticker thread.
+     */
+    private long tick;
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs and wheelSize must be positive");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        if (size <= 0) {
+            size = 1;
+        }
+
+        this.tickMs = tickMs;
+        this.mask = size - 1;
+        this.buckets = buckets(size);
+        this.startMs = startMs;
+    }
+
+    private static <T> ArrayDeque<Timeout<T>>[] buckets(int size) {
+        @SuppressWarnings("unchecked")
+        ArrayDeque<Timeout<T>>[] buckets = (ArrayDeque<Timeout<T>>[]) new ArrayDeque<?>[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        return buckets;
+    }
+
+    public long tickMs() {
+        return tickMs;
+    }
+
+    /**
+     * Safe to call from any thread.
+     */
+    public Timeout<T> schedule(T payload, long deadlineMs) {
+        var timeout = new Timeout<>(payload, deadlineMs);
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Fires every timeout whose deadline is at or before {@code nowMs}. Must
+     * only be called from the ticker thread.
+     */
+    public void advance(long nowMs, Consumer<? super T> onExpire) {
+        long target = (nowMs - startMs) / tickMs;
+        while (tick <= target) {
+            transferIncoming();
+
+            var bucket = buckets[(int) (tick & mask)];
+            for (int n = bucket.size(); n > 0; n--) {
+                var t = bucket.poll();
+                if (t.cancelled) {
+                    continue;
+                }
+                if (t.remainingRounds > 0) {
+                    t.remainingRounds--;
+                    bucket.add(t);
+                    continue;
+                }
+                onExpire.accept(t.payload);
+            }
+            tick++;
+        }
+    }
+
+    private void transferIncoming() {
+        Timeout<T> t;
+        while ((t = incoming.poll()) != null) {
+            if (t.cancelled) {
+                continue;
+            }
+            long ticks = Math.max((t.deadlineMs - startMs + tickMs - 1) / tickMs, tick);
+            t.remainingRounds = (ticks - tick) / buckets.length;
+            buckets[(int) (ticks & mask)].add(t);
+        }
+    }
+}
@@ -32,4 +32,8 @@ public class AppUser {
 
     @Column(nullable = false)
     private String provider; // "google"
+
+    // SHA-256 of name, picture and provider; logins that match it write nothing
+    @Column(length = 64)
+    private String profileHash;
 }
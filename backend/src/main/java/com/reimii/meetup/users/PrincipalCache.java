@@ -0,0 +1,94 @@
+package com.reimii.meetup.users;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticated users by id for the JWT filter and the /ws/meet handshake,
+ * so a request with a valid token costs no user lookup. Bounded LRU, entries
+ * reloaded after {@code ttl} to pick up profile changes made on other nodes.
+ *
+ * {@link UserService} puts users here on login, and looks them up by email to
+ * tell whether a login changed the profile at all.
+ */
+@Component
+public class PrincipalCache {
+
+    private record Entry(AppUser user, long loadedAt) {
+    }
+
+    private final UserRepository users;
+    private final long ttlNanos;
+
+    private final Map<Long, Entry> byId;
+    private final Map<String, Long> idByEmail;
+
+    public PrincipalCache(UserRepository users,
+            @Value("${app.auth.principal-cache.max-entries}") int maxEntries,
+            @Value("${app.auth.principal-cache.ttl-seconds}") long ttlSeconds) {
+        this.users = users;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.byId = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.idByEmail = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * @return the user, loading it on a miss; null if there is no such user
+     */
+    public AppUser get(Long userId) {
+        AppUser user = cached(userId);
+        if (user != null) {
+            return user;
+        }
+        user = users.findById(userId).orElse(null);
+        if (user != null) {
+            put(user);
+        }
+        return user;
+    }
+
+    /**
+     * Cache only: null on a miss.
+     */
+    public AppUser getByEmail(String email) {
+        Long id = idByEmail.get(key(email));
+        return id != null ? cached(id) : null;
+    }
+
+    public void put(AppUser user) {
+        byId.put(user.getId(), new Entry(user, System.nanoTime()));
+        idByEmail.put(key(user.getEmail()), user.getId());
+    }
+
+    private AppUser cached(Long userId) {
+        Entry e = byId.get(userId);
+        if (e == null) {
+            return null;
+        }
+        if (System.nanoTime() - e.loadedAt() > ttlNanos) {
+            byId.remove(userId, e);
+            return null;
+        }
+        return e.user();
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,10 +1,39 @@
 package com.reimii.meetup.users;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<AppUser, Long> {
 
     Optional<AppUser> findByEmail(String email);
+
+    List<AppUser> findByEmailIn(Collection<String> emails);
+
+    /**
+     * Inserts the user or, on uk_users_email, updates the profile only if its
+     * hash changed (otherwise MySQL writes nothing). Either way
+     * {@link #lastInsertId()} then returns the row's id on this connection.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into users (email, name, picture, provider, profile_hash)
+            values (:email, :name, :picture, :provider, :profileHash)
+            on duplicate key update
+              id = last_insert_id(id),
+              name = if(profile_hash <=> values(profile_hash), name, values(name)),
+              picture = if(profile_hash <=> values(profile_hash), picture, values(picture)),
+              provider = if(profile_hash <=> values(profile_hash), provider, values(provider)),
+              profile_hash = values(profile_hash)
+            """)
+    int upsert(@Param("email") String email, @Param("name") String name, @Param("picture") String picture,
+            @Param("provider") String provider, @Param("profileHash") String profileHash);
+
+    @Query(nativeQuery = true, value = "select last_insert_id()")
+    long lastInsertId();
 }
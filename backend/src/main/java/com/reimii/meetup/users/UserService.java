@@ -1,26 +1,105 @@
 package com.reimii.meetup.users;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Login upserts. A login whose profile matches the cached user touches no
+ * database; otherwise one INSERT ... ON DUPLICATE KEY UPDATE, so two first
+ * logins of the same user can't race on uk_users_email. Concurrent logins
+ * with the same profile share that statement.
+ */
 @Service
 public class UserService {
 
+    private static final String PROVIDER = "google";
+
     private final UserRepository repo;
+    private final PrincipalCache principals;
+    private final TransactionTemplate tx;
 
-    public UserService(UserRepository repo) {
+    /**
+     * email + profile hash -> upsert in progress.
+     */
+    private final Map<String, CompletableFuture<AppUser>> inFlight = new ConcurrentHashMap<>();
+
+    public UserService(UserRepository repo, PrincipalCache principals, PlatformTransactionManager txManager) {
         this.repo = repo;
+        this.principals = principals;
+        this.tx = new TransactionTemplate(txManager);
     }
 
     public AppUser upsertGoogleUser(String email, String name, String picture) {
         if (email == null || email.isBlank()) {
             throw new IllegalStateException("No email from Google. Ensure scope includes email.");
         }
+        String displayName = name != null ? name : "User";
+        String hash = profileHash(displayName, picture, PROVIDER);
+
+        AppUser cached = principals.getByEmail(email);
+        if (cached != null && hash.equals(cached.getProfileHash())) {
+            return cached;
+        }
+
+        String key = email.toLowerCase(Locale.ROOT) + '\n' + hash;
+        var mine = new CompletableFuture<AppUser>();
+        var running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
 
-        AppUser user = repo.findByEmail(email).orElseGet(AppUser::new);
-        user.setEmail(email);
-        user.setName(name != null ? name : "User");
-        user.setPicture(picture);
-        user.setProvider("google");
-        return repo.save(user);
+        try {
+            Long id = tx.execute(s -> {
+                repo.upsert(email, displayName, picture, PROVIDER, hash);
+                return repo.lastInsertId();
+            });
+
+            AppUser user = new AppUser();
+            user.setId(id);
+            user.setEmail(email);
+            user.setName(displayName);
+            user.setPicture(picture);
+            user.setProvider(PROVIDER);
+            user.setProfileHash(hash);
+            principals.put(user);
+
+            mine.complete(user);
+            return user;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    static String profileHash(String name, String picture, String provider) {
+        try {
+            var sha = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[] { name, picture, provider }) {
+                if (part != null) {
+                    sha.update(part.getBytes(StandardCharsets.UTF_8));
+                }
+                sha.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,56 @@
+package com.reimii.meetup.ws;
+
+import java.util.function.Consumer;
+
+/**
+ * Fixed-size ring of the most recent outbound frames of one session, indexed
+ * by their sequence number. Not thread-safe; {@link ResumableSession} guards
+ * it.
+ */
+final class EventRing {
+
+    private final String[] frames;
+    private final int mask;
+
+    /**
+     * Sequence number of the newest frame (0 = empty).
+     */
+    private long lastSeq;
+
+    EventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.frames = new String[size];
+        this.mask = size - 1;
+    }
+
+    void add(long seq, String frame) {
+        frames[(int) (seq & mask)] = frame;
+        lastSeq = seq;
+    }
+
+    long lastSeq() {
+        return lastSeq;
+    }
+
+    long oldestSeq() {
+        return Math.max(1, lastSeq - frames.length + 1);
+    }
+
+    /**
+     * Replays every frame after {@code afterSeq}.
+     *
+     * @return false if some of those frames were already overwritten
+     */
+    boolean replayAfter(long afterSeq, Consumer<String> out) {
+        if (afterSeq > lastSeq) {
+            return false;
+        }
+        if (afterSeq + 1 < oldestSeq()) {
+            return false;
+        }
+        for (long s = afterSeq + 1; s <= lastSeq; s++) {
+            out.accept(frames[(int) (s & mask)]);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,338 @@
+package com.reimii.meetup.ws;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Decides what the SFU forwards to each receiver.
+ *
+ * Watches producers, the consumers created for this node's sessions, the
+ * SFU's AUDIO_LEVELS events and the receivers' VIEWPORT hints. Every tick, in
+ * each room that changed:
+ * <ul>
+ * <li>last-N: the N most recent speakers with video (capped by the tiles the
+ * receiver shows) stay resumed and all other video consumers are paused;</li>
+ * <li>layers: forwarded simulcast/SVC consumers get the spatial/temporal
+ * layers {@link SimulcastLayerPolicy} picks for the receiver's grid.</li>
+ * </ul>
+ * All changes for a room go out in one UPDATE_CONSUMERS request. Audio is
+ * always forwarded.
+ *
+ * Room state is only touched on the room's actor.
+ */
+@Component
+public class ForwardingController implements SfuEventListener {
+
+    /**
+     * Largest grid a VIEWPORT hint may claim.
+     */
+    static final int MAX_TILES = 64;
+
+    private final SfuBridge sfu;
+    private final RoomActors actors;
+    private final SimulcastLayerPolicy layerPolicy;
+    private final int lastN;
+    private final Duration requestTimeout;
+
+    private final Map<String, RoomMedia> media = new ConcurrentHashMap<>();
+
+    public ForwardingController(SfuBridge sfu, RoomActors actors, SimulcastLayerPolicy layerPolicy,
+            @Value("${app.sfu.forwarding.last-n}") int lastN,
+            @Value("${app.sfu.request-timeout-ms}") long requestTimeoutMs) {
+        this.sfu = sfu;
+        this.actors = actors;
+        this.layerPolicy = layerPolicy;
+        this.lastN = lastN;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        sfu.addListener(this);
+    }
+
+    /**
+     * Receiver hint from /ws/meet: how many video tiles {@code userId} shows.
+     */
+    public void onViewport(String roomId, Long userId, int tiles) {
+        int clamped = Math.max(0, Math.min(tiles, MAX_TILES));
+        actors.tell(roomId, () -> {
+            var m = room(roomId);
+            Integer previous = m.viewports.put(userId, clamped);
+            if (previous == null || previous != clamped) {
+                m.dirty = true;
+            }
+        });
+    }
+
+    @Override
+    public void onRoomEvent(String roomId, JsonNode event) {
+        switch (event.path("type").asText()) {
+            case "NEW_PRODUCER" -> {
+                String producerId = event.path("producerId").asText();
+                long userId = event.path("userId").asLong();
+                String kind = event.path("kind").asText("video");
+                actors.tell(roomId, () -> room(roomId).producers.put(producerId, new ProducerInfo(userId, kind)));
+            }
+            case "PRODUCER_CLOSED" -> {
+                String producerId = event.path("producerId").asText();
+                actors.tell(roomId, () -> {
+                    var m = media.get(roomId);
+                    if (m != null) {
+                        m.producers.remove(producerId);
+                        m.consumers.values().removeIf(c -> c.producerId.equals(producerId));
+                        m.dirty = true;
+                    }
+                });
+            }
+            case "AUDIO_LEVELS" -> {
+                long now = System.nanoTime();
+                List<Long> speakers = new ArrayList<>();
+                for (JsonNode level : event.path("levels")) {
+                    if (level.hasNonNull("userId")) {
+                        speakers.add(level.get("userId").asLong());
+                    }
+                }
+                if (speakers.isEmpty()) {
+                    return;
+                }
+                actors.tell(roomId, () -> {
+                    var m = media.get(roomId);
+                    if (m == null) {
+                        return;
+                    }
+                    // loudest first in the event; give it the latest timestamp
+                    for (int i = 0; i < speakers.size(); i++) {
+                        m.lastSpokeAt.put(speakers.get(i), now - i);
+                    }
+                    m.dirty = true;
+                });
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void onReply(String roomId, Long userId, JsonNode reply) {
+        if (!"CONSUMED".equals(reply.path("type").asText())) {
+            return;
+        }
+
+        String consumerId = reply.path("consumerId").asText();
+        String producerId = reply.path("producerId").asText();
+        String kind = reply.path("kind").asText();
+        Long producerUserId = reply.hasNonNull("producerUserId") ? reply.get("producerUserId").asLong() : null;
+        int spatialLayers = reply.path("layers").path("spatial").asInt(1);
+        int temporalLayers = reply.path("layers").path("temporal").asInt(1);
+
+        actors.tell(roomId, () -> {
+            var m = room(roomId);
+            Long owner = producerUserId;
+            if (owner == null) {
+                var p = m.producers.get(producerId);
+                owner = p != null ? p.userId : null;
+            }
+            m.consumers.put(consumerId,
+                    new ConsumerInfo(userId, producerId, owner, kind, spatialLayers, temporalLayers));
+            m.dirty = true;
+        });
+    }
+
+    @Override
+    public void onPeerLeft(String roomId, Long userId) {
+        actors.tell(roomId, () -> {
+            var m = media.get(roomId);
+            if (m == null) {
+                return;
+            }
+            m.producers.values().removeIf(p -> p.userId == userId);
+            m.consumers.values().removeIf(c -> c.receiverUserId.equals(userId) || userId.equals(c.producerUserId));
+            m.lastSpokeAt.remove(userId);
+            m.viewports.remove(userId);
+            if (m.consumers.isEmpty() && m.producers.isEmpty()) {
+                media.remove(roomId);
+            } else {
+                m.dirty = true;
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.sfu.forwarding.tick-ms}")
+    public void tick() {
+        for (String roomId : media.keySet()) {
+            actors.tell(roomId, () -> decide(roomId));
+        }
+    }
+
+    private void decide(String roomId) {
+        var m = media.get(roomId);
+        if (m == null || !m.dirty) {
+            return;
+        }
+        m.dirty = false;
+
+        // video publishers, most recent speaker first; never-spoke keep publish order
+        List<Long> ranked = new ArrayList<>();
+        Set<Long> peers = new HashSet<>();
+        for (var p : m.producers.values()) {
+            peers.add(p.userId);
+            if ("video".equals(p.kind) && !ranked.contains(p.userId)) {
+                ranked.add(p.userId);
+            }
+        }
+        ranked.sort((a, b) -> Long.compare(
+                m.lastSpokeAt.getOrDefault(b, Long.MIN_VALUE),
+                m.lastSpokeAt.getOrDefault(a, Long.MIN_VALUE)));
+        for (var c : m.consumers.values()) {
+            peers.add(c.receiverUserId);
+        }
+        Long activeSpeaker = !ranked.isEmpty() && m.lastSpokeAt.containsKey(ranked.get(0)) ? ranked.get(0) : null;
+
+        List<Map<String, Object>> updates = new ArrayList<>();
+        List<Change> changes = new ArrayList<>();
+
+        for (var e : m.consumers.entrySet()) {
+            var c = e.getValue();
+            if (!"video".equals(c.kind) || c.producerUserId == null) {
+                continue;
+            }
+
+            Integer hint = m.viewports.get(c.receiverUserId);
+            int others = ranked.contains(c.receiverUserId) ? ranked.size() - 1 : ranked.size();
+            int tiles = hint != null ? hint : (lastN > 0 ? Math.min(lastN, others) : others);
+
+            boolean paused = false;
+            if (lastN > 0) {
+                int limit = Math.min(lastN, tiles);
+                paused = rank(ranked, c.receiverUserId, c.producerUserId) >= limit;
+            }
+
+            int spatial = c.spatial;
+            int temporal = c.temporal;
+            if (!paused && (c.spatialLayers > 1 || c.temporalLayers > 1)) {
+                var layers = layerPolicy.choose(tiles, peers.size(), c.producerUserId.equals(activeSpeaker),
+                        c.spatialLayers, c.temporalLayers);
+                spatial = layers.spatial();
+                temporal = layers.temporal();
+            }
+
+            boolean pauseChanged = paused != c.policyPaused;
+            boolean layersChanged = spatial != c.spatial || temporal != c.temporal;
+            if (!pauseChanged && !layersChanged) {
+                continue;
+            }
+
+            changes.add(new Change(c, c.policyPaused, c.spatial, c.temporal));
+            c.policyPaused = paused;
+            c.spatial = spatial;
+            c.temporal = temporal;
+
+            Map<String, Object> update = new HashMap<>();
+            update.put("userId", c.receiverUserId);
+            update.put("consumerId", e.getKey());
+            update.put("paused", paused);
+            if (layersChanged) {
+                update.put("spatialLayer", spatial);
+                update.put("temporalLayer", temporal);
+            }
+            updates.add(update);
+        }
+
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        sfu.request(roomId, "UPDATE_CONSUMERS", Map.of("updates", updates), requestTimeout)
+                .whenComplete((reply, ex) -> {
+                    if (ex != null) {
+                        // not applied: restore what we believe and retry next tick
+                        actors.tell(roomId, () -> {
+                            changes.forEach(Change::revert);
+                            m.dirty = true;
+                        });
+                    }
+                });
+    }
+
+    /**
+     * Position of {@code producerUserId} in the speaker ranking as seen by
+     * {@code receiverUserId}, whose own video never counts against N.
+     */
+    private static int rank(List<Long> ranked, Long receiverUserId, Long producerUserId) {
+        int pos = 0;
+        for (Long u : ranked) {
+            if (u.equals(receiverUserId)) {
+                continue;
+            }
+            if (u.equals(producerUserId)) {
+                return pos;
+            }
+            pos++;
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private RoomMedia room(String roomId) {
+        return media.computeIfAbsent(roomId, k -> new RoomMedia());
+    }
+
+    private static final class RoomMedia {
+
+        final Map<String, ProducerInfo> producers = new LinkedHashMap<>();
+        final Map<String, ConsumerInfo> consumers = new HashMap<>();
+        final Map<Long, Long> lastSpokeAt = new HashMap<>();
+        final Map<Long, Integer> viewports = new HashMap<>();
+        boolean dirty;
+    }
+
+    private record ProducerInfo(long userId, String kind) {
+    }
+
+    private static final class ConsumerInfo {
+
+        final Long receiverUserId;
+        final String producerId;
+        final Long producerUserId;
+        final String kind;
+        final int spatialLayers;
+        final int temporalLayers;
+
+        // consumers start paused and clients resume them, so "not paused" is the baseline
+        boolean policyPaused;
+
+        // the SFU starts every consumer on its top layers
+        int spatial;
+        int temporal;
+
+        ConsumerInfo(Long receiverUserId, String producerId, Long producerUserId, String kind, int spatialLayers,
+                int temporalLayers) {
+            this.receiverUserId = receiverUserId;
+            this.producerId = producerId;
+            this.producerUserId = producerUserId;
+            this.kind = kind;
+            this.spatialLayers = spatialLayers;
+            this.temporalLayers = temporalLayers;
+            this.spatial = Math.max(spatialLayers - 1, 0);
+            this.temporal = Math.max(temporalLayers - 1, 0);
+        }
+    }
+
+    private record Change(ConsumerInfo consumer, boolean policyPaused, int spatial, int temporal) {
+
+        void revert() {
+            consumer.policyPaused = policyPaused;
+            consumer.spatial = spatial;
+            consumer.temporal = temporal;
+        }
+    }
+}
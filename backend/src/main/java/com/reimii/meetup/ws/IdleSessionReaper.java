@@ -0,0 +1,136 @@
+package com.reimii.meetup.ws;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.reimii.meetup.timing.TimingWheel;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Application-level heartbeat for /ws/meet.
+ *
+ * Every tracked session has one timer on a {@link TimingWheel}. Inbound frames
+ * only bump a timestamp; when the timer fires it checks the timestamp and
+ * either re-arms, sends a `PING` (clients answer `PONG`, though any frame
+ * counts), or closes a session that stayed silent after the ping. Closing
+ * runs the normal afterConnectionClosed path, which releases the room and SFU
+ * resources held by half-open connections.
+ */
+@Component
+public class IdleSessionReaper {
+
+    private static final TextMessage PING = new TextMessage("{\"type\":\"PING\"}");
+
+    private final long pingIntervalMs;
+    private final long pongTimeoutMs;
+    private final TimingWheel<Tracked> wheel;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ws-idle-reaper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+
+    public IdleSessionReaper(@Value("${app.ws.heartbeat.interval-ms}") long pingIntervalMs,
+            @Value("${app.ws.heartbeat.timeout-ms}") long pongTimeoutMs,
+            @Value("${app.ws.heartbeat.tick-ms}") long tickMs) {
+        this.pingIntervalMs = pingIntervalMs;
+        this.pongTimeoutMs = pongTimeoutMs;
+        this.wheel = new TimingWheel<>(tickMs, 512, System.currentTimeMillis());
+
+        ticker.scheduleAtFixedRate(() -> wheel.advance(System.currentTimeMillis(), this::onTimer),
+                tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void track(WebSocketSession session) {
+        long now = System.currentTimeMillis();
+        var t = new Tracked(session, now);
+        tracked.put(session.getId(), t);
+        t.timeout = wheel.schedule(t, now + pingIntervalMs);
+    }
+
+    /**
+     * Called for every inbound frame; must stay cheap.
+     */
+    public void touch(WebSocketSession session) {
+        var t = tracked.get(session.getId());
+        if (t != null) {
+            t.lastSeenMs = System.currentTimeMillis();
+        }
+    }
+
+    public void untrack(WebSocketSession session) {
+        var t = tracked.remove(session.getId());
+        if (t != null && t.timeout != null) {
+            t.timeout.cancel();
+        }
+    }
+
+    public int trackedCount() {
+        return tracked.size();
+    }
+
+    private void onTimer(Tracked t) {
+        if (tracked.get(t.session.getId()) != t) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long lastSeen = t.lastSeenMs;
+
+        if (t.pingSentAtMs != 0 && lastSeen < t.pingSentAtMs) {
+            untrack(t.session);
+            try {
+                t.session.close(CloseStatus.SESSION_NOT_RELIABLE.withReason("HEARTBEAT_TIMEOUT"));
+            } catch (IOException ignored) {
+            }
+            return;
+        }
+
+        if (now - lastSeen < pingIntervalMs) {
+            t.pingSentAtMs = 0;
+            t.timeout = wheel.schedule(t, lastSeen + pingIntervalMs);
+            return;
+        }
+
+        t.pingSentAtMs = now;
+        t.timeout = wheel.schedule(t, now + pongTimeoutMs);
+        try {
+            t.session.sendMessage(PING);
+        } catch (Exception ignored) {
+            // a broken socket will fail the next check and be closed
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private static final class Tracked {
+
+        final WebSocketSession session;
+        volatile long lastSeenMs;
+
+        // ticker-thread only
+        long pingSentAtMs;
+        volatile TimingWheel.Timeout<Tracked> timeout;
+
+        Tracked(WebSocketSession session, long lastSeenMs) {
+            this.session = session;
+            this.lastSeenMs = lastSeenMs;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.reimii.meetup.ws;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.reimii.meetup.auth.JwtService;
+import com.reimii.meetup.auth.RevokedTokens;
+import com.reimii.meetup.stats.JoinTrace;
+import com.reimii.meetup.stats.JoinTracer;
+import com.reimii.meetup.users.AppUser;
+import com.reimii.meetup.users.PrincipalCache;
+
+/**
+ * Authenticates /ws/meet before the HTTP upgrade, so bad or expired tokens
+ * are answered with a plain 401 instead of costing an upgraded connection.
+ *
+ * The token is taken from, in order:
+ * - `Authorization: Bearer <jwt>` (desktop / server clients)
+ * - `Sec-WebSocket-Protocol: meetup.bearer, <jwt>` (browsers cannot set
+ * headers on `new WebSocket(url, ["meetup.bearer", jwt])`)
+ * - `?access_token=<jwt>` query parameter
+ *
+ * The resolved {@link AppUser} is stored in the session attributes under
+ * {@link #ATTR_USER}. Sessions sampled by {@link JoinTracer} also get a
+ * {@link JoinTrace} carrying the time spent here.
+ */
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String ATTR_USER = "me";
+    public static final String BEARER_SUBPROTOCOL = "meetup.bearer";
+
+    private final JwtService jwtService;
+    private final PrincipalCache principals;
+    private final RevokedTokens revoked;
+    private final JoinTracer tracer;
+
+    public JwtHandshakeInterceptor(JwtService jwtService, PrincipalCache principals, RevokedTokens revoked,
+            JoinTracer tracer) {
+        this.jwtService = jwtService;
+        this.principals = principals;
+        this.revoked = revoked;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        long start = System.nanoTime();
+
+        String token = extractToken(request);
+        if (token == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        Long userId;
+        try {
+            var claims = jwtService.parse(token).getPayload();
+            if (revoked.isRevoked(claims.getId())) {
+                response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                return false;
+            }
+            userId = Long.valueOf(claims.getSubject());
+        } catch (Exception e) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        AppUser user = principals.get(userId);
+        if (user == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        attributes.put(ATTR_USER, user);
+        JoinTrace trace = tracer.begin(System.nanoTime() - start);
+        if (trace != null) {
+            attributes.put(JoinTrace.ATTR, trace);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+            WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    static String extractToken(ServerHttpRequest request) {
+        var headers = request.getHeaders();
+
+        String auth = headers.getFirst("Authorization");
+        if (auth != null && auth.startsWith("Bearer ")) {
+            return auth.substring("Bearer ".length()).trim();
+        }
+
+        List<String> protocols = headers.get("Sec-WebSocket-Protocol");
+        if (protocols != null) {
+            boolean bearer = false;
+            for (String header : protocols) {
+                for (String p : header.split(",")) {
+                    p = p.trim();
+                    if (bearer && !p.isEmpty()) {
+                        return p;
+                    }
+                    bearer = BEARER_SUBPROTOCOL.equals(p);
+                }
+            }
+        }
+
+        String fromQuery = UriComponentsBuilder.fromUri(request.getURI())
+                .build()
+                .getQueryParams()
+                .getFirst("access_token");
+        if (fromQuery != null && !fromQuery.isBlank()) {
+            return fromQuery;
+        }
+
+        return null;
+    }
+}
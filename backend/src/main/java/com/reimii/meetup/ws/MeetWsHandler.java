@@ -1,5 +1,6 @@
 package com.reimii.meetup.ws;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -7,81 +8,329 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.reimii.meetup.auth.JwtService;
+import com.reimii.meetup.meetings.RoomAccessCache;
+import com.reimii.meetup.ratelimit.RateLimits;
+import com.reimii.meetup.stats.JoinTrace;
 import com.reimii.meetup.users.AppUser;
-import com.reimii.meetup.users.UserRepository;
 
 @Component
 public class MeetWsHandler extends TextWebSocketHandler {
 
     private final ObjectMapper om = new ObjectMapper();
-    private final JwtService jwtService;
-    private final UserRepository users;
     private final RoomRegistry rooms;
     private final SfuBridge sfu;
+    private final IdleSessionReaper reaper;
+    private final RoomAccessCache roomAccess;
+    private final RoomActors actors;
+    private final RoomBroadcaster broadcaster;
+    private final SessionResumption resumption;
+    private final RateLimits limits;
+    private final ForwardingController forwarding;
+    private final UserSessions userSessions;
+    private final RoomChat chat;
 
-    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    /**
+     * socket id -> logical session currently carried by that socket
+     */
+    private final Map<String, ResumableSession> sessions = new ConcurrentHashMap<>();
 
-    public MeetWsHandler(JwtService jwtService, UserRepository users, RoomRegistry rooms, SfuBridge sfu) {
-        this.jwtService = jwtService;
-        this.users = users;
+    public MeetWsHandler(RoomRegistry rooms, SfuBridge sfu, IdleSessionReaper reaper, RoomAccessCache roomAccess,
+            RoomActors actors, RoomBroadcaster broadcaster, SessionResumption resumption, RateLimits limits,
+            ForwardingController forwarding, UserSessions userSessions, RoomChat chat) {
         this.rooms = rooms;
         this.sfu = sfu;
+        this.reaper = reaper;
+        this.roomAccess = roomAccess;
+        this.actors = actors;
+        this.broadcaster = broadcaster;
+        this.resumption = resumption;
+        this.limits = limits;
+        this.forwarding = forwarding;
+        this.userSessions = userSessions;
+        this.chat = chat;
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        AppUser me = authenticate(session);
-        session.getAttributes().put("me", me);
-        sessions.put(session.getId(), session);
+        // Authenticated during the handshake by JwtHandshakeInterceptor
+        if (!(session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER) instanceof AppUser me)) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("UNAUTHORIZED"));
+            return;
+        }
+        // sockets are written from several threads (SFU replies, broadcasts, pings)
+        var out = new ConcurrentWebSocketSessionDecorator(session, 5_000, 256 * 1024);
+        var logical = resumption.open(out);
+        sessions.put(session.getId(), logical);
+        userSessions.add(me.getId(), logical);
+        reaper.track(out);
     }
 
     @Override
-    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
-        AppUser me = (AppUser) session.getAttributes().get("me");
+    protected void handleTextMessage(WebSocketSession raw, TextMessage message) throws Exception {
+        reaper.touch(raw);
+        ResumableSession session = sessions.get(raw.getId());
+        if (session == null) {
+            return;
+        }
+
+        AppUser me = (AppUser) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER);
         var node = om.readTree(message.getPayload());
         String type = node.get("type").asText();
 
+        if ("PONG".equals(type)) {
+            return;
+        }
+
+        if (!limits.allowWsFrame(me.getId())) {
+            sendError(session, node, "RATE_LIMITED");
+            return;
+        }
+
+        if ("RESUME".equals(type)) {
+            resume(raw, session, me, node);
+            return;
+        }
+
         String roomId = node.hasNonNull("roomId") ? node.get("roomId").asText() : null;
+        if (roomId == null || roomId.isBlank()) {
+            sendError(session, node, "NO_ROOM_ID");
+            return;
+        }
+
+        JoinTrace trace = JoinTrace.of(session);
+        if (trace != null) {
+            trace.onRequest(type, roomId, node.hasNonNull("reqId") ? node.get("reqId").asText() : null);
+        }
 
+        // access misses and cold chat history load from the DB: keep them on this socket's thread,
+        // off the room actors
         if ("JOIN".equals(type)) {
-            rooms.join(roomId, me.getId(), session);
-            sfu.onJoin(roomId, me.getId());
+            if (!roomAccess.canJoin(roomId, me)) {
+                sendError(session, node, "FORBIDDEN");
+                return;
+            }
+            chat.preload(roomId);
+        }
+
+        // Everything that touches a room runs on that room's actor, in arrival order
+        String payload = message.getPayload();
+        actors.tell(roomId, () -> onRoomMessage(session, me, roomId, type, node, payload));
+    }
+
+    private void onRoomMessage(ResumableSession session, AppUser me, String roomId, String type, JsonNode node,
+            String payload) {
+        try {
+            if ("JOIN".equals(type)) {
+                // the socket may have closed while JOIN sat in the mailbox; the close path
+                // found nothing to leave, so a discarded session registered now would never go
+                if (!session.isOpen()) {
+                    return;
+                }
+                boolean first = !rooms.isPresent(roomId, me.getId());
+                rooms.join(roomId, me.getId(), session);
+                if (!session.isOpen()) {
+                    // discarded between the check and the join
+                    rooms.leave(roomId, me.getId(), session);
+                    return;
+                }
+                sfu.onJoin(roomId, me.getId());
+                if (first) {
+                    broadcaster.broadcast(roomId, presence("PEER_JOINED", roomId, me.getId()), me.getId());
+                }
+
+                var reply = om.createObjectNode();
+                if (node.hasNonNull("reqId")) {
+                    reply.set("reqId", node.get("reqId"));
+                }
+                reply.put("type", "JOINED");
+                reply.put("roomId", roomId);
+                reply.put("resumeToken", session.getResumeToken());
+                session.sendMessage(new TextMessage(reply.toString()));
+                JoinTrace trace = JoinTrace.of(session);
+                if (trace != null && node.hasNonNull("reqId")) {
+                    trace.onReply(node.get("reqId").asText(), "JOINED");
+                }
+                chat.sendHistory(roomId, session);
+                return;
+            }
+
+            if ("LEAVE".equals(type)) {
+                if (rooms.leave(roomId, me.getId(), session)) {
+                    onUserLeft(roomId, me.getId());
+                }
+                return;
+            }
+
+            if (!rooms.isMember(roomId, me.getId(), session)) {
+                sendError(session, node, "NOT_JOINED");
+                return;
+            }
+
+            if ("CHAT_SEND".equals(type)) {
+                String error = chat.send(roomId, me, session, node);
+                if (error != null) {
+                    sendError(session, node, error);
+                }
+                return;
+            }
+
+            // receiver layout hint for last-N and simulcast layer selection; stays on the backend
+            if ("VIEWPORT".equals(type)) {
+                forwarding.onViewport(roomId, me.getId(), node.path("tiles").asInt(0));
+                return;
+            }
+
+            // server-only SFU verbs (PEER_LEAVE, UPDATE_CONSUMERS, ...) never come from a client
+            if (!SfuBridge.CLIENT_REQUESTS.contains(type)) {
+                sendError(session, node, "UNSUPPORTED_TYPE");
+                return;
+            }
+
+            if (!limits.allowSfu(roomId)) {
+                sendError(session, node, "RATE_LIMITED");
+                return;
+            }
+
+            sfu.forward(roomId, me.getId(), session, payload);
+        } catch (IOException e) {
+            try {
+                sendError(session, node, e.getMessage());
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * `{"type":"RESUME","resumeToken":..,"lastSeq":n}` sent on a fresh socket
+     * takes over a parked session and replays every frame after `lastSeq`.
+     * On `RESUME_FAILED` the client must JOIN again from scratch.
+     */
+    private void resume(WebSocketSession raw, ResumableSession fresh, AppUser me, JsonNode node) throws IOException {
+        String token = node.path("resumeToken").asText(null);
+        long lastSeq = node.path("lastSeq").asLong(0);
+
+        ResumableSession parked = resumption.claim(token, me);
+        if (parked == null || parked == fresh) {
+            if (parked != null) {
+                resumption.reinstate(parked);
+            }
+            sendError(fresh, node, "RESUME_FAILED");
             return;
         }
 
-        if ("LEAVE".equals(type)) {
-            rooms.leave(roomId, me.getId(), session);
-            sfu.onLeave(roomId, me.getId());
+        WebSocketSession newTransport = fresh.getDelegate();
+        WebSocketSession oldTransport = parked.transport();
+
+        boolean resumed;
+        try {
+            resumed = parked.resume(newTransport, lastSeq);
+        } catch (IOException e) {
+            // replay failed on the new socket; already claimed, so nothing else would ever clean it up
+            resumed = false;
+        }
+        if (!resumed) {
+            // missed frames are gone: drop the old session, the client rejoins
+            resumption.discard(parked);
+            userSessions.remove(me.getId(), parked);
+            leaveRooms(parked);
+            sendError(fresh, node, "RESUME_FAILED");
             return;
         }
 
-        sfu.forward(roomId, me.getId(), session, message.getPayload());
+        if (oldTransport != null) {
+            // half-open socket still around: detach it before it closes
+            sessions.remove(oldTransport.getId(), parked);
+            reaper.untrack(oldTransport);
+            try {
+                oldTransport.close(CloseStatus.NORMAL.withReason("RESUMED"));
+            } catch (IOException ignored) {
+            }
+        }
+
+        fresh.park(); // its socket now belongs to the resumed session
+        resumption.discard(fresh);
+        userSessions.remove(me.getId(), fresh);
+        resumption.reinstate(parked);
+        sessions.put(raw.getId(), parked);
+
+        var reply = om.createObjectNode();
+        if (node.hasNonNull("reqId")) {
+            reply.set("reqId", node.get("reqId"));
+        }
+        reply.put("type", "RESUMED");
+        parked.sendMessage(new TextMessage(reply.toString()));
     }
 
     @Override
-    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
-        AppUser me = (AppUser) session.getAttributes().get("me");
+    public void afterConnectionClosed(WebSocketSession raw, CloseStatus status) {
+        reaper.untrack(raw);
+        JoinTrace trace = JoinTrace.of(raw);
+        if (trace != null) {
+            trace.onClose();
+        }
+        ResumableSession session = sessions.remove(raw.getId());
+        if (session == null) {
+            return;
+        }
+
+        AppUser me = (AppUser) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER);
+        boolean inRooms = me != null && !rooms.roomsOf(me.getId(), session).isEmpty();
+
+        // a clean close is a real goodbye; anything else may come back with RESUME
+        if (!inRooms || CloseStatus.NORMAL.equalsCode(status)) {
+            resumption.discard(session);
+            if (me != null) {
+                userSessions.remove(me.getId(), session);
+            }
+            leaveRooms(session);
+            return;
+        }
+
+        resumption.park(session, () -> {
+            userSessions.remove(me.getId(), session);
+            leaveRooms(session);
+        });
+    }
+
+    private void leaveRooms(ResumableSession session) {
+        AppUser me = (AppUser) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER);
         if (me != null) {
-            rooms.leaveAll(me.getId(), session);
+            for (String roomId : rooms.roomsOf(me.getId(), session)) {
+                actors.tell(roomId, () -> {
+                    if (rooms.leave(roomId, me.getId(), session)) {
+                        onUserLeft(roomId, me.getId());
+                    }
+                });
+            }
         }
-        sessions.remove(session.getId());
         sfu.onDisconnect(me != null ? me.getId() : null);
     }
 
-    private AppUser authenticate(WebSocketSession session) {
-        String auth = session.getHandshakeHeaders().getFirst("Authorization");
-        if (auth == null || !auth.startsWith("Bearer ")) {
-            throw new RuntimeException("NO_TOKEN");
-        }
+    private void onUserLeft(String roomId, Long userId) {
+        sfu.onLeave(roomId, userId);
+        broadcaster.broadcast(roomId, presence("PEER_LEFT", roomId, userId), userId);
+    }
 
-        String token = auth.substring("Bearer ".length()).trim();
-        var claims = jwtService.parse(token).getPayload();
-        Long userId = Long.valueOf(claims.getSubject());
+    private String presence(String type, String roomId, Long userId) {
+        var msg = om.createObjectNode();
+        msg.put("type", type);
+        msg.put("roomId", roomId);
+        msg.put("userId", userId);
+        return msg.toString();
+    }
 
-        return users.findById(userId).orElseThrow();
+    private void sendError(WebSocketSession session, JsonNode request, String error) throws IOException {
+        var reply = om.createObjectNode();
+        if (request.hasNonNull("reqId")) {
+            reply.set("reqId", request.get("reqId"));
+        }
+        reply.put("type", "ERROR");
+        reply.put("error", error);
+        session.sendMessage(new TextMessage(om.writeValueAsString(reply)));
     }
 }
@@ -0,0 +1,149 @@
+package com.reimii.meetup.ws;
+
+import java.io.IOException;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+/**
+ * A client's logical /ws/meet session, which can outlive its socket.
+ *
+ * Every outbound text frame gets a `seq` field and is kept in an
+ * {@link EventRing}. When the socket drops the session is parked (still
+ * "open" for room broadcasts and SFU replies, which keep filling the ring);
+ * a new socket presenting the resume token is attached and receives every
+ * frame after the client's last seen `seq`, so no renegotiation is needed.
+ *
+ * Identity and attributes are those of the first socket.
+ */
+public class ResumableSession extends WebSocketSessionDecorator {
+
+    private final String resumeToken;
+    private final EventRing ring;
+
+    // guarded by this
+    private WebSocketSession transport;
+    private long seq;
+
+    private volatile boolean closed;
+
+    public ResumableSession(WebSocketSession transport, String resumeToken, int bufferSize) {
+        super(transport);
+        this.transport = transport;
+        this.resumeToken = resumeToken;
+        this.ring = new EventRing(bufferSize);
+    }
+
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * The socket currently carrying this session (null while parked).
+     */
+    public synchronized WebSocketSession transport() {
+        return transport;
+    }
+
+    public synchronized boolean isAttached() {
+        return transport != null && transport.isOpen();
+    }
+
+    @Override
+    public synchronized void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closed) {
+            throw new IOException("SESSION_CLOSED");
+        }
+        if (!(message instanceof TextMessage text)) {
+            if (transport != null) {
+                transport.sendMessage(message);
+            }
+            return;
+        }
+
+        long n = ++seq;
+        String frame = stamp(n, text.getPayload());
+        ring.add(n, frame);
+
+        if (transport != null && transport.isOpen()) {
+            try {
+                transport.sendMessage(new TextMessage(frame));
+            } catch (IOException e) {
+                // kept in the ring; delivered on resume
+            }
+        }
+    }
+
+    /**
+     * Detaches the dead socket; frames keep buffering until resumed or closed.
+     */
+    public synchronized void park() {
+        transport = null;
+    }
+
+    /**
+     * Attaches a new socket and replays what the client missed.
+     *
+     * @return false if frames after {@code lastSeq} are no longer buffered
+     */
+    public synchronized boolean resume(WebSocketSession newTransport, long lastSeq) throws IOException {
+        if (closed) {
+            return false;
+        }
+
+        IOException[] failure = new IOException[1];
+        boolean complete = ring.replayAfter(lastSeq, frame -> {
+            if (failure[0] == null) {
+                try {
+                    newTransport.sendMessage(new TextMessage(frame));
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        if (!complete) {
+            return false;
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+
+        transport = newTransport;
+        return true;
+    }
+
+    public synchronized long lastSeq() {
+        return seq;
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        WebSocketSession t;
+        synchronized (this) {
+            closed = true;
+            t = transport;
+            transport = null;
+        }
+        if (t != null && t.isOpen()) {
+            t.close(status);
+        }
+    }
+
+    private static String stamp(long seq, String payload) {
+        if (payload.length() < 2 || payload.charAt(0) != '{') {
+            return payload;
+        }
+        String rest = payload.substring(1).stripLeading();
+        return rest.startsWith("}")
+                ? "{\"seq\":" + seq + rest
+                : "{\"seq\":" + seq + "," + rest;
+    }
+}
@@ -0,0 +1,131 @@
+package com.reimii.meetup.ws;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Single-writer execution per room.
+ *
+ * Every room gets a mailbox; tasks told to the same room run one at a time in
+ * the order they were told, so a LEAVE can never overtake a PRODUCE from the
+ * same room. Different rooms run in parallel on a shared worker pool. A
+ * mailbox only exists while it has work queued, so idle rooms cost nothing.
+ */
+@Component
+public class RoomActors {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomActors.class);
+
+    /**
+     * Tasks a mailbox runs before yielding its worker to other rooms.
+     */
+    private static final int BATCH = 64;
+
+    private final ConcurrentHashMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+
+    public RoomActors(@Value("${app.ws.room-workers:0}") int workerCount) {
+        int n = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        var seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(n, r -> {
+            Thread t = new Thread(r, "room-actor-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queues {@code task} on the room's mailbox.
+     */
+    public void tell(String roomId, Runnable task) {
+        Mailbox[] toSchedule = new Mailbox[1];
+
+        // compute() serializes against the idle check in Mailbox.run for this key
+        mailboxes.compute(roomId, (k, mb) -> {
+            if (mb == null) {
+                mb = new Mailbox(k);
+            }
+            mb.queue.add(task);
+            if (!mb.scheduled) {
+                mb.scheduled = true;
+                toSchedule[0] = mb;
+            }
+            return mb;
+        });
+
+        if (toSchedule[0] != null) {
+            workers.execute(toSchedule[0]);
+        }
+    }
+
+    public int activeRooms() {
+        return mailboxes.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    private final class Mailbox implements Runnable {
+
+        final String roomId;
+        final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Guarded by the mailboxes map bin lock (only touched inside compute).
+         */
+        boolean scheduled;
+
+        Mailbox(String roomId) {
+            this.roomId = roomId;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < BATCH; i++) {
+                    Runnable task = queue.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        log.warn("Room {} task failed", roomId, e);
+                    }
+                }
+            } finally {
+                // also after an Error, which still propagates: a mailbox left scheduled would never run again
+                reschedule();
+            }
+        }
+
+        private void reschedule() {
+            boolean[] more = new boolean[1];
+            mailboxes.compute(roomId, (k, mb) -> {
+                if (queue.isEmpty()) {
+                    scheduled = false;
+                    return null;
+                }
+                more[0] = true;
+                return mb;
+            });
+
+            if (more[0]) {
+                workers.execute(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.reimii.meetup.ws;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+import com.reimii.meetup.cluster.ClusterBackplane;
+import com.reimii.meetup.cluster.ClusterMessage;
+
+/**
+ * Delivers a frame to every session in a room, whichever node it is on:
+ * local sessions directly, other nodes through the {@link ClusterBackplane}.
+ */
+@Component
+public class RoomBroadcaster {
+
+    private final RoomRegistry rooms;
+    private final ClusterBackplane cluster;
+
+    public RoomBroadcaster(RoomRegistry rooms, ClusterBackplane cluster) {
+        this.rooms = rooms;
+        this.cluster = cluster;
+        cluster.onMessage(m -> deliverLocal(m.roomId(), m.payload(), m.exceptUserId()));
+    }
+
+    /**
+     * @param exceptUserId user whose sessions are skipped (may be null)
+     */
+    public void broadcast(String roomId, String json, Long exceptUserId) {
+        deliverLocal(roomId, json, exceptUserId);
+
+        String self = cluster.nodeId();
+        for (String node : cluster.nodesFor(roomId)) {
+            if (!node.equals(self)) {
+                cluster.send(node, new ClusterMessage(self, roomId, json, exceptUserId));
+            }
+        }
+    }
+
+    /**
+     * Delivers only to this node's sessions.
+     */
+    public void deliverLocal(String roomId, String json, Long exceptUserId) {
+        var msg = new TextMessage(json);
+        rooms.forEachSession(roomId, (userId, session) -> {
+            if (userId.equals(exceptUserId) || !session.isOpen()) {
+                return;
+            }
+            try {
+                session.sendMessage(msg);
+            } catch (Exception ignored) {
+                // the heartbeat reaper closes broken sessions
+            }
+        });
+    }
+}
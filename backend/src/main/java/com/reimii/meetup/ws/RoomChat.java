@@ -0,0 +1,178 @@
+package com.reimii.meetup.ws;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.reimii.meetup.chat.ChatWriter;
+import com.reimii.meetup.cluster.ClusterBackplane;
+import com.reimii.meetup.users.AppUser;
+
+/**
+ * Room chat on /ws/meet.
+ *
+ * `{"type":"CHAT_SEND","roomId":..,"text":..}` from a member becomes one
+ * `CHAT` frame, serialized once and broadcast to the room as is. The last
+ * {@code historySize} frames of each room stay in an {@link EventRing}, so a
+ * JOIN gets `CHAT_HISTORY` without touching the database; a room this node has
+ * no ring for is loaded from chat_messages once, by {@link #preload} on the
+ * socket's thread before the JOIN reaches the room's actor. Persistence is
+ * write-behind through {@link ChatWriter}.
+ *
+ * Apart from {@link #preload} and frames arriving from other nodes, only
+ * called from the room's actor; each backlog is guarded by its own lock.
+ */
+@Component
+public class RoomChat {
+
+    private static final String CHAT_PREFIX = "{\"type\":\"CHAT\"";
+
+    private static final class Backlog {
+        final EventRing ring;
+        long seq;
+
+        Backlog(int size) {
+            ring = new EventRing(size);
+        }
+
+        synchronized void add(String frame) {
+            ring.add(++seq, frame);
+        }
+
+        synchronized String toHistory(String roomIdJson) {
+            var sb = new StringBuilder("{\"type\":\"CHAT_HISTORY\",\"roomId\":").append(roomIdJson)
+                    .append(",\"messages\":[");
+            boolean[] first = { true };
+            ring.replayAfter(ring.oldestSeq() - 1, frame -> {
+                if (!first[0]) {
+                    sb.append(',');
+                }
+                sb.append(frame);
+                first[0] = false;
+            });
+            return sb.append("]}").toString();
+        }
+    }
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final RoomBroadcaster broadcaster;
+    private final ChatWriter writer;
+    private final int historySize;
+    private final int maxLength;
+
+    private final Map<String, Backlog> backlogs;
+
+    public RoomChat(RoomBroadcaster broadcaster, ChatWriter writer, ClusterBackplane cluster,
+            @Value("${app.meet.chat.history-size}") int historySize,
+            @Value("${app.meet.chat.max-length}") int maxLength,
+            @Value("${app.meet.chat.max-rooms}") int maxRooms) {
+        this.broadcaster = broadcaster;
+        this.writer = writer;
+        this.historySize = historySize;
+        this.maxLength = maxLength;
+        this.backlogs = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Backlog> eldest) {
+                return size() > maxRooms;
+            }
+        });
+        // messages sent on other nodes: keep backlogs this node already has in step
+        cluster.onMessage(m -> {
+            if (m.payload().startsWith(CHAT_PREFIX)) {
+                Backlog b = backlogs.get(m.roomId());
+                if (b != null) {
+                    b.add(m.payload());
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the error to answer with, or null once sent
+     */
+    String send(String roomId, AppUser me, WebSocketSession session, JsonNode request) throws IOException {
+        String text = request.path("text").asText("").strip();
+        if (text.isEmpty()) {
+            return "EMPTY_MESSAGE";
+        }
+        if (text.length() > maxLength) {
+            return "MESSAGE_TOO_LONG";
+        }
+
+        var msg = new ChatWriter.Message(UUID.randomUUID().toString(), roomId, me.getId(), me.getName(), text,
+                Instant.now());
+        String frame = frame(msg);
+
+        backlog(roomId).add(frame);
+        broadcaster.broadcast(roomId, frame, me.getId());
+        writer.enqueue(msg);
+
+        var ack = om.createObjectNode();
+        if (request.hasNonNull("reqId")) {
+            ack.set("reqId", request.get("reqId"));
+        }
+        ack.put("type", "CHAT_SENT");
+        ack.put("id", msg.messageId());
+        ack.put("sentAt", msg.sentAt().toString());
+        session.sendMessage(new TextMessage(ack.toString()));
+        return null;
+    }
+
+    void sendHistory(String roomId, WebSocketSession session) throws IOException {
+        session.sendMessage(new TextMessage(backlog(roomId).toHistory(om.valueToTree(roomId).toString())));
+    }
+
+    /**
+     * Loads the room's history from chat_messages unless this node has it.
+     * Blocks on the database, so it runs on the socket's thread, never on a
+     * room actor; concurrent cold loads of one room keep the first.
+     */
+    void preload(String roomId) {
+        if (backlogs.containsKey(roomId)) {
+            return;
+        }
+        Backlog b = new Backlog(historySize);
+        try {
+            for (var m : writer.recent(roomId, historySize)) {
+                b.add(frame(m));
+            }
+        } catch (RuntimeException e) {
+            // serve live messages now, try the history again on the next JOIN
+            return;
+        }
+        backlogs.putIfAbsent(roomId, b);
+    }
+
+    /**
+     * Called on the room's actor, so never loads. A room without a backlog
+     * (its load failed, or it was evicted since) gets an empty one that is
+     * not kept, leaving the next JOIN's {@link #preload} to fill it.
+     */
+    private Backlog backlog(String roomId) {
+        Backlog b = backlogs.get(roomId);
+        return b != null ? b : new Backlog(historySize);
+    }
+
+    private String frame(ChatWriter.Message m) {
+        ObjectNode node = om.createObjectNode();
+        node.put("type", "CHAT");
+        node.put("roomId", m.roomId());
+        node.put("id", m.messageId());
+        node.put("userId", m.userId());
+        node.put("name", m.senderName());
+        node.put("text", m.body());
+        node.put("sentAt", m.sentAt().toString());
+        return node.toString();
+    }
+}
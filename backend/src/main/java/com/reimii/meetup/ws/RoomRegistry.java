@@ -2,42 +2,124 @@ package com.reimii.meetup.ws;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
 
+import com.reimii.meetup.audit.AuditLog;
+import com.reimii.meetup.audit.AuditType;
+import com.reimii.meetup.cluster.ClusterBackplane;
+
+/**
+ * Local (this node's) sessions per room. The cluster directory is kept in
+ * sync so other nodes know where to relay room broadcasts. A user's first
+ * session in a room and their last one leaving are audited.
+ */
 @Component
 public class RoomRegistry {
 
     private final Map<String, Map<Long, Set<WebSocketSession>>> rooms = new ConcurrentHashMap<>();
+    private final ClusterBackplane cluster;
+    private final AuditLog audit;
+
+    public RoomRegistry(ClusterBackplane cluster, AuditLog audit) {
+        this.cluster = cluster;
+        this.audit = audit;
+    }
 
     public void join(String roomId, Long userId, WebSocketSession session) {
-        rooms.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>())
-                .computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet())
+        rooms.computeIfAbsent(roomId, k -> {
+            cluster.joinRoom(k);
+            return new ConcurrentHashMap<>();
+        })
+                .computeIfAbsent(userId, k -> {
+                    audit.record(AuditType.ROOM_JOINED, userId, roomId);
+                    return ConcurrentHashMap.newKeySet();
+                })
                 .add(session);
     }
 
-    public void leave(String roomId, Long userId, WebSocketSession session) {
+    /**
+     * @return true if the user has no sessions left in the room
+     */
+    public boolean leave(String roomId, Long userId, WebSocketSession session) {
         var byUser = rooms.get(roomId);
         if (byUser == null) {
-            return;
+            return false;
         }
         var set = byUser.get(userId);
         if (set == null) {
-            return;
+            return false;
         }
         set.remove(session);
-        if (set.isEmpty()) {
-            byUser.remove(userId);
+        boolean userLeft = set.isEmpty();
+        if (userLeft && byUser.remove(userId, set)) {
+            audit.record(AuditType.ROOM_LEFT, userId, roomId);
+        }
+        if (byUser.isEmpty() && rooms.remove(roomId, byUser)) {
+            cluster.leaveRoom(roomId);
         }
-        if (byUser.isEmpty()) {
-            rooms.remove(roomId);
+        return userLeft;
+    }
+
+    /**
+     * True if the user has any local session in the room.
+     */
+    public boolean isPresent(String roomId, Long userId) {
+        var byUser = rooms.get(roomId);
+        return byUser != null && byUser.containsKey(userId);
+    }
+
+    public boolean isMember(String roomId, Long userId, WebSocketSession session) {
+        if (roomId == null) {
+            return false;
+        }
+        var byUser = rooms.get(roomId);
+        var set = byUser != null ? byUser.get(userId) : null;
+        return set != null && set.contains(session);
+    }
+
+    public void forEachSession(String roomId, BiConsumer<Long, WebSocketSession> action) {
+        var byUser = rooms.get(roomId);
+        if (byUser == null) {
+            return;
+        }
+        byUser.forEach((userId, set) -> set.forEach(s -> action.accept(userId, s)));
+    }
+
+    public Set<String> localRoomIds() {
+        return Set.copyOf(rooms.keySet());
+    }
+
+    public boolean isEmpty(String roomId) {
+        return !rooms.containsKey(roomId);
+    }
+
+    /**
+     * Rooms this session has joined.
+     */
+    public List<String> roomsOf(Long userId, WebSocketSession session) {
+        List<String> joined = new ArrayList<>();
+        for (var e : rooms.entrySet()) {
+            var set = e.getValue().get(userId);
+            if (set != null && set.contains(session)) {
+                joined.add(e.getKey());
+            }
         }
+        return joined;
     }
 
-    public void leaveAll(Long userId, WebSocketSession session) {
+    /**
+     * @return rooms the user no longer has any session in
+     */
+    public List<String> leaveAll(Long userId, WebSocketSession session) {
+        List<String> left = new ArrayList<>();
         for (var roomId : new ArrayList<>(rooms.keySet())) {
-            leave(roomId, userId, session);
+            if (leave(roomId, userId, session)) {
+                left.add(roomId);
+            }
         }
+        return left;
     }
 }
@@ -0,0 +1,131 @@
+package com.reimii.meetup.ws;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.reimii.meetup.users.AppUser;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Issues resume tokens and holds parked {@link ResumableSession}s for a
+ * short grace period after their socket drops. Whoever removes the token
+ * first (a RESUME or the grace timer) wins.
+ */
+@Component
+public class SessionResumption {
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, ResumableSession> byToken = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> graceTimers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ws-resume-grace");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final long graceMs;
+    private final int bufferSize;
+
+    public SessionResumption(@Value("${app.ws.resume.grace-ms}") long graceMs,
+            @Value("${app.ws.resume.buffer-size}") int bufferSize) {
+        this.graceMs = graceMs;
+        this.bufferSize = bufferSize;
+    }
+
+    public ResumableSession open(WebSocketSession transport) {
+        byte[] bytes = new byte[18];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        var session = new ResumableSession(transport, token, bufferSize);
+        byToken.put(token, session);
+        return session;
+    }
+
+    /**
+     * Keeps {@code session} resumable for the grace period, then runs
+     * {@code onExpire} (the deferred leave) unless it was resumed.
+     */
+    public void park(ResumableSession session, Runnable onExpire) {
+        session.park();
+        String token = session.getResumeToken();
+        var timeout = timer.schedule(() -> {
+            graceTimers.remove(token);
+            if (byToken.remove(token, session)) {
+                closeQuietly(session);
+                onExpire.run();
+            }
+        }, graceMs, TimeUnit.MILLISECONDS);
+        graceTimers.put(token, timeout);
+    }
+
+    /**
+     * Takes a parked (or still attached) session for {@code user}.
+     *
+     * @return null if the token is unknown, expired or belongs to someone else
+     */
+    public ResumableSession claim(String token, AppUser user) {
+        if (token == null) {
+            return null;
+        }
+        var session = byToken.remove(token);
+        if (session == null) {
+            return null;
+        }
+
+        var owner = (AppUser) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER);
+        if (owner == null || !owner.getId().equals(user.getId())) {
+            byToken.putIfAbsent(token, session);
+            return null;
+        }
+
+        var timeout = graceTimers.remove(token);
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        return session;
+    }
+
+    /**
+     * Re-registers a session after a successful resume.
+     */
+    public void reinstate(ResumableSession session) {
+        byToken.put(session.getResumeToken(), session);
+    }
+
+    /**
+     * Forgets a session for good (normal close or failed resume).
+     */
+    public void discard(ResumableSession session) {
+        byToken.remove(session.getResumeToken(), session);
+        var timeout = graceTimers.remove(session.getResumeToken());
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        closeQuietly(session);
+    }
+
+    private static void closeQuietly(ResumableSession session) {
+        try {
+            session.close(CloseStatus.GOING_AWAY);
+        } catch (Exception ignored) {
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+    }
+}
@@ -1,36 +1,71 @@
 package com.reimii.meetup.ws;
 
 import java.io.IOException;
-import java.net.URI;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.client.WebSocketConnectionManager;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.reimii.meetup.stats.JoinTrace;
+
+import jakarta.annotation.PreDestroy;
 
 /**
  * SfuBridge -------- Maintains a single outgoing WebSocket connection from
  * Spring -> SFU service (Node).
  *
  * It forwards client requests to the SFU and routes SFU responses back to the
- * originating client using a generated `reqId`.
+ * originating client using a generated `reqId`. Server-side components can
+ * also talk to the SFU directly through {@link #request}, which returns a
+ * future completed with the SFU reply.
  *
  * Requirements: - Add dependency: spring-boot-starter-websocket - SFU WS
- * running at ws://localhost:4000/sfu
+ * running at `app.sfu.url` (default ws://localhost:4000/sfu)
  */
 @Component
 public class SfuBridge {
 
-    private static final URI SFU_URI = URI.create("ws://localhost:4000/sfu");
+    private static final Logger log = LoggerFactory.getLogger(SfuBridge.class);
+
+    /**
+     * Request types a client may have forwarded. Everything else the SFU
+     * understands (room lifecycle, PEER_LEAVE, consumer policy) is the
+     * backend's to send.
+     */
+    static final Set<String> CLIENT_REQUESTS = Set.of("RTPCAPS_REQUEST", "CREATE_TRANSPORT", "CONNECT_TRANSPORT",
+            "PRODUCE", "CLOSE_PRODUCER", "CONSUME", "RESUME_CONSUMER");
+
+    /**
+     * Outbound frames are buffered per connection so that many threads can
+     * pipeline requests over the single SFU socket.
+     */
+    private static final int SEND_TIME_LIMIT_MS = 5_000;
+    private static final int SEND_BUFFER_BYTES = 512 * 1024;
 
     private final ObjectMapper om = new ObjectMapper();
 
@@ -41,22 +76,66 @@ public class SfuBridge {
     private final AtomicReference<WebSocketSession> sfuSessionRef = new AtomicReference<>();
 
     /**
-     * reqId -> origin client session
+     * reqId -> origin client session (and the room/user it was sent for).
+     * Answered with an ERROR if the SFU link drops or no reply comes within
+     * the request timeout.
+     */
+    private final ConcurrentHashMap<String, PendingForward> pendingByReqId = new ConcurrentHashMap<>();
+
+    private final List<SfuEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * reqId -> server-side request awaiting its reply
+     */
+    private final ConcurrentHashMap<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestSeq = new AtomicLong();
+
+    /**
+     * Replies are handed off here so callers never run on the socket read
+     * thread.
      */
-    private final ConcurrentHashMap<String, WebSocketSession> pendingByReqId = new ConcurrentHashMap<>();
+    private final ExecutorService completionExecutor = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "sfu-bridge-completion");
+        t.setDaemon(true);
+        return t;
+    });
 
     /**
      * Keeps the connection alive (auto-reconnect enabled).
      */
     private final WebSocketConnectionManager connectionManager;
 
-    public SfuBridge() {
+    private final Duration requestTimeout;
+
+    private final RoomRegistry rooms;
+    private final RoomBroadcaster broadcaster;
+
+    public SfuBridge(@Value("${app.sfu.url}") String sfuUrl,
+            @Value("${app.sfu.request-timeout-ms}") long requestTimeoutMs,
+            @Value("${app.sfu.bridge-secret}") String bridgeSecret,
+            RoomRegistry rooms, RoomBroadcaster broadcaster) {
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.rooms = rooms;
+        this.broadcaster = broadcaster;
+
         var client = new StandardWebSocketClient();
 
         this.connectionManager = new WebSocketConnectionManager(client, new TextWebSocketHandler() {
             @Override
             public void afterConnectionEstablished(WebSocketSession session) {
-                sfuSessionRef.set(session);
+                sfuSessionRef.set(new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_BYTES));
+
+                // identify as a bridge and re-subscribe to room events after a reconnect
+                request(null, "BRIDGE_HELLO", Map.of("secret", bridgeSecret), requestTimeout)
+                        .whenComplete((r, e) -> {
+                            if (e != null) {
+                                log.error("SFU did not accept this node as a bridge; check SFU_BRIDGE_SECRET", e);
+                            }
+                        });
+                for (String roomId : rooms.localRoomIds()) {
+                    request(roomId, "WATCH_ROOM", null, requestTimeout);
+                }
             }
 
             @Override
@@ -67,9 +146,14 @@ public class SfuBridge {
             @Override
             public void afterConnectionClosed(WebSocketSession session, org.springframework.web.socket.CloseStatus status) {
                 // drop current reference; manager will reconnect
-                sfuSessionRef.compareAndSet(session, null);
+                var current = sfuSessionRef.get();
+                if (current instanceof ConcurrentWebSocketSessionDecorator d && d.getDelegate() == session) {
+                    sfuSessionRef.compareAndSet(current, null);
+                }
+                failPendingRequests(new IOException("SFU_DISCONNECTED"));
+                failPendingForwards("SFU_DISCONNECTED");
             }
-        }, SFU_URI.toString());
+        }, sfuUrl);
 
         // ✅ reconnection
         this.connectionManager.setAutoStartup(true);
@@ -81,11 +165,23 @@ public class SfuBridge {
      * needs it.
      */
     public void onJoin(String roomId, Long userId) {
-        // no-op by default
+        // subscribes this node's link to the room's SFU events (NEW_PRODUCER, ...)
+        request(roomId, "WATCH_ROOM", null, requestTimeout);
     }
 
+    /**
+     * Frees the user's transports/producers/consumers on the SFU. The SFU
+     * drops the router as well once the room has no peers left.
+     */
     public void onLeave(String roomId, Long userId) {
-        // no-op by default
+        request(roomId, "PEER_LEAVE", Map.of("userId", userId), requestTimeout);
+        for (var l : listeners) {
+            l.onPeerLeft(roomId, userId);
+        }
+    }
+
+    public void addListener(SfuEventListener listener) {
+        listeners.add(listener);
     }
 
     public void onDisconnect(Long userId) {
@@ -93,7 +189,9 @@ public class SfuBridge {
     }
 
     /**
-     * Forwards a JSON payload from a client to SFU. Adds: reqId, roomId, userId
+     * Forwards a JSON payload from a client to SFU. Adds: reqId, roomId, userId.
+     * The client's own reqId is put back on the reply. Only
+     * {@link #CLIENT_REQUESTS} types are forwarded.
      */
     public void forward(String roomId, Long userId, WebSocketSession origin, String payload) throws IOException {
         var sfu = sfuSessionRef.get();
@@ -105,31 +203,182 @@ public class SfuBridge {
 
         Map<String, Object> msg = om.readValue(payload, new TypeReference<Map<String, Object>>() {
         });
-        msg.put("reqId", reqId);
+        if (!CLIENT_REQUESTS.contains(msg.get("type"))) {
+            throw new IOException("UNSUPPORTED_TYPE");
+        }
+        Object clientReqId = msg.put("reqId", reqId);
         msg.put("roomId", roomId);
         msg.put("userId", userId);
 
-        pendingByReqId.put(reqId, origin);
+        var pending = new PendingForward(origin, roomId, userId, clientReqId, JoinTrace.of(origin));
+        pendingByReqId.put(reqId, pending);
+        CompletableFuture.delayedExecutor(requestTimeout.toMillis(), TimeUnit.MILLISECONDS, completionExecutor)
+                .execute(() -> {
+                    if (pendingByReqId.remove(reqId, pending)) {
+                        failForward(pending, "SFU_TIMEOUT");
+                    }
+                });
+
+        try {
+            sfu.sendMessage(new TextMessage(om.writeValueAsString(msg)));
+        } catch (IOException | RuntimeException e) {
+            pendingByReqId.remove(reqId, pending);
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a server-originated request to the SFU and returns a future
+     * completed with the reply frame.
+     *
+     * Many requests may be outstanding at once; replies are correlated by
+     * `reqId` and completed on a dedicated executor. The future fails with
+     * {@link SfuRequestException} on an SFU `ERROR` reply, with a
+     * {@link java.util.concurrent.TimeoutException} after `timeout`, and with
+     * an {@link IOException} if the SFU is not connected or the link drops.
+     *
+     * @param body extra fields merged into the frame (may be null)
+     */
+    public CompletableFuture<JsonNode> request(String roomId, String type, Map<String, ?> body, Duration timeout) {
+        var future = new CompletableFuture<JsonNode>();
+
+        var sfu = sfuSessionRef.get();
+        if (sfu == null || !sfu.isOpen()) {
+            future.completeExceptionally(new IOException("SFU_NOT_CONNECTED"));
+            return future;
+        }
+
+        String reqId = "srv-" + requestSeq.incrementAndGet();
+
+        ObjectNode msg = om.createObjectNode();
+        if (body != null) {
+            msg.setAll((ObjectNode) om.valueToTree(body));
+        }
+        msg.put("type", type);
+        msg.put("reqId", reqId);
+        msg.put("roomId", roomId);
+
+        var pending = new PendingRequest(type, future);
+        pendingRequests.put(reqId, pending);
+        future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((r, e) -> pendingRequests.remove(reqId, pending));
+
+        try {
+            sfu.sendMessage(new TextMessage(om.writeValueAsString(msg)));
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
 
-        sfu.sendMessage(new TextMessage(om.writeValueAsString(msg)));
+        return future;
     }
 
     /**
      * Routes SFU responses back to the origin client if reqId is present. If no
-     * reqId, it's an event/broadcast (not implemented here).
+     * reqId, it's a room event and goes to this node's sessions in that room
+     * (every node watching the room receives its own copy from the SFU).
      */
     private void handleSfuMessage(String json) throws IOException {
-        Map<String, Object> msg = om.readValue(json, new TypeReference<Map<String, Object>>() {
-        });
-        Object reqIdObj = msg.get("reqId");
+        JsonNode msg = om.readTree(json);
+        JsonNode reqIdNode = msg.get("reqId");
+
+        if (reqIdNode != null && reqIdNode.isTextual()) {
+            String reqId = reqIdNode.asText();
 
-        if (reqIdObj instanceof String reqId) {
-            WebSocketSession origin = pendingByReqId.remove(reqId);
-            if (origin != null && origin.isOpen()) {
-                origin.sendMessage(new TextMessage(json));
+            PendingRequest pending = pendingRequests.remove(reqId);
+            if (pending != null) {
+                completionExecutor.execute(() -> pending.complete(msg));
+                return;
+            }
+
+            PendingForward forward = pendingByReqId.remove(reqId);
+            if (forward != null) {
+                for (var l : listeners) {
+                    l.onReply(forward.roomId(), forward.userId(), msg);
+                }
+                if (forward.origin().isOpen()) {
+                    if (forward.clientReqId() != null) {
+                        ((ObjectNode) msg).set("reqId", om.valueToTree(forward.clientReqId()));
+                    } else {
+                        ((ObjectNode) msg).remove("reqId");
+                    }
+                    forward.origin().sendMessage(new TextMessage(msg.toString()));
+                }
+                if (forward.trace() != null && forward.clientReqId() != null) {
+                    forward.trace().onReply(forward.clientReqId().toString(), msg.path("type").asText());
+                }
             }
             return;
         }
 
+        JsonNode roomId = msg.get("roomId");
+        if (roomId != null && roomId.isTextual()) {
+            JsonNode userId = msg.get("userId");
+            Long except = userId != null && userId.canConvertToLong() ? userId.asLong() : null;
+            for (var l : listeners) {
+                l.onRoomEvent(roomId.asText(), msg);
+            }
+            broadcaster.deliverLocal(roomId.asText(), json, except);
+        }
+    }
+
+    private void failPendingRequests(Throwable cause) {
+        for (var reqId : pendingRequests.keySet()) {
+            var pending = pendingRequests.remove(reqId);
+            if (pending != null) {
+                completionExecutor.execute(() -> pending.future().completeExceptionally(cause));
+            }
+        }
+    }
+
+    private void failPendingForwards(String error) {
+        for (var reqId : pendingByReqId.keySet()) {
+            var pending = pendingByReqId.remove(reqId);
+            if (pending != null) {
+                completionExecutor.execute(() -> failForward(pending, error));
+            }
+        }
+    }
+
+    /**
+     * Answers a forwarded request with an ERROR, under the client's reqId.
+     */
+    private void failForward(PendingForward forward, String error) {
+        var reply = om.createObjectNode();
+        if (forward.clientReqId() != null) {
+            reply.set("reqId", om.valueToTree(forward.clientReqId()));
+        }
+        reply.put("type", "ERROR");
+        reply.put("error", error);
+        if (forward.origin().isOpen()) {
+            try {
+                forward.origin().sendMessage(new TextMessage(reply.toString()));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("SFU error for user {} not delivered: {}", forward.userId(), e.toString());
+            }
+        }
+        if (forward.trace() != null && forward.clientReqId() != null) {
+            forward.trace().onReply(forward.clientReqId().toString(), "ERROR");
+        }
+    }
+
+    private record PendingForward(WebSocketSession origin, String roomId, Long userId, Object clientReqId,
+            JoinTrace trace) {
+    }
+
+    private record PendingRequest(String type, CompletableFuture<JsonNode> future) {
+
+        void complete(JsonNode reply) {
+            if ("ERROR".equals(reply.path("type").asText())) {
+                future.completeExceptionally(new SfuRequestException(type, reply.path("error").asText("UNKNOWN")));
+            } else {
+                future.complete(reply);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        connectionManager.stop();
+        completionExecutor.shutdown();
     }
 }
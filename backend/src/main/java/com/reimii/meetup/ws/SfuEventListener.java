@@ -0,0 +1,26 @@
+package com.reimii.meetup.ws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Observes SFU traffic passing through {@link SfuBridge}. Callbacks run on the
+ * SFU read thread and must not block.
+ */
+public interface SfuEventListener {
+
+    /**
+     * Room event pushed by the SFU (NEW_PRODUCER, PRODUCER_CLOSED,
+     * AUDIO_LEVELS, ...).
+     */
+    default void onRoomEvent(String roomId, JsonNode event) {
+    }
+
+    /**
+     * Reply to a frame forwarded on behalf of {@code userId}.
+     */
+    default void onReply(String roomId, Long userId, JsonNode reply) {
+    }
+
+    default void onPeerLeft(String roomId, Long userId) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.reimii.meetup.ws;
+
+/**
+ * Raised when the SFU answers a server-side request with an {@code ERROR}
+ * frame. The message is the SFU error code (e.g. {@code PRODUCER_NOT_FOUND}).
+ */
+public class SfuRequestException extends RuntimeException {
+
+    private final String type;
+
+    public SfuRequestException(String type, String error) {
+        super(error);
+        this.type = type;
+    }
+
+    /**
+     * Request type that failed (e.g. {@code CLOSE_PRODUCER}).
+     */
+    public String getType() {
+        return type;
+    }
+}
@@ -0,0 +1,96 @@
+package com.reimii.meetup.ws;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.reimii.meetup.meetings.Meeting;
+import com.reimii.meetup.meetings.MeetingRepository;
+import com.reimii.meetup.meetings.MeetingRooms;
+
+/**
+ * Creates SFU routers for scheduled meetings shortly before they start, so the
+ * first participants don't pay the router setup cost on their first
+ * RTPCAPS_REQUEST. Rooms that were warmed but are unused once the meeting has
+ * ended are closed again.
+ */
+@Component
+public class SfuRoomPrewarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(SfuRoomPrewarmer.class);
+
+    private final MeetingRepository meetings;
+    private final RoomRegistry rooms;
+    private final SfuBridge sfu;
+    private final Duration leadTime;
+    private final Duration requestTimeout;
+
+    /**
+     * roomId -> endsAt of the meeting it was warmed for
+     */
+    private final Map<String, Instant> warmed = new ConcurrentHashMap<>();
+
+    public SfuRoomPrewarmer(MeetingRepository meetings, RoomRegistry rooms, SfuBridge sfu,
+            @Value("${app.sfu.prewarm.lead-seconds}") long leadSeconds,
+            @Value("${app.sfu.request-timeout-ms}") long requestTimeoutMs) {
+        this.meetings = meetings;
+        this.rooms = rooms;
+        this.sfu = sfu;
+        this.leadTime = Duration.ofSeconds(leadSeconds);
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sfu.prewarm.scan-interval-ms}")
+    public void scan() {
+        Instant now = Instant.now();
+        closeEnded(now);
+        warmUpcoming(now);
+    }
+
+    private void warmUpcoming(Instant now) {
+        for (Meeting m : meetings.findByCreateVideoLinkTrueAndStartsAtBetweenOrderByStartsAtAsc(now, now.plus(leadTime))) {
+            String roomId = MeetingRooms.roomIdOf(m.getRoomUrl());
+            if (roomId == null) {
+                continue;
+            }
+
+            if (warmed.put(roomId, m.getEndsAt()) != null) {
+                continue; // already warm; endsAt refreshed in case the meeting moved
+            }
+
+            sfu.request(roomId, "CREATE_ROOM", null, requestTimeout).whenComplete((reply, e) -> {
+                if (e != null) {
+                    warmed.remove(roomId);
+                    log.debug("Pre-warm of room {} failed: {}", roomId, e.toString());
+                }
+            });
+        }
+    }
+
+    private void closeEnded(Instant now) {
+        for (var e : warmed.entrySet()) {
+            String roomId = e.getKey();
+            if (e.getValue().isAfter(now)) {
+                continue;
+            }
+
+            warmed.remove(roomId, e.getValue());
+            if (!rooms.isEmpty(roomId)) {
+                continue; // people are still in the call; the SFU cleans up when they leave
+            }
+
+            sfu.request(roomId, "CLOSE_ROOM", null, requestTimeout).whenComplete((reply, ex) -> {
+                if (ex != null) {
+                    log.debug("Closing room {} failed: {}", roomId, ex.toString());
+                }
+            });
+        }
+    }
+}
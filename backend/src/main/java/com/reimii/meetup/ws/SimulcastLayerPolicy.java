@@ -0,0 +1,58 @@
+package com.reimii.meetup.ws;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks the simulcast/SVC layers a receiver should get for one video consumer.
+ *
+ * A single tile (spotlight) gets the top spatial layer, a small grid one layer
+ * below unless it is the active speaker, and a large grid only the thumbnail
+ * layer. Large rooms never pull the top layer into a grid, and thumbnails in
+ * large grids also drop to a lower frame rate.
+ */
+@Component
+public class SimulcastLayerPolicy {
+
+    public record Layers(int spatial, int temporal) {
+    }
+
+    private final int smallGridTiles;
+    private final int largeRoomPeers;
+
+    public SimulcastLayerPolicy(@Value("${app.sfu.layers.small-grid-tiles}") int smallGridTiles,
+            @Value("${app.sfu.layers.large-room-peers}") int largeRoomPeers) {
+        this.smallGridTiles = smallGridTiles;
+        this.largeRoomPeers = largeRoomPeers;
+    }
+
+    /**
+     * @param tiles          video tiles the receiver currently shows
+     * @param roomSize       peers in the room
+     * @param activeSpeaker  whether the consumer's producer is the latest speaker
+     * @param spatialLayers  spatial layers the consumer offers (1 for plain video)
+     * @param temporalLayers temporal layers per spatial layer
+     */
+    public Layers choose(int tiles, int roomSize, boolean activeSpeaker, int spatialLayers, int temporalLayers) {
+        int top = Math.max(spatialLayers - 1, 0);
+        int topTemporal = Math.max(temporalLayers - 1, 0);
+
+        if (tiles <= 1) {
+            return new Layers(top, topTemporal);
+        }
+
+        int spatial;
+        if (tiles <= smallGridTiles) {
+            spatial = activeSpeaker ? top : Math.max(top - 1, 0);
+        } else {
+            spatial = 0;
+        }
+
+        if (roomSize >= largeRoomPeers) {
+            spatial = Math.min(spatial, Math.max(top - 1, 0));
+        }
+
+        int temporal = spatial == 0 && tiles > smallGridTiles * 2 ? Math.min(topTemporal, 1) : topTemporal;
+        return new Layers(spatial, temporal);
+    }
+}
@@ -0,0 +1,41 @@
+package com.reimii.meetup.ws;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * /ws/meet sessions on this node by user, whether or not they joined a room.
+ * Parked sessions stay registered until their grace period ends, so frames
+ * pushed meanwhile are replayed on RESUME.
+ */
+@Component
+public class UserSessions {
+
+    private final Map<Long, Set<ResumableSession>> byUser = new ConcurrentHashMap<>();
+
+    public void add(Long userId, ResumableSession session) {
+        byUser.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(session);
+    }
+
+    public void remove(Long userId, ResumableSession session) {
+        byUser.computeIfPresent(userId, (k, set) -> {
+            set.remove(session);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    public void forEach(Long userId, Consumer<ResumableSession> action) {
+        var set = byUser.get(userId);
+        if (set != null) {
+            set.forEach(action);
+        }
+    }
+
+    public boolean isConnected(Long userId) {
+        return byUser.containsKey(userId);
+    }
+}
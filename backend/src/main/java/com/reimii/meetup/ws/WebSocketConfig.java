@@ -2,20 +2,29 @@ package com.reimii.meetup.ws;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.*;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
 @Configuration
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final MeetWsHandler handler;
+    private final JwtHandshakeInterceptor authInterceptor;
 
-    public WebSocketConfig(MeetWsHandler handler) {
+    public WebSocketConfig(MeetWsHandler handler, JwtHandshakeInterceptor authInterceptor) {
         this.handler = handler;
+        this.authInterceptor = authInterceptor;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Browsers passing the token as a subprotocol need it echoed back
+        var handshakeHandler = new DefaultHandshakeHandler();
+        handshakeHandler.setSupportedProtocols(JwtHandshakeInterceptor.BEARER_SUBPROTOCOL);
+
         registry.addHandler(handler, "/ws/meet")
+                .setHandshakeHandler(handshakeHandler)
+                .addInterceptors(authInterceptor)
                 .setAllowedOriginPatterns("*");
     }
 }
@@ -0,0 +1,134 @@
+package com.reimii.meetup.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Sustained append rate with several producer threads standing in for room
+ * actors and request threads, on small segments so rotation is part of the
+ * measurement. Producers retry when the queue is full, so the rate is what
+ * the single writer keeps up with. Everything written is then read back in
+ * order, and a log torn mid-record picks up where the last intact record left
+ * off.
+ *
+ * The throughput run is tagged "load" and so skipped by a plain mvn test (it
+ * fills the queue on purpose); run it with
+ * {@code mvn test -Dtest=AuditLogBenchmarkTest -DexcludedTestGroups=none}.
+ * The recovery test always runs.
+ */
+class AuditLogBenchmarkTest {
+
+    private static final int PRODUCERS = 8;
+    private static final int EVENTS_PER_PRODUCER = 250_000;
+    private static final int SEGMENT_BYTES = 8 * 1024 * 1024;
+    private static final int QUEUE_CAPACITY = 65_536;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @Tag("load")
+    void sustainedEventsPerSecond() throws Exception {
+        long total = (long) PRODUCERS * EVENTS_PER_PRODUCER;
+        var audit = new AuditLog(dir.toString(), SEGMENT_BYTES, QUEUE_CAPACITY, 1_000);
+        var retries = new AtomicLong();
+        var start = new CountDownLatch(1);
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long userId = p + 1;
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    AuditType type = i % 2 == 0 ? AuditType.ROOM_JOINED : AuditType.ROOM_LEFT;
+                    while (!audit.record(type, userId, "/meetup-3f2b8c1e-" + (i % 1000))) {
+                        retries.incrementAndGet();
+                        Thread.onSpinWait();
+                    }
+                }
+            }, "audit-producer-" + p);
+            t.start();
+            producers.add(t);
+        }
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread t : producers) {
+            t.join();
+        }
+        while (audit.written() < total) {
+            Thread.sleep(1);
+        }
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        audit.shutdown();
+
+        System.out.printf("audit log: %d events from %d threads in %.2fs = %.0f events/s, %d retries on a full "
+                + "queue, %d segments%n", total, PRODUCERS, seconds, total / seconds, retries.get(),
+                AuditLogReader.segments(dir).size());
+
+        var lastByUser = new long[PRODUCERS + 1];
+        var expectedSeq = new AtomicLong(1);
+        long read = new AuditLogReader(dir).read(0, r -> {
+            assertEquals(expectedSeq.getAndIncrement(), r.seq());
+            assertTrue(r.at() >= lastByUser[(int) r.userId()], "per-producer order kept");
+            lastByUser[(int) r.userId()] = r.at();
+        });
+        assertEquals(total, read);
+        assertTrue(AuditLogReader.segments(dir).size() > 1, "segments rotated");
+    }
+
+    @Test
+    void recoversAfterTornRecord() throws Exception {
+        var audit = new AuditLog(dir.toString(), SEGMENT_BYTES, QUEUE_CAPACITY, 1_000);
+        for (int i = 0; i < 100; i++) {
+            audit.record(AuditType.MEETING_UPDATED, 7L, String.valueOf(i));
+        }
+        while (audit.written() < 100) {
+            Thread.sleep(1);
+        }
+        audit.shutdown();
+
+        // scribble over the middle of record 61 as a crash mid-write would leave it
+        Path segment = AuditLogReader.segments(dir).get(0);
+        List<Long> offsets = new ArrayList<>();
+        long offset = 0;
+        for (int i = 0; i < 100; i++) {
+            offsets.add(offset);
+            offset += AuditRecord.HEADER + AuditRecord.FIXED_BODY + String.valueOf(i).length();
+        }
+        try (var ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), offsets.get(60) + AuditRecord.HEADER + 4);
+        }
+
+        var reopened = new AuditLog(dir.toString(), SEGMENT_BYTES, QUEUE_CAPACITY, 1_000);
+        reopened.record(AuditType.MEETING_DELETED, 7L, "after");
+        while (reopened.written() < 1) {
+            Thread.sleep(1);
+        }
+        reopened.shutdown();
+
+        List<AuditRecord> records = new ArrayList<>();
+        new AuditLogReader(dir).read(0, records::add);
+        assertEquals(61, records.size());
+        assertEquals(61, records.get(60).seq());
+        assertEquals(AuditType.MEETING_DELETED, records.get(60).type());
+        assertEquals("59", records.get(59).subject());
+    }
+}
@@ -0,0 +1,59 @@
+package com.reimii.meetup.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class RevokedTokensTest {
+
+    private static final int EXPECTED = 10_000;
+
+    @Test
+    void revokedJtisAreFoundAndOthersPass() {
+        var revoked = new RevokedTokens(mock(RevokedTokenRepository.class), EXPECTED, 0.01);
+        Instant exp = Instant.now().plusSeconds(900);
+
+        List<String> jtis = new ArrayList<>();
+        for (int i = 0; i < EXPECTED; i++) {
+            String jti = UUID.randomUUID().toString();
+            jtis.add(jti);
+            revoked.revoke(jti, exp);
+        }
+        jtis.forEach(jti -> assertTrue(revoked.isRevoked(jti)));
+
+        // Bloom false positives still fall through to the exact set
+        for (int i = 0; i < 100_000; i++) {
+            assertFalse(revoked.isRevoked(UUID.randomUUID().toString()));
+        }
+        assertTrue(revoked.isRevoked(null));
+    }
+
+    @Test
+    void entriesLeaveWithTheirTokens() throws Exception {
+        var repo = mock(RevokedTokenRepository.class);
+        when(repo.deleteExpired(any())).thenReturn(1);
+        var revoked = new RevokedTokens(repo, EXPECTED, 0.01);
+
+        revoked.revoke("short", Instant.now().plusMillis(50));
+        revoked.revoke("long", Instant.now().plusSeconds(900));
+        revoked.revoke("gone", Instant.now().minusSeconds(1));
+        assertEquals(2, revoked.size());
+
+        Thread.sleep(100);
+        revoked.sweep();
+
+        assertEquals(1, revoked.size());
+        assertFalse(revoked.isRevoked("short"));
+        assertTrue(revoked.isRevoked("long"));
+    }
+}
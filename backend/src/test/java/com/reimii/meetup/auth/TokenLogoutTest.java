@@ -0,0 +1,75 @@
+package com.reimii.meetup.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.reimii.meetup.users.AppUser;
+import com.reimii.meetup.users.PrincipalCache;
+
+/**
+ * Logout as the web client sends it: the access token in the header and the
+ * refresh token in the body. The access jti is also the family's current
+ * one, so it is revoked twice within the same request; only one row may be
+ * written for it.
+ */
+class TokenLogoutTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef-logout";
+
+    @Test
+    void logoutWithBothTokensRevokesOnceAndDropsTheFamily() {
+        var jwt = new JwtService(SECRET, 900);
+        var revokedRepo = mock(RevokedTokenRepository.class);
+        var revoked = new RevokedTokens(revokedRepo, 1_000, 0.01);
+
+        List<RefreshToken> family = new ArrayList<>();
+        var refreshRepo = mock(RefreshTokenRepository.class);
+        when(refreshRepo.save(any(RefreshToken.class))).thenAnswer(inv -> {
+            family.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(refreshRepo.findForUpdate(anyString())).thenAnswer(inv -> family.stream()
+                .filter(t -> t.getTokenHash().equals(inv.getArgument(0))).findFirst());
+        when(refreshRepo.findByFamilyId(anyString())).thenAnswer(inv -> List.copyOf(family));
+        when(refreshRepo.deleteFamily(anyString())).thenAnswer(inv -> {
+            int n = family.size();
+            family.clear();
+            return n;
+        });
+
+        var user = new AppUser();
+        user.setId(7L);
+        user.setEmail("logout@example.com");
+        var principals = mock(PrincipalCache.class);
+        when(principals.get(7L)).thenReturn(user);
+
+        var refreshTokens = new RefreshTokens(refreshRepo, jwt, revoked, principals, 3600, 86400);
+        var controller = new TokenController(refreshTokens, revoked, jwt);
+
+        var pair = refreshTokens.issue(user);
+        String jti = jwt.parse(pair.accessToken()).getPayload().getId();
+
+        var res = controller.logout("Bearer " + pair.accessToken(),
+                new TokenController.RefreshRequest(pair.refreshToken()));
+
+        assertEquals(204, res.getStatusCode().value());
+        assertTrue(revoked.isRevoked(jti));
+        verify(revokedRepo, times(1)).insertIgnore(eq(jti), any(), any());
+        verify(refreshRepo).deleteFamily(anyString());
+        assertTrue(family.isEmpty());
+        assertNull(refreshTokens.rotate(pair.refreshToken()));
+    }
+}
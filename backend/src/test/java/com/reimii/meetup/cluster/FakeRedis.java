@@ -0,0 +1,180 @@
+package com.reimii.meetup.cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for the handful of Redis commands
+ * {@link RedisClusterBackplane} uses, over real sockets. Key expiry is not
+ * modelled; {@link #expire} drops a key as if its TTL ran out.
+ */
+final class FakeRedis implements AutoCloseable {
+
+    private final ServerSocket server = new ServerSocket(0);
+    private final Map<String, Set<String>> sets = new ConcurrentHashMap<>();
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final Map<String, Set<Client>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+
+    private final class Client {
+
+        final OutputStream out;
+
+        Client(OutputStream out) {
+            this.out = out;
+        }
+
+        synchronized void send(Object reply) throws IOException {
+            writeReply(out, reply);
+            out.flush();
+        }
+    }
+
+    FakeRedis() throws IOException {
+        Thread accept = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket s = server.accept();
+                    sockets.add(s);
+                    Thread t = new Thread(() -> serve(s), "fake-redis-conn");
+                    t.setDaemon(true);
+                    t.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }, "fake-redis-accept");
+        accept.setDaemon(true);
+        accept.start();
+    }
+
+    String url() {
+        return "redis://localhost:" + server.getLocalPort();
+    }
+
+    void expire(String key) {
+        strings.remove(key);
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            var client = new Client(new BufferedOutputStream(socket.getOutputStream()));
+            while (true) {
+                List<String> cmd = readCommand(in);
+                if (cmd == null) {
+                    return;
+                }
+                handle(client, cmd);
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void handle(Client c, List<String> cmd) throws IOException {
+        String op = cmd.get(0).toUpperCase();
+        switch (op) {
+            case "SADD" -> c.send((long) (sets.computeIfAbsent(cmd.get(1), k -> ConcurrentHashMap.newKeySet())
+                    .add(cmd.get(2)) ? 1 : 0));
+            case "SREM" -> {
+                var set = sets.get(cmd.get(1));
+                c.send((long) (set != null && set.remove(cmd.get(2)) ? 1 : 0));
+            }
+            case "SMEMBERS" -> c.send(new ArrayList<Object>(sets.getOrDefault(cmd.get(1), Set.of())));
+            case "SET" -> {
+                strings.put(cmd.get(1), cmd.get(2));
+                c.send("+OK");
+            }
+            case "DEL" -> c.send((long) (strings.remove(cmd.get(1)) != null ? 1 : 0));
+            case "MGET" -> {
+                List<Object> values = new ArrayList<>();
+                for (int i = 1; i < cmd.size(); i++) {
+                    values.add(strings.get(cmd.get(i)));
+                }
+                c.send(values);
+            }
+            case "PUBLISH" -> {
+                var subs = subscribers.getOrDefault(cmd.get(1), Set.of());
+                for (Client s : subs) {
+                    s.send(List.of("message", cmd.get(1), cmd.get(2)));
+                }
+                c.send((long) subs.size());
+            }
+            case "SUBSCRIBE" -> {
+                for (int i = 1; i < cmd.size(); i++) {
+                    subscribers.computeIfAbsent(cmd.get(i), k -> ConcurrentHashMap.newKeySet()).add(c);
+                    c.send(List.of("subscribe", cmd.get(i), (long) i));
+                }
+            }
+            default -> c.send(new IllegalArgumentException("ERR unknown command " + op));
+        }
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            return null;
+        }
+        int n = Integer.parseInt(readLine(in));
+        List<String> args = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            in.read(); // '$'
+            int len = Integer.parseInt(readLine(in));
+            args.add(new String(in.readNBytes(len), StandardCharsets.UTF_8));
+            in.read();
+            in.read();
+        }
+        return args;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        var sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            sb.append((char) c);
+        }
+        in.read();
+        return sb.toString();
+    }
+
+    private static void writeReply(OutputStream out, Object reply) throws IOException {
+        if (reply == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+        } else if (reply instanceof Long l) {
+            out.write((":" + l + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        } else if (reply instanceof IllegalArgumentException e) {
+            out.write(("-" + e.getMessage() + "\r\n").getBytes(StandardCharsets.UTF_8));
+        } else if (reply instanceof String s && s.startsWith("+")) {
+            out.write((s + "\r\n").getBytes(StandardCharsets.UTF_8));
+        } else if (reply instanceof String s) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            out.write(("$" + b.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(b);
+            out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        } else if (reply instanceof List<?> list) {
+            out.write(("*" + list.size() + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            for (Object o : list) {
+                writeReply(out, o);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Socket s : sockets) {
+            s.close();
+        }
+    }
+}
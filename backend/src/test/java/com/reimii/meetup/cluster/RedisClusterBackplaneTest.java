@@ -0,0 +1,76 @@
+package com.reimii.meetup.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Two nodes that share nothing but a Redis server: room directory, message
+ * delivery, and cleanup after a node leaves or dies without leaving.
+ */
+class RedisClusterBackplaneTest {
+
+    private final FakeRedis redis;
+    private final RedisClusterBackplane a;
+    private final RedisClusterBackplane b;
+
+    RedisClusterBackplaneTest() throws Exception {
+        redis = new FakeRedis();
+        a = new RedisClusterBackplane(redis.url(), 2_000, "test", "a");
+        b = new RedisClusterBackplane(redis.url(), 2_000, "test", "b");
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        a.close();
+        b.close();
+        redis.close();
+    }
+
+    @Test
+    void nodesSeeEachOthersRoomsAndMessages() throws Exception {
+        var received = new LinkedBlockingQueue<ClusterMessage>();
+        b.onMessage(received::add);
+
+        a.joinRoom("r1");
+        assertEquals(Set.of("a"), a.nodesFor("r1"));
+        b.joinRoom("r1");
+        // b's join evicts a's cached lookup through the directory channel
+        awaitEquals(Set.of("a", "b"), () -> a.nodesFor("r1"));
+
+        a.send("b", new ClusterMessage("a", "r1", "{\"type\":\"PEER_JOINED\"}", 7L));
+        var m = received.poll(2, TimeUnit.SECONDS);
+        assertEquals(new ClusterMessage("a", "r1", "{\"type\":\"PEER_JOINED\"}", 7L), m);
+
+        b.leaveRoom("r1");
+        awaitEquals(Set.of("a"), () -> a.nodesFor("r1"));
+    }
+
+    @Test
+    void deadNodesAreDroppedFromRooms() throws Exception {
+        a.joinRoom("r1");
+        b.joinRoom("r1");
+        awaitEquals(Set.of("a", "b"), () -> a.nodesFor("r1"));
+
+        // b crashes: no leave, its heartbeat expires
+        redis.expire("test:alive:b");
+        // rejoining evicts a's cached membership so the next lookup rereads it
+        a.leaveRoom("r1");
+        a.joinRoom("r1");
+        awaitEquals(Set.of("a"), () -> a.nodesFor("r1"));
+    }
+
+    private static void awaitEquals(Set<String> expected, Supplier<Set<String>> actual) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!expected.equals(actual.get()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, actual.get());
+    }
+}
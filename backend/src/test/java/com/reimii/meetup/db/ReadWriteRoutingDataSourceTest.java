@@ -0,0 +1,101 @@
+package com.reimii.meetup.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.reimii.meetup.db.ReadWriteRoutingDataSource.Route;
+import com.reimii.meetup.users.AppUser;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Routing decisions without a database: the pools are mocks, transactions
+ * are simulated through the synchronization flags the transaction manager
+ * sets. Against real instances, point app.datasource.replica.url at a
+ * second local MySQL and watch /db/pools.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final HikariDataSource primary = mock(HikariDataSource.class);
+    private final HikariDataSource replica = mock(HikariDataSource.class);
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(60_000);
+    private final ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, readYourWrites);
+
+    @AfterEach
+    void clear() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        inTransaction(true);
+        assertEquals(Route.REPLICA, routing.route());
+
+        inTransaction(false);
+        assertEquals(Route.PRIMARY, routing.route());
+    }
+
+    @Test
+    void workOutsideTransactionsGoesToPrimary() {
+        assertEquals(Route.PRIMARY, routing.route());
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimary() {
+        signIn(7L);
+        inTransaction(true);
+        assertEquals(Route.REPLICA, routing.route());
+
+        inTransaction(false);
+        routing.route();
+
+        inTransaction(true);
+        assertEquals(Route.PRIMARY, routing.route());
+
+        signIn(8L);
+        assertEquals(Route.REPLICA, routing.route());
+        assertEquals(1, routing.counts().stickyReads());
+    }
+
+    @Test
+    void withoutReplicaEverythingGoesToPrimary() {
+        var single = new ReadWriteRoutingDataSource(primary, null, readYourWrites);
+        inTransaction(true);
+        assertEquals(Route.PRIMARY, single.route());
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenReplicaIsDown() throws SQLException {
+        Connection conn = mock(Connection.class);
+        when(replica.getConnection()).thenThrow(new SQLException("replica down"));
+        when(primary.getConnection()).thenReturn(conn);
+
+        inTransaction(true);
+        assertSame(conn, routing.getConnection());
+        assertEquals(1, routing.counts().replicaFallbacks());
+    }
+
+    private static void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static void signIn(long userId) {
+        var user = new AppUser();
+        user.setId(userId);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
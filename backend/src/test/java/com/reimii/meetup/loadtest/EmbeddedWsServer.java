@@ -0,0 +1,97 @@
+package com.reimii.meetup.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Lifecycle;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.websocket.server.WsSci;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+import org.springframework.web.socket.server.support.WebSocketHttpRequestHandler;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Bare Tomcat serving Spring WebSocket handlers on an ephemeral port, without
+ * an application context.
+ */
+final class EmbeddedWsServer implements AutoCloseable {
+
+    private final Tomcat tomcat = new Tomcat();
+    private final Context context;
+    private int servlets;
+
+    /**
+     * @param port 0 for an ephemeral one
+     */
+    EmbeddedWsServer(int port) throws IOException {
+        File baseDir = Files.createTempDirectory("loadtest-tomcat").toFile();
+        tomcat.setBaseDir(baseDir.getAbsolutePath());
+        tomcat.setPort(port);
+        tomcat.getConnector().setProperty("maxConnections", "20000");
+        context = tomcat.addContext("", baseDir.getAbsolutePath());
+        context.addServletContainerInitializer(new WsSci(), null);
+    }
+
+    EmbeddedWsServer add(String path, WebSocketHandler handler, String subprotocol,
+            HandshakeInterceptor... interceptors) {
+        var handshake = new DefaultHandshakeHandler();
+        if (subprotocol != null) {
+            handshake.setSupportedProtocols(subprotocol);
+        }
+        var upgrade = new WebSocketHttpRequestHandler(handler, handshake);
+        for (var i : interceptors) {
+            upgrade.getHandshakeInterceptors().add(i);
+        }
+        upgrade.start();
+
+        String name = "ws-" + servlets++;
+        Tomcat.addServlet(context, name, new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                try {
+                    upgrade.handleRequest(req, res);
+                } catch (jakarta.servlet.ServletException e) {
+                    throw new IOException(e);
+                }
+            }
+        });
+        context.addServletMappingDecoded(path, name);
+        return this;
+    }
+
+    /**
+     * Runs {@code action} as the server begins stopping, before Tomcat checks
+     * for threads left behind by the handlers.
+     */
+    EmbeddedWsServer onStop(Runnable action) {
+        context.addLifecycleListener(e -> {
+            if (Lifecycle.BEFORE_STOP_EVENT.equals(e.getType())) {
+                action.run();
+            }
+        });
+        return this;
+    }
+
+    EmbeddedWsServer start() throws LifecycleException {
+        tomcat.start();
+        return this;
+    }
+
+    int port() {
+        return tomcat.getConnector().getLocalPort();
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
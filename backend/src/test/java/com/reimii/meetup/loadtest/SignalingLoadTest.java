@@ -0,0 +1,326 @@
+package com.reimii.meetup.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import com.reimii.meetup.audit.AuditLog;
+import com.reimii.meetup.auth.JwtService;
+import com.reimii.meetup.auth.RevokedTokenRepository;
+import com.reimii.meetup.auth.RevokedTokens;
+import com.reimii.meetup.chat.ChatWriter;
+import com.reimii.meetup.cluster.InMemoryClusterBackplane;
+import com.reimii.meetup.meetings.RoomAccessCache;
+import com.reimii.meetup.ratelimit.RateLimits;
+import com.reimii.meetup.stats.JoinTracer;
+import com.reimii.meetup.stats.LatencyHistogram;
+import com.reimii.meetup.users.AppUser;
+import com.reimii.meetup.users.PrincipalCache;
+import com.reimii.meetup.users.UserRepository;
+import com.reimii.meetup.ws.ForwardingController;
+import com.reimii.meetup.ws.IdleSessionReaper;
+import com.reimii.meetup.ws.JwtHandshakeInterceptor;
+import com.reimii.meetup.ws.MeetWsHandler;
+import com.reimii.meetup.ws.RoomActors;
+import com.reimii.meetup.ws.RoomBroadcaster;
+import com.reimii.meetup.ws.RoomChat;
+import com.reimii.meetup.ws.RoomRegistry;
+import com.reimii.meetup.ws.SessionResumption;
+import com.reimii.meetup.ws.SfuBridge;
+import com.reimii.meetup.ws.SimulcastLayerPolicy;
+import com.reimii.meetup.ws.UserSessions;
+
+/**
+ * Capacity of one backend node on the /ws/meet signaling path.
+ *
+ * Runs the real handler stack (handshake interceptor, room actors, SFU
+ * bridge, forwarding controller) configured from application.properties on
+ * an embedded Tomcat, with repositories mocked and a {@link StandInSfu}
+ * behind the bridge. Synthetic clients with generated JWTs do the full
+ * JOIN/produce/consume flow in rooms of {@code peers} participants; the
+ * room count doubles each step until join p95 breaks the SLO or requests
+ * fail. Reports join latency, per-message round trips and the last
+ * sustainable step.
+ *
+ * Tunable with -Dloadtest.* (see the fields). With -Dloadtest.target=ws://host/ws/meet
+ * and -Dloadtest.jwt-secret the clients hit a running backend instead; its
+ * users and rooms (loadtest.room-prefix + n) must exist, and it can be
+ * pointed at the stand-in SFU listening on -Dloadtest.sfu-port.
+ *
+ * Tagged "load" and so skipped by a plain mvn test; run it with
+ * {@code mvn test -Dtest=SignalingLoadTest -DexcludedTestGroups=none}.
+ */
+@Tag("load")
+class SignalingLoadTest {
+
+    private static final int START_ROOMS = Integer.getInteger("loadtest.start-rooms", 4);
+    private static final int MAX_ROOMS = Integer.getInteger("loadtest.max-rooms", 32);
+    private static final int PEERS = Integer.getInteger("loadtest.peers", 4);
+    private static final long SFU_LATENCY_MS = Long.getLong("loadtest.sfu-latency-ms", 2);
+    private static final long SFU_JITTER_MS = Long.getLong("loadtest.sfu-jitter-ms", 3);
+    private static final long JOIN_P95_SLO_MS = Long.getLong("loadtest.join-p95-slo-ms", 1_000);
+    private static final long RAMP_MS = Long.getLong("loadtest.ramp-ms", 1_000);
+    private static final String TARGET = System.getProperty("loadtest.target");
+    private static final String SECRET = System.getProperty("loadtest.jwt-secret",
+            "0123456789abcdef0123456789abcdef-load");
+    private static final long FIRST_USER_ID = Long.getLong("loadtest.first-user-id", 1_000_000);
+    private static final String ROOM_PREFIX = System.getProperty("loadtest.room-prefix", "meetup-load-");
+    private static final int SFU_PORT = Integer.getInteger("loadtest.sfu-port", 0);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{[^:}]+:([^}]*)}");
+
+    private record Step(int rooms, LatencyHistogram join, long consumed, long errors, long failedJoins,
+            boolean sustainable) {
+    }
+
+    @Test
+    void peakSustainableRoomsPerNode() throws Exception {
+        var sfu = new StandInSfu(SFU_LATENCY_MS, SFU_JITTER_MS);
+        var sfuServer = new EmbeddedWsServer(SFU_PORT).add("/sfu", sfu, null).onStop(sfu::shutdown).start();
+
+        // every join traced, for the server-side breakdown of the join time
+        var tracer = new JoinTracer(1.0, 5, 60_000);
+        EmbeddedWsServer backend = null;
+        URI target;
+        if (TARGET != null) {
+            target = URI.create(TARGET);
+        } else {
+            backend = backendNode(sfuServer.port(), tracer).start();
+            target = URI.create("ws://localhost:" + backend.port() + "/ws/meet");
+        }
+
+        var jwt = new JwtService(SECRET, 3600);
+        var http = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(4, daemon("loadtest-client"))).build();
+        Map<String, LatencyHistogram> rtt = new ConcurrentHashMap<>();
+
+        List<Step> steps = new ArrayList<>();
+        try {
+            long nextUser = FIRST_USER_ID;
+            for (int rooms = START_ROOMS; rooms <= MAX_ROOMS; rooms *= 2) {
+                Step step = runStep(http, target, jwt, rooms, nextUser, rtt);
+                nextUser += (long) rooms * PEERS;
+                steps.add(step);
+                System.out.printf("load step: %d rooms x %d peers: join %s, %d consumers, %d failed joins, "
+                        + "%d failed requests -> %s%n", rooms, PEERS, step.join().summary(), step.consumed(),
+                        step.failedJoins(), step.errors(),
+                        step.sustainable() ? "ok" : "over capacity");
+                if (!step.sustainable()) {
+                    break;
+                }
+                awaitDrained(sfu);
+            }
+        } finally {
+            if (backend != null) {
+                backend.close();
+            }
+            sfuServer.close();
+        }
+
+        new TreeMap<>(rtt).forEach((type, h) -> System.out.printf("  rtt %-18s %s%n", type, h.summary()));
+        if (backend != null) {
+            tracer.current().phases().forEach((phase, s) -> System.out.printf(
+                    "  server %-16s n=%d p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms%n",
+                    phase, s.count(), s.p50Ms(), s.p95Ms(), s.p99Ms(), s.maxMs()));
+        }
+        int peak = steps.stream().filter(Step::sustainable).mapToInt(Step::rooms).max().orElse(0);
+        System.out.printf("peak sustainable: %d rooms (%d participants) per node at join p95 <= %d ms, "
+                + "stand-in SFU latency %d+%d ms%n", peak, peak * PEERS, JOIN_P95_SLO_MS, SFU_LATENCY_MS,
+                SFU_JITTER_MS);
+
+        Step first = steps.get(0);
+        assertEquals(0, first.failedJoins(), "every client of the first step must complete the flow");
+        assertEquals((long) first.rooms() * PEERS, first.join().count());
+        assertTrue(first.consumed() > 0, "NEW_PRODUCER events must reach the other peers");
+    }
+
+    private Step runStep(HttpClient http, URI target, JwtService jwt, int rooms, long firstUser,
+            Map<String, LatencyHistogram> rtt) throws Exception {
+        var join = new LatencyHistogram();
+        var errors = new AtomicLong();
+        var failedJoins = new AtomicLong();
+        long consumesBefore = count(rtt, "RESUME_CONSUMER");
+        long consumed = 0;
+
+        List<SyntheticClient> clients = new ArrayList<>();
+        for (int r = 0; r < rooms; r++) {
+            for (int p = 0; p < PEERS; p++) {
+                clients.add(new SyntheticClient(firstUser + (long) r * PEERS + p, ROOM_PREFIX + r, REQUEST_TIMEOUT,
+                        rtt, errors));
+            }
+        }
+
+        // spread connects and joins over the ramp instead of one burst
+        ScheduledExecutorService ramp = Executors.newSingleThreadScheduledExecutor(daemon("loadtest-ramp"));
+        List<CompletableFuture<?>> flows = new ArrayList<>();
+        try {
+            for (int i = 0; i < clients.size(); i++) {
+                var c = clients.get(i);
+                long at = RAMP_MS * i / clients.size();
+                var flow = new CompletableFuture<Void>();
+                ramp.schedule(() -> c.connect(http, target, jwt.createToken(c.userId(), c.userId() + "@load.test"))
+                        .thenCompose(SyntheticClient::join)
+                        .whenComplete((nanos, e) -> {
+                            if (e != null) {
+                                failedJoins.incrementAndGet();
+                            } else {
+                                join.recordNanos(nanos);
+                            }
+                            flow.complete(null);
+                        }), at, TimeUnit.MILLISECONDS);
+                flows.add(flow);
+            }
+            CompletableFuture.allOf(flows.toArray(CompletableFuture[]::new))
+                    .get(RAMP_MS + REQUEST_TIMEOUT.toMillis() * 10, TimeUnit.MILLISECONDS);
+
+            // let the consume flows triggered by the last NEW_PRODUCERs finish
+            long deadline = System.currentTimeMillis() + REQUEST_TIMEOUT.toMillis();
+            while (!clients.stream().allMatch(SyntheticClient::idle) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            consumed = count(rtt, "RESUME_CONSUMER") - consumesBefore;
+        } finally {
+            ramp.shutdownNow();
+            for (var c : clients) {
+                try {
+                    c.leave().get(2, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    c.abort();
+                }
+            }
+        }
+
+        boolean sustainable = failedJoins.get() == 0 && errors.get() == 0
+                && join.percentileMs(0.95) <= JOIN_P95_SLO_MS;
+        return new Step(rooms, join, consumed, errors.get(), failedJoins.get(), sustainable);
+    }
+
+    private static long count(Map<String, LatencyHistogram> rtt, String type) {
+        var h = rtt.get(type);
+        return h != null ? h.count() : 0;
+    }
+
+    private static void awaitDrained(StandInSfu sfu) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (sfu.roomCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * One backend node's /ws/meet stack, wired as Spring would from
+     * application.properties, minus the database.
+     */
+    private static EmbeddedWsServer backendNode(int sfuPort, JoinTracer tracer) throws IOException, InterruptedException {
+        Properties p = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+
+        var backplane = new InMemoryClusterBackplane("loadtest-" + UUID.randomUUID(), "node-1");
+        var rooms = new RoomRegistry(backplane, mock(AuditLog.class, withSettings().stubOnly()));
+        var broadcaster = new RoomBroadcaster(rooms, backplane);
+        long sfuTimeout = longProp(p, "app.sfu.request-timeout-ms");
+        var sfu = new SfuBridge("ws://localhost:" + sfuPort + "/sfu", sfuTimeout, "", rooms, broadcaster);
+        var reaper = new IdleSessionReaper(longProp(p, "app.ws.heartbeat.interval-ms"),
+                longProp(p, "app.ws.heartbeat.timeout-ms"), longProp(p, "app.ws.heartbeat.tick-ms"));
+        var actors = new RoomActors((int) longProp(p, "app.ws.room-workers"));
+        var resumption = new SessionResumption(longProp(p, "app.ws.resume.grace-ms"),
+                (int) longProp(p, "app.ws.resume.buffer-size"));
+        var limits = new RateLimits(
+                doubleProp(p, "app.ratelimit.rest.per-second"), (int) longProp(p, "app.ratelimit.rest.burst"),
+                doubleProp(p, "app.ratelimit.ws.per-second"), (int) longProp(p, "app.ratelimit.ws.burst"),
+                doubleProp(p, "app.ratelimit.sfu-room.per-second"), (int) longProp(p, "app.ratelimit.sfu-room.burst"));
+        var layers = new SimulcastLayerPolicy((int) longProp(p, "app.sfu.layers.small-grid-tiles"),
+                (int) longProp(p, "app.sfu.layers.large-room-peers"));
+        var forwarding = new ForwardingController(sfu, actors, layers, (int) longProp(p, "app.sfu.forwarding.last-n"),
+                sfuTimeout);
+
+        var roomAccess = mock(RoomAccessCache.class);
+        when(roomAccess.canJoin(any(), any())).thenReturn(true);
+        var users = mock(UserRepository.class);
+        when(users.findById(anyLong())).thenAnswer(inv -> {
+            var u = new AppUser();
+            u.setId(inv.getArgument(0));
+            u.setEmail(u.getId() + "@load.test");
+            u.setName("load " + u.getId());
+            return Optional.of(u);
+        });
+
+        // the bridge connects on its own; wait so the first JOINs find it up
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            try {
+                sfu.request(null, "BRIDGE_HELLO", null, Duration.ofSeconds(1)).get();
+                break;
+            } catch (Exception e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("stand-in SFU not reachable", e);
+                }
+                Thread.sleep(100);
+            }
+        }
+
+        var chat = new RoomChat(broadcaster, mock(ChatWriter.class), backplane,
+                (int) longProp(p, "app.meet.chat.history-size"), (int) longProp(p, "app.meet.chat.max-length"),
+                (int) longProp(p, "app.meet.chat.max-rooms"));
+        var handler = new MeetWsHandler(rooms, sfu, reaper, roomAccess, actors, broadcaster, resumption, limits,
+                forwarding, new UserSessions(), chat);
+        var interceptor = new JwtHandshakeInterceptor(new JwtService(SECRET, 3600), new PrincipalCache(users, 100_000, 3600),
+                new RevokedTokens(mock(RevokedTokenRepository.class), 1_000, 0.01), tracer);
+
+        return new EmbeddedWsServer(0).add("/ws/meet", handler, JwtHandshakeInterceptor.BEARER_SUBPROTOCOL, interceptor);
+    }
+
+    private static long longProp(Properties p, String key) {
+        return Long.parseLong(resolve(p, key));
+    }
+
+    private static double doubleProp(Properties p, String key) {
+        return Double.parseDouble(resolve(p, key));
+    }
+
+    /**
+     * `${ENV:default}` resolves to its default, as with no env var set.
+     */
+    private static String resolve(Properties p, String key) {
+        String raw = p.getProperty(key);
+        if (raw == null) {
+            throw new IllegalStateException("missing " + key);
+        }
+        return PLACEHOLDER.matcher(raw.trim()).replaceAll("$1");
+    }
+
+    private static java.util.concurrent.ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
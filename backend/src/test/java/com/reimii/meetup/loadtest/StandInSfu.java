@@ -0,0 +1,324 @@
+package com.reimii.meetup.loadtest;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Speaks the sfu/server.js protocol with bookkeeping only: no routers, no
+ * RTP. Transports, producers and consumers are ids in maps, replies carry
+ * placeholder parameters, and every reply or room event is delayed by
+ * {@code latencyMs} plus up to {@code jitterMs} to stand in for mediasoup's
+ * worker round trip.
+ */
+final class StandInSfu extends TextWebSocketHandler {
+
+    private static final class Peer {
+        final Set<String> transports = ConcurrentHashMap.newKeySet();
+        final Map<String, String> producers = new ConcurrentHashMap<>(); // id -> kind
+        final Set<String> consumers = ConcurrentHashMap.newKeySet();
+    }
+
+    private static final class Room {
+        final Map<Long, Peer> peers = new ConcurrentHashMap<>();
+    }
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final long latencyMs;
+    private final long jitterMs;
+
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    private final Map<String, WebSocketSession> sockets = new ConcurrentHashMap<>();
+
+    /**
+     * socket id -> rooms it watches (joined, in server.js terms).
+     */
+    private final Map<String, Set<String>> watching = new ConcurrentHashMap<>();
+    private final Set<String> bridges = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final ScheduledExecutorService delay = Executors.newScheduledThreadPool(2, r -> {
+        Thread t = new Thread(r, "stand-in-sfu");
+        t.setDaemon(true);
+        return t;
+    });
+
+    StandInSfu(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    int roomCount() {
+        return rooms.size();
+    }
+
+    void shutdown() {
+        delay.shutdownNow();
+        try {
+            delay.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sockets.put(session.getId(), new ConcurrentWebSocketSessionDecorator(session, 5_000, 1024 * 1024));
+        watching.put(session.getId(), ConcurrentHashMap.newKeySet());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sockets.remove(session.getId());
+        watching.remove(session.getId());
+        bridges.remove(session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        requests.incrementAndGet();
+        JsonNode msg = om.readTree(message.getPayload());
+        String socketId = session.getId();
+        String type = msg.path("type").asText();
+        String roomId = msg.path("roomId").asText(null);
+        long userId = msg.path("userId").asLong(0);
+
+        ObjectNode reply = om.createObjectNode();
+        if (msg.hasNonNull("reqId")) {
+            reply.set("reqId", msg.get("reqId"));
+        }
+
+        if ("BRIDGE_HELLO".equals(type)) {
+            bridges.add(socketId);
+            send(socketId, reply.put("type", "BRIDGE_WELCOME"));
+            return;
+        }
+        if (roomId == null) {
+            send(socketId, error(reply, "NO_ROOM_ID"));
+            return;
+        }
+
+        switch (type) {
+            case "CREATE_ROOM" -> {
+                rooms.computeIfAbsent(roomId, k -> new Room());
+                send(socketId, reply.put("type", "ROOM_CREATED").put("roomId", roomId));
+                return;
+            }
+            case "CLOSE_ROOM" -> {
+                Room existing = rooms.get(roomId);
+                if (existing != null && !existing.peers.isEmpty()) {
+                    send(socketId, error(reply, "ROOM_NOT_EMPTY"));
+                    return;
+                }
+                rooms.remove(roomId);
+                send(socketId, reply.put("type", "ROOM_CLOSED").put("roomId", roomId));
+                return;
+            }
+            case "PEER_LEAVE" -> {
+                Room existing = rooms.get(roomId);
+                Peer peer = existing != null ? existing.peers.remove(userId) : null;
+                if (peer != null) {
+                    peer.producers.keySet().forEach(p -> broadcast(roomId, socketId, producerClosed(roomId, userId, p)));
+                }
+                if (existing != null && existing.peers.isEmpty()) {
+                    rooms.remove(roomId, existing);
+                }
+                send(socketId, reply.put("type", "PEER_LEFT").put("roomId", roomId).put("userId", userId));
+                return;
+            }
+            case "GET_ROOM_STATS" -> {
+                Room existing = rooms.get(roomId);
+                if (existing == null) {
+                    send(socketId, error(reply, "ROOM_NOT_FOUND"));
+                    return;
+                }
+                reply.put("type", "ROOM_STATS").put("roomId", roomId);
+                var counts = reply.putObject("counts");
+                counts.put("peers", existing.peers.size());
+                counts.put("producers", existing.peers.values().stream().mapToInt(p -> p.producers.size()).sum());
+                counts.put("consumers", existing.peers.values().stream().mapToInt(p -> p.consumers.size()).sum());
+                send(socketId, reply);
+                return;
+            }
+            default -> {
+            }
+        }
+
+        Room room = rooms.computeIfAbsent(roomId, k -> new Room());
+        watching.get(socketId).add(roomId);
+
+        switch (type) {
+            case "WATCH_ROOM" -> send(socketId, reply.put("type", "ROOM_WATCHED").put("roomId", roomId));
+            case "UPDATE_CONSUMERS", "SET_CONSUMERS_PAUSED" -> send(socketId,
+                    reply.put("type", "CONSUMERS_UPDATED").put("roomId", roomId)
+                            .put("applied", msg.path("updates").size()));
+            case "RTPCAPS_REQUEST" -> {
+                reply.put("type", "RTPCAPS_RESPONSE").put("roomId", roomId);
+                var codecs = reply.putObject("rtpCapabilities").putArray("codecs");
+                codecs.addObject().put("kind", "audio").put("mimeType", "audio/opus").put("clockRate", 48000);
+                codecs.addObject().put("kind", "video").put("mimeType", "video/VP8").put("clockRate", 90000);
+                send(socketId, reply);
+            }
+            default -> onPeerRequest(socketId, room, roomId, userId, type, msg, reply);
+        }
+    }
+
+    private void onPeerRequest(String socketId, Room room, String roomId, long userId, String type, JsonNode msg,
+            ObjectNode reply) {
+        if (userId == 0) {
+            send(socketId, error(reply, "NO_USER_ID"));
+            return;
+        }
+        Peer peer = room.peers.computeIfAbsent(userId, k -> new Peer());
+
+        switch (type) {
+            case "CREATE_TRANSPORT" -> {
+                String id = UUID.randomUUID().toString();
+                peer.transports.add(id);
+                reply.put("type", "TRANSPORT_CREATED").put("roomId", roomId)
+                        .put("direction", msg.path("direction").asText());
+                var params = reply.putObject("params");
+                params.put("id", id);
+                params.putObject("iceParameters").put("usernameFragment", "stand-in").put("password", "stand-in");
+                params.putArray("iceCandidates");
+                params.putObject("dtlsParameters").put("role", "auto").putArray("fingerprints");
+                send(socketId, reply);
+            }
+            case "CONNECT_TRANSPORT" -> {
+                if (!peer.transports.contains(msg.path("transportId").asText())) {
+                    send(socketId, error(reply, "TRANSPORT_NOT_FOUND"));
+                    return;
+                }
+                send(socketId, reply.put("type", "TRANSPORT_CONNECTED").put("transportId", msg.path("transportId").asText()));
+            }
+            case "PRODUCE" -> {
+                if (!peer.transports.contains(msg.path("transportId").asText())) {
+                    send(socketId, error(reply, "TRANSPORT_NOT_FOUND"));
+                    return;
+                }
+                String id = UUID.randomUUID().toString();
+                String kind = msg.path("kind").asText("audio");
+                peer.producers.put(id, kind);
+                send(socketId, reply.put("type", "PRODUCED").put("producerId", id));
+
+                ObjectNode event = om.createObjectNode();
+                event.put("type", "NEW_PRODUCER").put("roomId", roomId).put("producerId", id).put("kind", kind);
+                layers(event, kind);
+                event.put("userId", userId);
+                broadcast(roomId, socketId, event);
+            }
+            case "CLOSE_PRODUCER" -> {
+                String id = msg.path("producerId").asText();
+                if (peer.producers.remove(id) == null) {
+                    send(socketId, error(reply, "PRODUCER_NOT_FOUND"));
+                    return;
+                }
+                send(socketId, reply.put("type", "PRODUCER_CLOSED_ACK").put("producerId", id));
+                broadcast(roomId, socketId, producerClosed(roomId, userId, id));
+            }
+            case "CONSUME" -> {
+                if (!peer.transports.contains(msg.path("transportId").asText())) {
+                    send(socketId, error(reply, "TRANSPORT_NOT_FOUND"));
+                    return;
+                }
+                String producerId = msg.path("producerId").asText();
+                Long producerUserId = null;
+                String kind = null;
+                for (var e : room.peers.entrySet()) {
+                    String k = e.getValue().producers.get(producerId);
+                    if (k != null) {
+                        producerUserId = e.getKey();
+                        kind = k;
+                    }
+                }
+                if (kind == null) {
+                    send(socketId, error(reply, "CANNOT_CONSUME"));
+                    return;
+                }
+                String id = UUID.randomUUID().toString();
+                peer.consumers.add(id);
+                reply.put("type", "CONSUMED").put("consumerId", id).put("producerId", producerId)
+                        .put("producerUserId", producerUserId).put("kind", kind)
+                        .put("consumerType", "video".equals(kind) ? "simulcast" : "simple");
+                layers(reply, kind);
+                reply.putObject("rtpParameters");
+                send(socketId, reply);
+            }
+            case "RESUME_CONSUMER" -> {
+                String id = msg.path("consumerId").asText();
+                if (!peer.consumers.contains(id)) {
+                    send(socketId, error(reply, "CONSUMER_NOT_FOUND"));
+                    return;
+                }
+                send(socketId, reply.put("type", "CONSUMER_RESUMED").put("consumerId", id));
+            }
+            default -> send(socketId, error(reply, "UNKNOWN_TYPE"));
+        }
+    }
+
+    private static void layers(ObjectNode node, String kind) {
+        boolean video = "video".equals(kind);
+        node.putObject("layers").put("spatial", video ? 3 : 1).put("temporal", video ? 3 : 1);
+    }
+
+    private ObjectNode producerClosed(String roomId, long userId, String producerId) {
+        return om.createObjectNode().put("type", "PRODUCER_CLOSED").put("roomId", roomId)
+                .put("userId", userId).put("producerId", producerId);
+    }
+
+    private static ObjectNode error(ObjectNode reply, String error) {
+        return reply.put("type", "ERROR").put("error", error);
+    }
+
+    /**
+     * Same rule as server.js: every socket watching the room, the sender
+     * only if it is a backend bridge.
+     */
+    private void broadcast(String roomId, String fromSocketId, ObjectNode event) {
+        for (var e : watching.entrySet()) {
+            if (e.getValue().contains(roomId) && (!e.getKey().equals(fromSocketId) || bridges.contains(e.getKey()))) {
+                send(e.getKey(), event);
+            }
+        }
+    }
+
+    private void send(String socketId, ObjectNode payload) {
+        String json = payload.toString();
+        long d = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        Runnable task = () -> {
+            var s = sockets.get(socketId);
+            if (s != null && s.isOpen()) {
+                try {
+                    s.sendMessage(new TextMessage(json));
+                } catch (Exception ignored) {
+                    // socket went away mid-send
+                }
+            }
+        };
+        if (d <= 0) {
+            task.run();
+        } else {
+            delay.schedule(task, d, TimeUnit.MILLISECONDS);
+        }
+    }
+}
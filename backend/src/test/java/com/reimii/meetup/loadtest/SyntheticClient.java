@@ -0,0 +1,206 @@
+package com.reimii.meetup.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.reimii.meetup.stats.LatencyHistogram;
+
+/**
+ * One participant driving /ws/meet the way the web client does: JOIN, router
+ * capabilities, send and recv transports, one audio and one video producer,
+ * then CONSUME + RESUME_CONSUMER for every NEW_PRODUCER announced in the room
+ * once its recv transport exists (producers announced before that are missed,
+ * as in the web client: the protocol has no listing of existing producers).
+ *
+ * Fully asynchronous on the shared {@link HttpClient}, so thousands of
+ * clients need no thread each. Every request/reply pair is timed into the
+ * histogram for its type.
+ */
+final class SyntheticClient implements WebSocket.Listener {
+
+    private static final ObjectMapper OM = new ObjectMapper();
+
+    private final long userId;
+    private final String roomId;
+    private final Duration timeout;
+    private final Map<String, LatencyHistogram> rtt;
+    private final AtomicLong errors;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger seq = new AtomicInteger();
+    private final StringBuilder partial = new StringBuilder();
+
+    private WebSocket ws;
+    private CompletableFuture<WebSocket> sendChain;
+    private volatile String recvTransportId;
+
+    private record Pending(String type, long sentAt, CompletableFuture<JsonNode> reply) {
+    }
+
+    SyntheticClient(long userId, String roomId, Duration timeout, Map<String, LatencyHistogram> rtt,
+            AtomicLong errors) {
+        this.userId = userId;
+        this.roomId = roomId;
+        this.timeout = timeout;
+        this.rtt = rtt;
+        this.errors = errors;
+    }
+
+    long userId() {
+        return userId;
+    }
+
+    boolean idle() {
+        return pending.isEmpty();
+    }
+
+    CompletableFuture<SyntheticClient> connect(HttpClient http, URI uri, String token) {
+        return http.newWebSocketBuilder()
+                .header("Authorization", "Bearer " + token)
+                .connectTimeout(timeout)
+                .buildAsync(uri, this)
+                .thenApply(socket -> {
+                    ws = socket;
+                    sendChain = CompletableFuture.completedFuture(socket);
+                    return this;
+                });
+    }
+
+    /**
+     * Full join flow up to both producers created; completes with the time it
+     * took in nanoseconds.
+     */
+    CompletableFuture<Long> join() {
+        long start = System.nanoTime();
+        return request("JOIN", null)
+                .thenCompose(r -> request("RTPCAPS_REQUEST", null))
+                .thenCompose(r -> request("CREATE_TRANSPORT", Map.of("direction", "send")))
+                .thenCompose(send -> {
+                    String sendId = send.path("params").path("id").asText();
+                    return request("CONNECT_TRANSPORT", Map.of("transportId", sendId, "dtlsParameters", Map.of()))
+                            .thenCompose(r -> request("CREATE_TRANSPORT", Map.of("direction", "recv")))
+                            .thenCompose(recv -> {
+                                recvTransportId = recv.path("params").path("id").asText();
+                                return request("CONNECT_TRANSPORT",
+                                        Map.of("transportId", recvTransportId, "dtlsParameters", Map.of()));
+                            })
+                            .thenCompose(r -> CompletableFuture.allOf(
+                                    request("PRODUCE", Map.of("transportId", sendId, "kind", "audio",
+                                            "rtpParameters", Map.of())),
+                                    request("PRODUCE", Map.of("transportId", sendId, "kind", "video",
+                                            "rtpParameters", Map.of()))));
+                })
+                .thenApply(r -> System.nanoTime() - start);
+    }
+
+    CompletableFuture<Void> leave() {
+        if (ws == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return enqueue(socket -> socket.sendClose(WebSocket.NORMAL_CLOSURE, "bye")).thenApply(s -> null);
+    }
+
+    void abort() {
+        if (ws != null) {
+            ws.abort();
+        }
+    }
+
+    private CompletableFuture<JsonNode> request(String type, Map<String, Object> body) {
+        String reqId = userId + "-" + seq.incrementAndGet();
+        ObjectNode msg = body != null ? OM.valueToTree(body) : OM.createObjectNode();
+        msg.put("type", type).put("reqId", reqId).put("roomId", roomId);
+
+        var reply = new CompletableFuture<JsonNode>();
+        pending.put(reqId, new Pending(type, System.nanoTime(), reply));
+        reply.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((r, e) -> {
+                    pending.remove(reqId);
+                    if (e != null) {
+                        errors.incrementAndGet();
+                    }
+                });
+
+        String json = msg.toString();
+        enqueue(socket -> socket.sendText(json, true))
+                .exceptionally(e -> {
+                    reply.completeExceptionally(e);
+                    return null;
+                });
+        return reply;
+    }
+
+    /**
+     * java.net.http allows one outstanding send per socket.
+     */
+    private synchronized CompletableFuture<WebSocket> enqueue(Function<WebSocket, CompletableFuture<WebSocket>> send) {
+        sendChain = sendChain.thenCompose(send);
+        return sendChain;
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+        partial.append(data);
+        if (last) {
+            String json = partial.toString();
+            partial.setLength(0);
+            try {
+                onMessage(OM.readTree(json));
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+        }
+        socket.request(1);
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket socket, Throwable error) {
+        pending.values().forEach(p -> p.reply().completeExceptionally(error));
+    }
+
+    private void onMessage(JsonNode msg) {
+        String type = msg.path("type").asText();
+        String reqId = msg.path("reqId").asText(null);
+
+        if (reqId != null) {
+            Pending p = pending.remove(reqId);
+            if (p == null) {
+                return;
+            }
+            rtt.computeIfAbsent(p.type(), k -> new LatencyHistogram()).recordNanos(System.nanoTime() - p.sentAt());
+            if ("ERROR".equals(type)) {
+                p.reply().completeExceptionally(new IllegalStateException(p.type() + ": " + msg.path("error").asText()));
+            } else {
+                p.reply().complete(msg);
+            }
+            return;
+        }
+
+        if ("PING".equals(type)) {
+            enqueue(socket -> socket.sendText("{\"type\":\"PONG\"}", true));
+            return;
+        }
+
+        if ("NEW_PRODUCER".equals(type) && msg.path("userId").asLong() != userId && recvTransportId != null) {
+            request("CONSUME", Map.of("transportId", recvTransportId,
+                    "producerId", msg.path("producerId").asText(), "rtpCapabilities", Map.of()))
+                    .thenCompose(c -> request("RESUME_CONSUMER", Map.of("consumerId", c.path("consumerId").asText())))
+                    .exceptionally(e -> null);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.reimii.meetup.meetings;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Range queries over users with hundreds of series that have been running for
+ * years: expansion must only touch the requested window, and agree with a
+ * brute-force walk from each series' first occurrence.
+ */
+class RecurrenceRangeBenchmarkTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+    private static final int USERS = 50;
+    private static final int SERIES_PER_USER = 300;
+    private static final int ROUNDS = 20;
+
+    @Test
+    void weekWindowOverLongRunningSeries() {
+        var seriesRepo = mock(MeetingSeriesRepository.class);
+        var overrideRepo = mock(MeetingSeriesOverrideRepository.class);
+        when(overrideRepo.findInWindow(anyCollection(), any(), any(), any())).thenReturn(List.of());
+
+        LocalDate firstDay = LocalDate.now(ZONE).minusYears(5);
+        for (long user = 1; user <= USERS; user++) {
+            List<MeetingSeries> list = new ArrayList<>();
+            for (int k = 0; k < SERIES_PER_USER; k++) {
+                list.add(series(user, k, firstDay));
+            }
+            when(seriesRepo.findActive(eq(user), any(), any())).thenReturn(list);
+        }
+
+        var recurring = new RecurringMeetings(seriesRepo, overrideRepo);
+
+        LocalDate monday = LocalDate.now(ZONE).with(DayOfWeek.MONDAY);
+        Instant from = monday.atStartOfDay(ZONE).toInstant();
+        Instant to = monday.plusWeeks(1).atStartOfDay(ZONE).toInstant();
+
+        // daily: 7, weekly Mon/Wed/Fri: 3, monthly: 0 or 1 per week
+        long perUserMin = SERIES_PER_USER / 3 * (7 + 3);
+        long checked = 0;
+
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (long user = 1; user <= USERS; user++) {
+                long n = recurring.occurrences(user, from, to).count();
+                assertTrue(n >= perUserMin, "user " + user + " got " + n);
+                checked += n;
+            }
+        }
+        long elapsedNs = System.nanoTime() - start;
+
+        // lazy expansion matches a walk from the first occurrence
+        for (MeetingSeries s : seriesRepo.findActive(1L, from, to)) {
+            long lazy = count(Recurrence.starts(s, from, to));
+            long brute = 0;
+            var all = Recurrence.starts(s, s.getFirstStartsAt(), to);
+            while (all.hasNext()) {
+                Instant t = all.next();
+                if (t.plusSeconds(s.getDurationSeconds()).isAfter(from)) {
+                    brute++;
+                }
+            }
+            assertEquals(brute, lazy, s.getFrequency() + " series " + s.getTitle());
+        }
+
+        long queries = (long) USERS * ROUNDS;
+        System.out.printf("recurrence range: %d queries over %d series each, %d occurrences in %d ms (%.1f us/query)%n",
+                queries, SERIES_PER_USER, checked, TimeUnit.NANOSECONDS.toMillis(elapsedNs),
+                elapsedNs / 1e3 / queries);
+    }
+
+    private static MeetingSeries series(long user, int k, LocalDate firstDay) {
+        var s = new MeetingSeries();
+        s.setOwnerUserId(user);
+        s.setTitle("series-" + k);
+        s.setTimeZone(ZONE.getId());
+        s.setFirstStartsAt(ZonedDateTime.of(firstDay, LocalTime.of(9, 0).plusMinutes(k % 480), ZONE).toInstant());
+        s.setDurationSeconds(Duration.ofMinutes(30).toSeconds());
+        switch (k % 3) {
+            case 0 -> s.setFrequency(RecurrenceFrequency.DAILY);
+            case 1 -> {
+                s.setFrequency(RecurrenceFrequency.WEEKLY);
+                s.setByDays(Recurrence.dayBit(DayOfWeek.MONDAY) | Recurrence.dayBit(DayOfWeek.WEDNESDAY)
+                        | Recurrence.dayBit(DayOfWeek.FRIDAY));
+            }
+            default -> s.setFrequency(RecurrenceFrequency.MONTHLY);
+        }
+        return s;
+    }
+
+    private static long count(Iterator<Instant> it) {
+        long n = 0;
+        while (it.hasNext()) {
+            it.next();
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,89 @@
+package com.reimii.meetup.meetings;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import com.reimii.meetup.users.AppUser;
+
+/**
+ * An occurrence moved into the window from before it takes its original
+ * start's place in the merge instead of trailing the stream; one moved by its
+ * start alone keeps the series' duration.
+ */
+class RecurringMeetingsTest {
+
+    @Test
+    void movedInOccurrencesAreMergedByOriginalStart() {
+        var s = daily();
+
+        var o = new MeetingSeriesOverride();
+        o.setOriginalStartsAt(Instant.parse("2026-01-02T10:00:00Z"));
+        o.setStartsAt(Instant.parse("2026-01-12T08:00:00Z"));
+        o.setEndsAt(Instant.parse("2026-01-12T08:30:00Z"));
+        Map<Long, Map<Instant, MeetingSeriesOverride>> bySeries = new HashMap<>();
+        bySeries.put(s.getId(), Map.of(o.getOriginalStartsAt(), o));
+
+        var originals = RecurringMeetings.expand(List.of(s), bySeries, Instant.parse("2026-01-10T00:00:00Z"),
+                Instant.parse("2026-01-13T00:00:00Z")).map(RecurringMeetings.Occurrence::originalStartsAt).toList();
+
+        assertEquals(List.of(
+                Instant.parse("2026-01-02T10:00:00Z"),
+                Instant.parse("2026-01-10T10:00:00Z"),
+                Instant.parse("2026-01-11T10:00:00Z"),
+                Instant.parse("2026-01-12T10:00:00Z")), originals);
+    }
+
+    @Test
+    void occurrenceMovedOnlyByStartKeepsTheSeriesDuration() {
+        var s = spy(daily());
+        doReturn(3L).when(s).getId();
+        s.setOwnerUserId(7L);
+        var seriesRepo = mock(MeetingSeriesRepository.class);
+        when(seriesRepo.findById(3L)).thenReturn(Optional.of(s));
+        var overrideRepo = mock(MeetingSeriesOverrideRepository.class);
+        when(overrideRepo.findBySeriesIdAndOriginalStartsAt(any(), any())).thenReturn(Optional.empty());
+        var controller = new MeetingSeriesController(seriesRepo, overrideRepo, mock(RoomAccessCache.class));
+
+        var user = new AppUser();
+        user.setId(7L);
+        var res = controller.override(new UsernamePasswordAuthenticationToken(user, null, List.of()), 3L,
+                "2026-01-02T10:00:00Z", new OccurrenceOverrideRequest(false, "2026-03-01T15:00:00Z", null, null));
+        assertEquals(204, res.getStatusCode().value());
+
+        var saved = ArgumentCaptor.forClass(MeetingSeriesOverride.class);
+        verify(overrideRepo).save(saved.capture());
+        assertEquals(Instant.parse("2026-03-01T16:00:00Z"), saved.getValue().getEndsAt());
+
+        var moved = RecurringMeetings.expand(List.of(s), Map.of(3L, Map.of(saved.getValue().getOriginalStartsAt(),
+                saved.getValue())), Instant.parse("2026-03-01T14:00:00Z"), Instant.parse("2026-03-01T17:00:00Z"))
+                .filter(o -> o.originalStartsAt().equals(Instant.parse("2026-01-02T10:00:00Z"))).toList();
+        assertEquals(1, moved.size());
+        assertEquals(Instant.parse("2026-03-01T15:00:00Z"), moved.get(0).startsAt());
+    }
+
+    private static MeetingSeries daily() {
+        var s = new MeetingSeries();
+        s.setTitle("daily");
+        s.setTimeZone("UTC");
+        s.setFrequency(RecurrenceFrequency.DAILY);
+        s.setFirstStartsAt(Instant.parse("2026-01-01T10:00:00Z"));
+        s.setDurationSeconds(Duration.ofHours(1).toSeconds());
+        return s;
+    }
+}
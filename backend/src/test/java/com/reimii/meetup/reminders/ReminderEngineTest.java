@@ -0,0 +1,99 @@
+package com.reimii.meetup.reminders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.reimii.meetup.meetings.Meeting;
+import com.reimii.meetup.meetings.MeetingParticipantRepository;
+import com.reimii.meetup.meetings.MeetingRepository;
+import com.reimii.meetup.meetings.MeetingSeries;
+import com.reimii.meetup.meetings.RecurringMeetings;
+import com.reimii.meetup.users.UserRepository;
+import com.reimii.meetup.ws.UserSessions;
+
+/**
+ * A meeting inside the lead window stays in every reload's range until it
+ * starts; once its reminder has fired, reloads must not schedule it again.
+ */
+class ReminderEngineTest {
+
+    private static final long TICK_MS = 10;
+
+    private ReminderEngine engine;
+
+    @AfterEach
+    void stop() {
+        engine.shutdown();
+    }
+
+    @Test
+    void reloadAfterFiringDoesNotRemindAgain() {
+        Meeting m = mock(Meeting.class);
+        when(m.getId()).thenReturn(1L);
+        when(m.getTitle()).thenReturn("Standup");
+        when(m.getOwnerUserId()).thenReturn(7L);
+        when(m.getStartsAt()).thenReturn(Instant.now().plusSeconds(120));
+        when(m.getRoomUrl()).thenReturn("/meetup-1");
+
+        var meetings = mock(MeetingRepository.class);
+        when(meetings.findByStartsAtGreaterThanEqualAndStartsAtLessThanOrderByStartsAtAsc(any(), any()))
+                .thenReturn(List.of(m));
+        var sessions = mock(UserSessions.class);
+        when(sessions.isConnected(anyLong())).thenReturn(true);
+
+        // 5 minute lead: the meeting is already due
+        engine = new ReminderEngine(meetings, mock(MeetingParticipantRepository.class), mock(RecurringMeetings.class),
+                mock(UserRepository.class), sessions, 5, 60, TICK_MS);
+
+        engine.reload();
+        verify(sessions, timeout(2_000).times(1)).forEach(eq(7L), any());
+
+        engine.reload();
+        engine.reload();
+        verify(sessions, after(20 * TICK_MS).times(1)).forEach(eq(7L), any());
+
+        // moved: a new start is a new reminder
+        when(m.getStartsAt()).thenReturn(Instant.now().plusSeconds(180));
+        engine.reload();
+        verify(sessions, timeout(2_000).times(2)).forEach(eq(7L), any());
+    }
+
+    @Test
+    void recurringOccurrencesAreReminded() {
+        MeetingSeries s = mock(MeetingSeries.class);
+        when(s.getId()).thenReturn(3L);
+        when(s.getOwnerUserId()).thenReturn(7L);
+        when(s.getRoomUrl()).thenReturn("/meetup-s3");
+        Instant original = Instant.now().plusSeconds(60);
+        Instant start = original.plusSeconds(60);
+
+        var recurring = mock(RecurringMeetings.class);
+        when(recurring.occurrences(any(Instant.class), any(Instant.class))).thenAnswer(inv -> Stream.of(
+                new RecurringMeetings.Occurrence(s, original, start, start.plusSeconds(1800), "Weekly")));
+        var sessions = mock(UserSessions.class);
+        when(sessions.isConnected(anyLong())).thenReturn(true);
+
+        engine = new ReminderEngine(mock(MeetingRepository.class), mock(MeetingParticipantRepository.class),
+                recurring, mock(UserRepository.class), sessions, 5, 60, TICK_MS);
+
+        engine.reload();
+        verify(sessions, timeout(2_000).times(1)).forEach(eq(7L), any());
+
+        engine.reload();
+        verify(sessions, after(20 * TICK_MS).times(1)).forEach(eq(7L), any());
+    }
+}
@@ -0,0 +1,37 @@
+package com.reimii.meetup.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * A sampled session that drops between JOIN and first media is counted as
+ * abandoned when its socket closes, not on a frame that never arrives.
+ */
+class JoinTraceTest {
+
+    @Test
+    void closeBeforeFirstMediaAbandons() {
+        var tracer = new JoinTracer(1.0, 5, 60_000);
+
+        var dropped = tracer.begin(1_000);
+        dropped.onRequest("JOIN", "/meetup-1", "1");
+        dropped.onReply("1", "JOINED");
+        dropped.onClose();
+        dropped.onClose();
+
+        var neverJoined = tracer.begin(1_000);
+        neverJoined.onClose();
+
+        var completed = tracer.begin(1_000);
+        completed.onRequest("JOIN", "/meetup-1", "1");
+        completed.onRequest("PRODUCE", "/meetup-1", "2");
+        completed.onReply("2", "PRODUCED");
+        completed.onClose();
+
+        var stats = tracer.current();
+        assertEquals(1, stats.abandoned());
+        assertEquals(1, stats.completed());
+        assertEquals(1, stats.slowest().size());
+    }
+}
@@ -0,0 +1,153 @@
+package com.reimii.meetup.users;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Monday 9:00 login burst: every user logs in several times at once on a
+ * cold cache, then everyone again, then a few with a changed profile. The
+ * repository stands in for MySQL's INSERT ... ON DUPLICATE KEY UPDATE on
+ * uk_users_email (atomic per email, no write when the hash matches) with a
+ * few ms per statement.
+ */
+class UserUpsertStressTest {
+
+    private static final int USERS = 200;
+    private static final int LOGINS_PER_USER = 8;
+    private static final int CHANGED = 50;
+    private static final int THREADS = 32;
+    private static final long STATEMENT_MS = 3;
+
+    private record Row(long id, String name, String hash) {
+    }
+
+    private final Map<String, Row> table = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final ThreadLocal<Long> lastInsertId = new ThreadLocal<>();
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicInteger writes = new AtomicInteger();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Test
+    void loginStorm() throws Exception {
+        var repo = mock(UserRepository.class, withSettings().stubOnly());
+        when(repo.upsert(anyString(), anyString(), any(), anyString(), anyString())).thenAnswer(inv -> {
+            statements.incrementAndGet();
+            Thread.sleep(STATEMENT_MS);
+            String email = inv.getArgument(0);
+            String name = inv.getArgument(1);
+            String hash = inv.getArgument(4);
+            Row row = table.compute(email, (k, old) -> {
+                if (old == null) {
+                    writes.incrementAndGet();
+                    return new Row(ids.incrementAndGet(), name, hash);
+                }
+                if (!old.hash().equals(hash)) {
+                    writes.incrementAndGet();
+                    return new Row(old.id(), name, hash);
+                }
+                return old;
+            });
+            lastInsertId.set(row.id());
+            return 1;
+        });
+        when(repo.lastInsertId()).thenAnswer(inv -> lastInsertId.get());
+        when(repo.findById(anyLong())).thenAnswer(inv -> {
+            lookups.incrementAndGet();
+            return Optional.empty();
+        });
+
+        var principals = new PrincipalCache(repo, 10_000, 3600);
+        var service = new UserService(repo, principals, mock(PlatformTransactionManager.class));
+
+        // cold cache: one row per user, no unique-key failures, same id for every login of a user
+        Map<String, Long> idByEmail = new ConcurrentHashMap<>();
+        long elapsed = storm(service, USERS, "User ", idByEmail);
+        assertEquals(USERS, table.size());
+        assertEquals(USERS, writes.get());
+        assertEquals(USERS, idByEmail.size());
+        table.forEach((email, row) -> assertEquals(row.id(), idByEmail.get(email)));
+        int coldStatements = statements.get();
+        assertTrue(coldStatements < USERS * LOGINS_PER_USER, "concurrent logins should share a statement");
+        System.out.printf("cold login storm: %d logins, %d statements, %d writes in %d ms%n",
+                USERS * LOGINS_PER_USER, coldStatements, writes.get(), elapsed);
+
+        // warm, unchanged: answered from the principal cache
+        elapsed = storm(service, USERS, "User ", idByEmail);
+        assertEquals(coldStatements, statements.get());
+        assertEquals(USERS, writes.get());
+        System.out.printf("warm login storm: %d logins, 0 statements in %d ms%n",
+                USERS * LOGINS_PER_USER, elapsed);
+
+        // some users renamed: one write each, the rest untouched
+        storm(service, CHANGED, "Renamed ", idByEmail);
+        assertEquals(USERS + CHANGED, writes.get());
+        assertEquals("Renamed 0", table.get(email(0)).name());
+        assertEquals("User " + CHANGED, table.get(email(CHANGED)).name());
+
+        // the JWT filter and handshake resolve logged-in users without a lookup
+        for (long id : idByEmail.values()) {
+            assertNotNull(principals.get(id));
+        }
+        assertEquals(0, lookups.get());
+    }
+
+    /**
+     * Users {@code [0, users)} each log in {@link #LOGINS_PER_USER} times, all
+     * released at once.
+     */
+    private long storm(UserService service, int users, String namePrefix, Map<String, Long> idByEmail)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        var go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < users * LOGINS_PER_USER; i++) {
+                int u = i % users;
+                futures.add(pool.submit(() -> {
+                    go.await();
+                    AppUser user = service.upsertGoogleUser(email(u), namePrefix + u, "https://pic/" + u);
+                    Long prev = idByEmail.putIfAbsent(email(u), user.getId());
+                    assertEquals(prev != null ? prev : user.getId(), user.getId());
+                    return null;
+                }));
+            }
+            long start = System.nanoTime();
+            go.countDown();
+            for (var f : futures) {
+                f.get();
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static String email(int u) {
+        return "user" + u + "@example.com";
+    }
+}
@@ -0,0 +1,115 @@
+package com.reimii.meetup.ws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.reimii.meetup.auth.JwtService;
+import com.reimii.meetup.auth.RevokedTokenRepository;
+import com.reimii.meetup.auth.RevokedTokens;
+import com.reimii.meetup.stats.JoinTracer;
+import com.reimii.meetup.users.AppUser;
+import com.reimii.meetup.users.PrincipalCache;
+import com.reimii.meetup.users.UserRepository;
+
+/**
+ * Connection storm against the /ws/meet handshake: a mix of valid tokens (all
+ * three transports) and missing, forged and expired ones. Invalid tokens must
+ * be rejected with 401 without touching the user repository.
+ */
+class HandshakeStormBenchmarkTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef-bench";
+    private static final int HANDSHAKES = 48_000;
+    private static final int THREADS = 8;
+
+    @Test
+    void connectionStormWithMixedTokens() throws Exception {
+        var jwt = new JwtService(SECRET, 3600);
+        var expiredJwt = new JwtService(SECRET, -60);
+        var forgedJwt = new JwtService("ffffffffffffffffffffffffffffffff-forged", 3600);
+
+        var user = new AppUser();
+        user.setId(42L);
+        user.setEmail("storm@example.com");
+        var users = mock(UserRepository.class);
+        when(users.findById(anyLong())).thenReturn(Optional.of(user));
+
+        var interceptor = new JwtHandshakeInterceptor(jwt, new PrincipalCache(users, 1_000, 3600),
+                new RevokedTokens(mock(RevokedTokenRepository.class), 1_000, 0.01), new JoinTracer(0, 0, 60_000));
+
+        String valid = jwt.createToken(42L, "storm@example.com");
+        String expired = expiredJwt.createToken(42L, "storm@example.com");
+        String forged = forgedJwt.createToken(42L, "storm@example.com");
+
+        var accepted = new AtomicInteger();
+        var rejected = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        try {
+            Future<?>[] futures = new Future<?>[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                futures[t] = pool.submit(() -> {
+                    for (int i = offset; i < HANDSHAKES; i += THREADS) {
+                        var req = new MockHttpServletRequest("GET", "/ws/meet");
+                        switch (i % 6) {
+                            case 0 -> req.addHeader("Authorization", "Bearer " + valid);
+                            case 1 -> req.addHeader("Sec-WebSocket-Protocol",
+                                    JwtHandshakeInterceptor.BEARER_SUBPROTOCOL + ", " + valid);
+                            case 2 -> req.setQueryString("access_token=" + valid);
+                            case 3 -> { /* no token */ }
+                            case 4 -> req.addHeader("Authorization", "Bearer " + forged);
+                            default -> req.addHeader("Authorization", "Bearer " + expired);
+                        }
+                        var res = new MockHttpServletResponse();
+
+                        boolean ok = interceptor.beforeHandshake(new ServletServerHttpRequest(req),
+                                new ServletServerHttpResponse(res), null, new HashMap<>());
+                        if (ok) {
+                            accepted.incrementAndGet();
+                        } else {
+                            assertEquals(HttpStatus.UNAUTHORIZED.value(), res.getStatus());
+                            rejected.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (var f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        long elapsedNs = System.nanoTime() - start;
+
+        assertEquals(HANDSHAKES / 2, accepted.get());
+        assertEquals(HANDSHAKES / 2, rejected.get());
+        // valid tokens load the user once per racing thread, then hit the principal cache
+        verify(users, atMost(THREADS)).findById(anyLong());
+
+        System.out.printf("handshake storm: %d handshakes on %d threads in %d ms (%.0f/s)%n",
+                HANDSHAKES, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNs),
+                HANDSHAKES / (elapsedNs / 1e9));
+    }
+}
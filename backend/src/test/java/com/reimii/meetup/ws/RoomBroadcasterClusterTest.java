@@ -0,0 +1,113 @@
+package com.reimii.meetup.ws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.reimii.meetup.audit.AuditLog;
+import com.reimii.meetup.cluster.ClusterConfig;
+import com.reimii.meetup.cluster.InMemoryClusterBackplane;
+
+/**
+ * Two backend nodes sharing one in-memory backplane: a broadcast on one node
+ * reaches the room's sessions on the other. Wired by hand, and as two Spring
+ * application contexts in one JVM the way they run side by side locally.
+ */
+class RoomBroadcasterClusterTest {
+
+    private final String cluster = "test-" + UUID.randomUUID();
+    private final InMemoryClusterBackplane nodeA = new InMemoryClusterBackplane(cluster, "a");
+    private final InMemoryClusterBackplane nodeB = new InMemoryClusterBackplane(cluster, "b");
+
+    @AfterEach
+    void close() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void broadcastReachesSessionsOnOtherNodes() throws Exception {
+        var roomsA = new RoomRegistry(nodeA, mock(AuditLog.class));
+        var roomsB = new RoomRegistry(nodeB, mock(AuditLog.class));
+        var broadcasterA = new RoomBroadcaster(roomsA, nodeA);
+        new RoomBroadcaster(roomsB, nodeB);
+
+        WebSocketSession alice = openSession("alice");
+        WebSocketSession bob = openSession("bob");
+        WebSocketSession carol = openSession("carol");
+
+        roomsA.join("r1", 1L, alice);
+        roomsB.join("r1", 2L, bob);
+        roomsB.join("r2", 3L, carol);
+
+        assertEquals(Set.of("a", "b"), nodeA.nodesFor("r1"));
+
+        broadcasterA.broadcast("r1", "{\"type\":\"PEER_JOINED\"}", 1L);
+
+        verify(bob, timeout(2_000)).sendMessage(any(TextMessage.class));
+        verify(alice, never()).sendMessage(any());
+        verify(carol, never()).sendMessage(any());
+
+        roomsB.leave("r1", 2L, bob);
+        assertEquals(Set.of("a"), nodeA.nodesFor("r1"));
+    }
+
+    @Test
+    void twoApplicationContextsShareTheBackplane(@TempDir Path dir) throws Exception {
+        try (var a = node(cluster + "-ctx", "ctx-a", dir.resolve("a"));
+                var b = node(cluster + "-ctx", "ctx-b", dir.resolve("b"))) {
+            var roomsA = a.getBean(RoomRegistry.class);
+            var roomsB = b.getBean(RoomRegistry.class);
+
+            WebSocketSession alice = openSession("alice");
+            WebSocketSession bob = openSession("bob");
+            roomsA.join("r1", 1L, alice);
+            roomsB.join("r1", 2L, bob);
+
+            assertEquals(Set.of("ctx-a", "ctx-b"), a.getBean(InMemoryClusterBackplane.class).nodesFor("r1"));
+
+            b.getBean(RoomBroadcaster.class).broadcast("r1", "{\"type\":\"PEER_LEFT\"}", 2L);
+
+            verify(alice, timeout(2_000)).sendMessage(any(TextMessage.class));
+            verify(bob, never()).sendMessage(any());
+        }
+    }
+
+    private static AnnotationConfigApplicationContext node(String clusterName, String nodeId, Path auditDir) {
+        var ctx = new AnnotationConfigApplicationContext();
+        ctx.getEnvironment().getPropertySources().addFirst(new MapPropertySource("node", Map.of(
+                "app.cluster.name", clusterName,
+                "app.cluster.node-id", nodeId,
+                "app.audit.dir", auditDir.toString(),
+                "app.audit.segment-bytes", "1048576",
+                "app.audit.queue-capacity", "1024",
+                "app.audit.force-interval-ms", "1000")));
+        ctx.register(ClusterConfig.class, AuditLog.class, RoomRegistry.class, RoomBroadcaster.class);
+        ctx.refresh();
+        return ctx;
+    }
+
+    private static WebSocketSession openSession(String id) {
+        var s = mock(WebSocketSession.class);
+        when(s.getId()).thenReturn(id);
+        when(s.isOpen()).thenReturn(true);
+        return s;
+    }
+}
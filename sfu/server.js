@@ -3,6 +3,26 @@ import * as mediasoup from "mediasoup";
 
 const wss = new WebSocketServer({ port: 4000, path: "/sfu" });
 
+/**
+ * Backend nodes prove themselves with this secret in BRIDGE_HELLO; only they
+ * may send the server verbs below. Without it set, any socket may claim to be
+ * a bridge (local development only).
+ */
+const BRIDGE_SECRET = process.env.SFU_BRIDGE_SECRET ?? "";
+if (!BRIDGE_SECRET) {
+    console.warn("SFU_BRIDGE_SECRET is not set: any client can act as a backend bridge");
+}
+
+const SERVER_ONLY = new Set([
+    "CREATE_ROOM",
+    "CLOSE_ROOM",
+    "PEER_LEAVE",
+    "GET_ROOM_STATS",
+    "WATCH_ROOM",
+    "UPDATE_CONSUMERS",
+    "SET_CONSUMERS_PAUSED",
+]);
+
 const worker = await mediasoup.createWorker();
 worker.on("died", () => process.exit(1));
 
@@ -19,31 +39,74 @@ function wsIsOpen(ws) {
     return ws.readyState === 1; // WebSocket.OPEN
 }
 
+/**
+ * Backend bridges multiplex many users over one socket, so they are never
+ * skipped as the origin; the backend filters by userId instead.
+ */
 function broadcastToRoom(roomId, exceptWs, payload) {
     const msg = JSON.stringify(payload);
     for (const client of wss.clients) {
         if (!wsIsOpen(client)) continue;
-        if (client.roomId !== roomId) continue;
-        if (exceptWs && client === exceptWs) continue;
+        if (!client.rooms.has(roomId)) continue;
+        if (exceptWs && client === exceptWs && !client.isBridge) continue;
         client.send(msg);
     }
 }
 
-async function getRoom(roomId) {
-    let room = rooms.get(roomId);
-    if (room) return room;
+/**
+ * roomId -> Promise<room> while its router is being created, so concurrent
+ * first requests (or a pre-warm racing a join) share one router.
+ */
+const pendingRooms = new Map();
 
+async function createRoom(roomId) {
     const mediaCodecs = [
         { kind: "audio", mimeType: "audio/opus", clockRate: 48000, channels: 2 },
+        // VP8 for simulcast publishers, VP9 for SVC (L3T3) publishers
         { kind: "video", mimeType: "video/VP8", clockRate: 90000 },
+        { kind: "video", mimeType: "video/VP9", clockRate: 90000, parameters: { "profile-id": 2 } },
     ];
 
     const router = await worker.createRouter({ mediaCodecs });
-    room = { router, peers: new Map() };
+
+    // Active-speaker input for the backend's last-N forwarding policy
+    const audioLevelObserver = await router.createAudioLevelObserver({
+        maxEntries: 16,
+        threshold: -60,
+        interval: 500,
+    });
+    audioLevelObserver.on("volumes", (volumes) => {
+        broadcastToRoom(roomId, null, {
+            type: "AUDIO_LEVELS",
+            roomId,
+            levels: volumes.map(({ producer, volume }) => ({
+                producerId: producer.id,
+                userId: producer.appData.userId,
+                volume,
+            })),
+        });
+    });
+    audioLevelObserver.on("silence", () => {
+        broadcastToRoom(roomId, null, { type: "AUDIO_LEVELS", roomId, levels: [] });
+    });
+
+    const room = { router, peers: new Map(), audioLevelObserver };
     rooms.set(roomId, room);
     return room;
 }
 
+async function getRoom(roomId) {
+    const room = rooms.get(roomId);
+    if (room) return room;
+
+    let pending = pendingRooms.get(roomId);
+    if (!pending) {
+        pending = createRoom(roomId).finally(() => pendingRooms.delete(roomId));
+        pendingRooms.set(roomId, pending);
+    }
+    return pending;
+}
+
 function ensurePeer(room, userId) {
     let peer = room.peers.get(userId);
     if (!peer) {
@@ -53,6 +116,58 @@ function ensurePeer(room, userId) {
     return peer;
 }
 
+/**
+ * Spatial/temporal layer counts from a scalabilityMode such as "L3T3" or
+ * "L1T3_KEY"; plain single-quality streams have one of each.
+ */
+function layersOf(rtpParameters) {
+    const encodings = rtpParameters?.encodings ?? [];
+    const match = /^[LS](\d+)T(\d+)/.exec(encodings[0]?.scalabilityMode ?? "");
+    const spatial = match ? Number(match[1]) : 1;
+    const temporal = match ? Number(match[2]) : 1;
+    // simulcast producers: one encoding per spatial layer
+    return { spatial: Math.max(spatial, encodings.length, 1), temporal };
+}
+
+/**
+ * Producer/consumer/transport counts, summed RTP bitrates (bps) and mean
+ * RTCP fraction lost (0..1) upstream (producers) and downstream (consumers).
+ */
+async function roomStats(room) {
+    const totals = { producers: 0, consumers: 0, transports: 0, recvBitrate: 0, sendBitrate: 0 };
+    const uplink = [];
+    const downlink = [];
+    const jobs = [];
+
+    for (const peer of room.peers.values()) {
+        totals.transports += peer.transports.size;
+        for (const producer of peer.producers.values()) {
+            totals.producers++;
+            jobs.push(producer.getStats().then((stats) => {
+                for (const s of stats) {
+                    if (s.type !== "inbound-rtp") continue;
+                    totals.recvBitrate += s.bitrate ?? 0;
+                    uplink.push((s.fractionLost ?? 0) / 256);
+                }
+            }));
+        }
+        for (const consumer of peer.consumers.values()) {
+            totals.consumers++;
+            jobs.push(consumer.getStats().then((stats) => {
+                for (const s of stats) {
+                    if (s.type !== "outbound-rtp") continue;
+                    totals.sendBitrate += s.bitrate ?? 0;
+                    downlink.push((s.fractionLost ?? 0) / 256);
+                }
+            }));
+        }
+    }
+    await Promise.allSettled(jobs);
+
+    const mean = (xs) => (xs.length ? xs.reduce((a, b) => a + b, 0) / xs.length : 0);
+    return { ...totals, uplinkLoss: mean(uplink), downlinkLoss: mean(downlink) };
+}
+
 function safeClose(entity) {
     try {
         entity?.close?.();
@@ -78,12 +193,50 @@ function cleanupPeer(room, userId) {
     room.peers.delete(userId);
 }
 
+/**
+ * Announces the peer's producers as closed, releases it, and drops the room
+ * once nobody is left in it.
+ */
+function releasePeer(roomId, userId) {
+    const room = rooms.get(roomId);
+    const peer = room?.peers.get(userId);
+    if (peer) {
+        for (const producerId of peer.producers.keys()) {
+            broadcastToRoom(roomId, null, {
+                type: "PRODUCER_CLOSED",
+                roomId,
+                userId,
+                producerId,
+            });
+        }
+        cleanupPeer(room, userId);
+    }
+    if (room && room.peers.size === 0) {
+        safeClose(room.router);
+        rooms.delete(roomId);
+    }
+}
+
 wss.on("connection", (ws) => {
     // store mapping on socket
     ws.roomId = null;
     ws.userId = null;
+    ws.rooms = new Set();
+    ws.isBridge = false;
+    // bridge only: roomId -> userIds whose peers came in through this socket
+    ws.peers = new Map();
 
     ws.on("close", () => {
+        // A bridge's peers are normally released one by one through PEER_LEAVE.
+        // If the backend node drops or restarts, those never come: release them all.
+        if (ws.isBridge) {
+            for (const [roomId, userIds] of ws.peers) {
+                for (const userId of userIds) releasePeer(roomId, userId);
+            }
+            ws.peers.clear();
+            return;
+        }
+
         const roomId = ws.roomId;
         const userId = ws.userId;
         if (!roomId || !userId) return;
@@ -119,15 +272,102 @@ wss.on("connection", (ws) => {
         const reply = (payload) => ws.send(JSON.stringify({ reqId, ...payload }));
 
         try {
+            if (type === "BRIDGE_HELLO") {
+                if (BRIDGE_SECRET && msg.secret !== BRIDGE_SECRET) {
+                    reply({ type: "ERROR", error: "FORBIDDEN" });
+                    return;
+                }
+                ws.isBridge = true;
+                reply({ type: "BRIDGE_WELCOME" });
+                return;
+            }
+
+            if (SERVER_ONLY.has(type) && !ws.isBridge) {
+                reply({ type: "ERROR", error: "FORBIDDEN" });
+                return;
+            }
+
             if (!roomId) {
                 reply({ type: "ERROR", error: "NO_ROOM_ID" });
                 return;
             }
 
+            // Server-side room lifecycle (pre-warm before start, tear down after end)
+            if (type === "CREATE_ROOM") {
+                await getRoom(roomId);
+                reply({ type: "ROOM_CREATED", roomId });
+                return;
+            }
+
+            if (type === "CLOSE_ROOM") {
+                const existing = rooms.get(roomId);
+                if (existing && existing.peers.size > 0) {
+                    reply({ type: "ERROR", error: "ROOM_NOT_EMPTY" });
+                    return;
+                }
+                if (existing) {
+                    safeClose(existing.router);
+                    rooms.delete(roomId);
+                }
+                reply({ type: "ROOM_CLOSED", roomId });
+                return;
+            }
+
+            // Backend tells us a user left the room (LEAVE, disconnect or heartbeat timeout)
+            if (type === "PEER_LEAVE") {
+                releasePeer(roomId, userId);
+                const owned = ws.peers.get(roomId);
+                if (owned?.delete(userId) && owned.size === 0) ws.peers.delete(roomId);
+                reply({ type: "PEER_LEFT", roomId, userId });
+                return;
+            }
+
+            // Backend stats sampler: one aggregate per room, never creates the room
+            if (type === "GET_ROOM_STATS") {
+                const existing = rooms.get(roomId);
+                if (!existing) {
+                    reply({ type: "ERROR", error: "ROOM_NOT_FOUND" });
+                    return;
+                }
+                reply({ type: "ROOM_STATS", roomId, ...(await roomStats(existing)) });
+                return;
+            }
+
             const room = await getRoom(roomId);
 
             // Bind ws to room early (for correct broadcasting)
             ws.roomId = roomId;
+            ws.rooms.add(roomId);
+
+            // A backend node subscribing to room events on behalf of its sessions
+            if (type === "WATCH_ROOM") {
+                reply({ type: "ROOM_WATCHED", roomId });
+                return;
+            }
+
+            // Backend forwarding policy: batch of
+            // { userId, consumerId, paused, spatialLayer?, temporalLayer? }
+            if (type === "UPDATE_CONSUMERS" || type === "SET_CONSUMERS_PAUSED") {
+                let applied = 0;
+                for (const u of msg.updates ?? []) {
+                    const consumer = room.peers.get(u.userId)?.consumers.get(u.consumerId);
+                    if (!consumer) continue;
+                    if (u.spatialLayer != null && consumer.type !== "simple") {
+                        await consumer.setPreferredLayers({
+                            spatialLayer: u.spatialLayer,
+                            temporalLayer: u.temporalLayer ?? undefined,
+                        });
+                    }
+                    if (u.paused != null) {
+                        consumer.appData.policyPaused = !!u.paused;
+                        if (u.paused) await consumer.pause();
+                        else await consumer.resume();
+                    }
+                    applied++;
+                }
+                reply({ type: "CONSUMERS_UPDATED", roomId, applied });
+                return;
+            }
 
             if (type === "RTPCAPS_REQUEST") {
                 reply({
@@ -144,6 +384,11 @@ wss.on("connection", (ws) => {
             }
 
             ws.userId = userId;
+            if (ws.isBridge) {
+                let owned = ws.peers.get(roomId);
+                if (!owned) ws.peers.set(roomId, (owned = new Set()));
+                owned.add(userId);
+            }
 
             if (type === "CREATE_TRANSPORT") {
                 const { direction } = msg;
@@ -195,8 +440,13 @@ wss.on("connection", (ws) => {
                 const producer = await transport.produce({
                     kind: msg.kind,
                     rtpParameters: msg.rtpParameters,
+                    appData: { userId },
                 });
 
+                if (producer.kind === "audio") {
+                    room.audioLevelObserver.addProducer({ producerId: producer.id }).catch(() => { });
+                }
+
                 peer.producers.set(producer.id, producer);
 
                 // When producer closes, broadcast it
@@ -227,6 +477,8 @@ wss.on("connection", (ws) => {
                     type: "NEW_PRODUCER",
                     roomId,
                     producerId: producer.id,
+                    kind: producer.kind,
+                    layers: layersOf(producer.rtpParameters),
                     userId,
                 });
 
@@ -285,11 +537,19 @@ wss.on("connection", (ws) => {
                 consumer.on("producerclose", () => peer.consumers.delete(consumer.id));
                 consumer.on("close", () => peer.consumers.delete(consumer.id));
 
+                let producerUserId = null;
+                for (const [uid, p] of room.peers) {
+                    if (p.producers.has(msg.producerId)) producerUserId = uid;
+                }
+
                 reply({
                     type: "CONSUMED",
                     consumerId: consumer.id,
                     producerId: msg.producerId,
+                    producerUserId,
                     kind: consumer.kind,
+                    consumerType: consumer.type,
+                    layers: layersOf(consumer.rtpParameters),
                     rtpParameters: consumer.rtpParameters,
                 });
                 return;
@@ -302,6 +562,11 @@ wss.on("connection", (ws) => {
                     reply({ type: "ERROR", error: "CONSUMER_NOT_FOUND" });
                     return;
                 }
+                // the backend's forwarding policy keeps this one paused for now
+                if (consumer.appData.policyPaused) {
+                    reply({ type: "CONSUMER_RESUMED", consumerId: consumer.id, policyPaused: true });
+                    return;
+                }
                 await consumer.resume();
                 reply({ type: "CONSUMER_RESUMED", consumerId: consumer.id });
                 return;